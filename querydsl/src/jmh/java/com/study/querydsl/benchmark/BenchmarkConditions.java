@@ -0,0 +1,33 @@
+package com.study.querydsl.benchmark;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+
+/**
+ * 벤치마크용 검색 조건
+ * EMPTY : 조건 없음 , TEAM : teamName 만 , ALL : 4개 조건 모두
+ */
+final class BenchmarkConditions {
+
+    private BenchmarkConditions() {
+    }
+
+    static MemberSearchCondition of(String shape) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        switch (shape) {
+            case "EMPTY":
+                break;
+            case "TEAM":
+                condition.setTeamName("teamA");
+                break;
+            case "ALL":
+                condition.setUsername("member1");
+                condition.setTeamName("teamA");
+                condition.setAgeGoe(10);
+                condition.setAgeLoe(40);
+                break;
+            default:
+                throw new IllegalArgumentException(shape);
+        }
+        return condition;
+    }
+}
@@ -0,0 +1,69 @@
+package com.study.querydsl.benchmark;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.study.querydsl.dto.MemberSearchCondition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import static com.study.querydsl.entity.QMember.member;
+import static com.study.querydsl.entity.QTeam.team;
+
+/**
+ * Querydsl 식 -> JPQL 문자열 직렬화 비용
+ * 요청마다 fetch() 할 때 발생하는 비용 ( MemberSearchTemplates 는 이 과정을 생략한다 )
+ */
+@State(Scope.Benchmark)
+public class JpqlSerializationBenchmark {
+
+    @Param({"EMPTY", "TEAM", "ALL"})
+    public String shape;
+
+    private MemberSearchCondition condition;
+    private QueryMetadata contentMetadata;
+    private QueryMetadata countMetadata;
+
+    @Setup
+    public void setUp() {
+        condition = BenchmarkConditions.of(shape);
+        contentMetadata = QueryBuildBenchmark.whereParamsQuery(condition).getMetadata();
+        countMetadata = new JPAQuery<Void>()
+                .select(member.count())
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        QueryBuildBenchmark.usernameEq(condition.getUsername()),
+                        QueryBuildBenchmark.teamNameEq(condition.getTeamName()),
+                        QueryBuildBenchmark.ageGoe(condition.getAgeGoe()),
+                        QueryBuildBenchmark.ageLoe(condition.getAgeLoe())
+                )
+                .getMetadata();
+    }
+
+    @Benchmark
+    public String contentQuery() {
+        return serialize(contentMetadata);
+    }
+
+    @Benchmark
+    public String countQuery() {
+        return serialize(countMetadata);
+    }
+
+    //식 생성 + 직렬화 ( 요청 한번에 실제로 드는 비용 )
+    @Benchmark
+    public String buildAndSerialize() {
+        return serialize(QueryBuildBenchmark.whereParamsQuery(condition).getMetadata());
+    }
+
+    private static String serialize(QueryMetadata metadata) {
+        JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+        serializer.serialize(metadata, false, null);
+        return serializer.toString();
+    }
+}
@@ -0,0 +1,95 @@
+package com.study.querydsl.benchmark;
+
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import com.study.querydsl.dto.MemberDto;
+import com.study.querydsl.dto.MemberTeamDto;
+import com.study.querydsl.dto.QMemberDto;
+import com.study.querydsl.dto.QMemberTeamDto;
+import com.study.querydsl.dto.UserDto;
+import com.study.querydsl.repository.support.FastProjections;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import static com.study.querydsl.entity.QMember.member;
+import static com.study.querydsl.entity.QTeam.team;
+
+/**
+ * 조회 결과 한 row(Object[]) -> DTO 변환 비용 ( QuerydslBasicTest 의 DTO 조회 방법들 )
+ * Projections.bean ( setter ) / Projections.fields ( 필드 직접 ) / Projections.constructor / @QueryProjection
+ * + 리플렉션 없는 FastProjections
+ */
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+    private final Object[] memberRow = {"member1", 10};
+    private final Object[] memberTeamRow = {1L, "member1", 10, 2L, "teamA"};
+
+    private final FactoryExpression<MemberDto> bean = Projections.bean(MemberDto.class, member.username, member.age);
+    private final FactoryExpression<MemberDto> fields = Projections.fields(MemberDto.class, member.username, member.age);
+    private final FactoryExpression<MemberDto> constructor = Projections.constructor(MemberDto.class, member.username, member.age);
+    private final FactoryExpression<MemberDto> queryProjection = new QMemberDto(member.username, member.age);
+
+    //별칭이 다른 경우 ( username -> name )
+    private final FactoryExpression<UserDto> aliasFields = Projections.fields(UserDto.class, member.username.as("name"), member.age);
+
+    private final FactoryExpression<MemberTeamDto> memberTeamQueryProjection = new QMemberTeamDto(
+            member.id.as("memberId"), member.username, member.age, team.id.as("teamId"), team.name.as("teamName"));
+
+    private final FactoryExpression<MemberDto> fastBean = FastProjections.bean(MemberDto.class, member.username, member.age);
+    private final FactoryExpression<MemberDto> fastFields = FastProjections.fields(MemberDto.class, member.username, member.age);
+    private final FactoryExpression<UserDto> fastAliasFields = FastProjections.fields(UserDto.class, member.username.as("name"), member.age);
+    private final FactoryExpression<MemberTeamDto> fastMemberTeamConstructor = FastProjections.constructor(MemberTeamDto.class,
+            member.id, member.username, member.age, team.id, team.name);
+
+    @Benchmark
+    public MemberDto bean() {
+        return bean.newInstance(memberRow);
+    }
+
+    @Benchmark
+    public MemberDto fields() {
+        return fields.newInstance(memberRow);
+    }
+
+    @Benchmark
+    public MemberDto constructor() {
+        return constructor.newInstance(memberRow);
+    }
+
+    @Benchmark
+    public MemberDto queryProjection() {
+        return queryProjection.newInstance(memberRow);
+    }
+
+    @Benchmark
+    public UserDto aliasFields() {
+        return aliasFields.newInstance(memberRow);
+    }
+
+    @Benchmark
+    public MemberTeamDto memberTeamQueryProjection() {
+        return memberTeamQueryProjection.newInstance(memberTeamRow);
+    }
+
+    @Benchmark
+    public MemberDto fastBean() {
+        return fastBean.newInstance(memberRow);
+    }
+
+    @Benchmark
+    public MemberDto fastFields() {
+        return fastFields.newInstance(memberRow);
+    }
+
+    @Benchmark
+    public UserDto fastAliasFields() {
+        return fastAliasFields.newInstance(memberRow);
+    }
+
+    @Benchmark
+    public MemberTeamDto fastMemberTeamConstructor() {
+        return fastMemberTeamConstructor.newInstance(memberTeamRow);
+    }
+}
@@ -0,0 +1,101 @@
+package com.study.querydsl.benchmark;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDto;
+import com.study.querydsl.dto.QMemberTeamDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import static com.study.querydsl.entity.QMember.member;
+import static com.study.querydsl.entity.QTeam.team;
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 동적 쿼리 식 생성 비용
+ * where 파라미터 ( MemberJpaRepository.search ) vs BooleanBuilder ( MemberJpaRepository.searchBtBuilder )
+ * DB 실행 / JPQL 직렬화 없이 JPAQuery 를 만드는 데까지만 측정
+ */
+@State(Scope.Benchmark)
+public class QueryBuildBenchmark {
+
+    @Param({"EMPTY", "TEAM", "ALL"})
+    public String shape;
+
+    private MemberSearchCondition condition;
+
+    @Setup
+    public void setUp() {
+        condition = BenchmarkConditions.of(shape);
+    }
+
+    @Benchmark
+    public JPAQuery<MemberTeamDto> whereParams() {
+        return whereParamsQuery(condition);
+    }
+
+    static JPAQuery<MemberTeamDto> whereParamsQuery(MemberSearchCondition condition) {
+        return new JPAQuery<Void>()
+                .select(projection())
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                );
+    }
+
+    @Benchmark
+    public JPAQuery<MemberTeamDto> booleanBuilder() {
+        BooleanBuilder builder = new BooleanBuilder();
+        if (hasText(condition.getUsername())) {
+            builder.and(member.username.eq(condition.getUsername()));
+        }
+        if (hasText(condition.getTeamName())) {
+            builder.and(team.name.eq(condition.getTeamName()));
+        }
+        if (condition.getAgeGoe() != null) {
+            builder.and(member.age.goe(condition.getAgeGoe()));
+        }
+        if (condition.getAgeLoe() != null) {
+            builder.and(member.age.loe(condition.getAgeLoe()));
+        }
+        return new JPAQuery<Void>()
+                .select(projection())
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(builder);
+    }
+
+    static QMemberTeamDto projection() {
+        return new QMemberTeamDto(
+                member.id.as("memberId"),
+                member.username,
+                member.age,
+                team.id.as("teamId"),
+                team.name.as("teamName"));
+    }
+
+    static BooleanExpression usernameEq(String username) {
+        return hasText(username) ? member.username.eq(username) : null;
+    }
+
+    static BooleanExpression teamNameEq(String teamName) {
+        return hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    static BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    static BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.study.querydsl.config;
+
+import com.study.querydsl.repository.support.TableWriteInspector;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate 설정 추가
+ */
+@Configuration
+public class JpaConfig {
+
+    //모든 SQL 에서 쓰기 대상 테이블을 찾아 TableWriteEvent 발행 ( 캐시 무효화용 )
+    @Bean
+    HibernatePropertiesCustomizer tableWriteInspectorCustomizer(ApplicationEventPublisher publisher){
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new TableWriteInspector(publisher));
+    }
+}
@@ -0,0 +1,146 @@
+package com.study.querydsl.config;
+
+import com.study.querydsl.repository.support.CountCache;
+import com.study.querydsl.repository.support.DatabaseConcurrencyLimiter;
+import com.study.querydsl.repository.support.MeteredPages;
+import com.study.querydsl.repository.support.NPlusOneDetector;
+import com.study.querydsl.repository.support.SearchResultCache;
+import com.study.querydsl.repository.support.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer 지표 등록 ( /actuator/metrics , /actuator/prometheus )
+ *
+ * 레포지토리 메서드 지표는 RepositoryMetrics 참고
+ * 여기서는 요청당 SQL 수 + count 쿼리 생략 ( MeteredPages ) + CountCache / SearchResultCache / SingleFlight / DatabaseConcurrencyLimiter 상태를 등록
+ * 요청 단위 N+1 감지 범위도 여기서 등록 ( NPlusOneDetector )
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry registry;
+    private final NPlusOneDetector nPlusOneDetector;
+
+    public MetricsConfig(MeterRegistry registry, NPlusOneDetector nPlusOneDetector){
+        this.registry = registry;
+        this.nPlusOneDetector = nPlusOneDetector;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new StatementCountInterceptor(this.registry));
+        registry.addInterceptor(new NPlusOneInterceptor(nPlusOneDetector));
+    }
+
+    @Bean
+    MeterBinder pageCountMetrics(){
+        return registry -> {
+            FunctionCounter.builder("repository.page.count", MeteredPages.class, c -> MeteredPages.executedCount())
+                    .description("페이징 count 쿼리가 필요했던 횟수")
+                    .tag("result", "executed")
+                    .register(registry);
+            FunctionCounter.builder("repository.page.count", MeteredPages.class, c -> MeteredPages.skippedCount())
+                    .description("PageableExecutionUtils 가 count 쿼리를 생략한 횟수")
+                    .tag("result", "skipped")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder countCacheMetrics(CountCache countCache){
+        return registry -> {
+            FunctionCounter.builder("count.cache.requests", countCache, c -> c.stats().getHitCount())
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("count.cache.requests", countCache, c -> c.stats().getMissCount())
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("count.cache.invalidations", countCache, c -> c.stats().getInvalidationCount())
+                    .register(registry);
+            Gauge.builder("count.cache.size", countCache, c -> c.stats().getSize())
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder searchResultCacheMetrics(SearchResultCache searchResultCache){
+        return registry -> {
+            FunctionCounter.builder("search.cache.requests", searchResultCache, c -> c.stats().getHitCount())
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("search.cache.requests", searchResultCache, c -> c.stats().getMissCount())
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("search.cache.requests", searchResultCache, c -> c.stats().getBypassCount())
+                    .tag("result", "bypass")
+                    .register(registry);
+            Gauge.builder("search.cache.hit.ratio", searchResultCache, c -> c.stats().getHitRatio())
+                    .register(registry);
+            FunctionCounter.builder("search.cache.removals", searchResultCache, c -> c.stats().getEvictionCount())
+                    .tag("cause", "size")
+                    .register(registry);
+            FunctionCounter.builder("search.cache.removals", searchResultCache, c -> c.stats().getExpirationCount())
+                    .tag("cause", "expired")
+                    .register(registry);
+            FunctionCounter.builder("search.cache.removals", searchResultCache, c -> c.stats().getInvalidationCount())
+                    .tag("cause", "invalidated")
+                    .register(registry);
+            Gauge.builder("search.cache.size", searchResultCache, c -> c.stats().getSize())
+                    .register(registry);
+            Gauge.builder("search.cache.weight", searchResultCache, c -> c.stats().getWeightBytes())
+                    .description("캐시된 검색 결과 추정 메모리")
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder singleFlightMetrics(SingleFlight singleFlight){
+        return registry -> {
+            FunctionCounter.builder("single.flight.calls", singleFlight, f -> f.stats().getExecutionCount())
+                    .tag("result", "executed")
+                    .register(registry);
+            FunctionCounter.builder("single.flight.calls", singleFlight, f -> f.stats().getSharedCount())
+                    .tag("result", "shared")
+                    .description("실행 중인 같은 조회의 결과를 받은 호출")
+                    .register(registry);
+            FunctionCounter.builder("single.flight.calls", singleFlight, f -> f.stats().getBypassCount())
+                    .tag("result", "bypass")
+                    .register(registry);
+            FunctionCounter.builder("single.flight.calls", singleFlight, f -> f.stats().getTimeoutCount())
+                    .tag("result", "timeout")
+                    .description("leader 를 기다리다 직접 실행한 호출")
+                    .register(registry);
+            Gauge.builder("single.flight.in.flight", singleFlight, f -> f.stats().getInFlight())
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder databaseLimiterMetrics(DatabaseConcurrencyLimiter limiter){
+        return registry -> {
+            Gauge.builder("db.limiter.queue.depth", limiter, l -> l.stats().getQueueDepth())
+                    .description("실행 순서를 기다리는 스레드 수")
+                    .register(registry);
+            Gauge.builder("db.limiter.available", limiter, l -> l.stats().getAvailablePermits())
+                    .register(registry);
+            FunctionTimer.builder("db.limiter.wait", limiter,
+                            l -> l.stats().getAcquiredCount(),
+                            l -> l.stats().getTotalWaitNanos(), TimeUnit.NANOSECONDS)
+                    .description("실행 순서를 얻기까지 기다린 시간")
+                    .register(registry);
+            FunctionCounter.builder("db.limiter.rejected", limiter, l -> l.stats().getRejectedCount())
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.study.querydsl.config;
+
+import com.study.querydsl.repository.support.NPlusOneDetector;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * 요청 하나를 N+1 감지 범위로 ( NPlusOneDetector )
+ */
+public class NPlusOneInterceptor implements HandlerInterceptor {
+
+    private final NPlusOneDetector detector;
+
+    public NPlusOneInterceptor(NPlusOneDetector detector){
+        this.detector = detector;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        detector.beginScope(request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        detector.endScope();
+    }
+}
@@ -0,0 +1,14 @@
+package com.study.querydsl.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * @Scheduled 작업 ( TeamStatsService 재계산 등 ) - 테스트에서는 끈다
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "member.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
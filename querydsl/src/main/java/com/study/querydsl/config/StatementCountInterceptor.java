@@ -0,0 +1,57 @@
+package com.study.querydsl.config;
+
+import com.study.querydsl.repository.support.StatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * 요청당 실행한 SQL 수 ( http.server.requests.statements , uri 태그 )
+ * N+1 처럼 요청 하나에 쿼리가 많이 나가는 API 를 찾는 용도
+ * ( ParallelPageExecutor 처럼 다른 스레드에서 실행한 SQL 은 빠진다 )
+ *
+ * 비동기 요청 ( StreamingResponseBody - /members/export , /v1/members/stream ) 은 기록하지 않는다
+ * SQL 을 응답 쓰기 스레드에서 실행해서 요청 스레드에서는 셀 수 없다 ( 0 에 가깝게 기록되어 분포만 흐린다 )
+ *  - 첫 디스패치 : afterCompletion 대신 afterConcurrentHandlingStarted 가 불린다 -> 여기서 ThreadLocal 정리
+ *  - 응답이 끝난 뒤 ASYNC 디스패치 : 세지 않는다
+ */
+public class StatementCountInterceptor implements AsyncHandlerInterceptor {
+
+    private final MeterRegistry registry;
+
+    public StatementCountInterceptor(MeterRegistry registry){
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if(request.getDispatcherType() != DispatcherType.ASYNC){
+            StatementCounter.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        //요청 스레드는 풀로 돌아간다 ( 다음 요청에 카운터가 남지 않게 )
+        StatementCounter.stop();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        long statements = StatementCounter.stop();
+        if(statements < 0){
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("http.server.requests.statements")
+                .description("요청 하나에서 실행한 SQL 수")
+                .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                .register(registry)
+                .record(statements);
+    }
+}
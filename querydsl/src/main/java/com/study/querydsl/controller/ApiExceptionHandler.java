@@ -0,0 +1,39 @@
+package com.study.querydsl.controller;
+
+import com.study.querydsl.service.BulkJobStateException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * 잘못된 요청 값 ( 커서 , format , 검색 조건 수 등 ) 은 500 대신 400
+ * 요청 값을 검사하는 곳은 IllegalArgumentException 을 던진다 ( MemberCursor.decode , MemberExportService.Format.of ... )
+ * 지금 상태에서 할 수 없는 요청 ( 실행 중이 아닌 벌크 작업 stop 등 ) 은 409
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ProblemDetail badRequest(IllegalArgumentException e){
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    /**
+     * Spring Data 레포지토리 ( MemberRepository.searchBatch 등 ) 에서 던진 IllegalArgumentException 은
+     * 예외 변환 ( @Repository ) 을 거쳐 InvalidDataAccessApiUsageException 으로 감싸져서 나온다
+     */
+    @ExceptionHandler(InvalidDataAccessApiUsageException.class)
+    public ProblemDetail badRequest(InvalidDataAccessApiUsageException e){
+        if(e.getCause() instanceof IllegalArgumentException){
+            return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getCause().getMessage());
+        }
+        return ProblemDetail.forStatus(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @ExceptionHandler(BulkJobStateException.class)
+    public ProblemDetail conflict(BulkJobStateException e){
+        return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+    }
+}
@@ -0,0 +1,46 @@
+package com.study.querydsl.controller;
+
+import com.study.querydsl.dto.BulkJobDto;
+import com.study.querydsl.dto.BulkJobRequest;
+import com.study.querydsl.service.MemberBulkJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 청크 단위 벌크 작업 ( 시작하면 바로 응답하고 백그라운드에서 실행 )
+ * 진행 상황은 GET /members/bulk-jobs/{jobId}
+ */
+@RestController
+@RequiredArgsConstructor
+public class BulkJobController {
+
+    private final MemberBulkJobService memberBulkJobService;
+
+    @PostMapping("/members/bulk-jobs")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BulkJobDto start(@RequestBody BulkJobRequest request){
+        return memberBulkJobService.start(request);
+    }
+
+    @GetMapping("/members/bulk-jobs/{jobId}")
+    public BulkJobDto status(@PathVariable Long jobId){
+        return memberBulkJobService.find(jobId);
+    }
+
+    @PostMapping("/members/bulk-jobs/{jobId}/resume")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BulkJobDto resume(@PathVariable Long jobId){
+        return memberBulkJobService.resume(jobId);
+    }
+
+    @PostMapping("/members/bulk-jobs/{jobId}/stop")
+    public BulkJobDto stop(@PathVariable Long jobId){
+        return memberBulkJobService.stop(jobId);
+    }
+}
@@ -30,6 +30,11 @@ public class InitMember {
 
         @Transactional
         public void init(){
+            //스키마를 Flyway 가 관리하면서 재시작해도 데이터가 남는다 -> 처음 한번만
+            Long count = em.createQuery("select count(m) from Member m", Long.class).getSingleResult();
+            if(count > 0){
+                return;
+            }
             Team teamA = new Team("teamA");
             Team teamB = new Team("teamB");
             em.persist(teamA);
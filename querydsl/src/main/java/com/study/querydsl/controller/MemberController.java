@@ -1,15 +1,34 @@
 package com.study.querydsl.controller;
 
+import com.study.querydsl.dto.AgeStatsDto;
+import com.study.querydsl.dto.CursorResult;
+import com.study.querydsl.dto.MemberCursor;
+import com.study.querydsl.dto.MemberImportResult;
 import com.study.querydsl.dto.MemberSearchCondition;
 import com.study.querydsl.dto.MemberTeamDto;
+import com.study.querydsl.dto.TeamStatsDto;
 import com.study.querydsl.repository.MemberJpaRepository;
 import com.study.querydsl.repository.MemberRepository;
+import com.study.querydsl.service.MemberAnalyticsService;
+import com.study.querydsl.service.MemberExportService;
+import com.study.querydsl.service.MemberImportService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -18,12 +37,47 @@ public class MemberController {
 
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberExportService memberExportService;
+    private final MemberImportService memberImportService;
+    private final MemberAnalyticsService memberAnalyticsService;
 
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition){
         return memberJpaRepository.search(condition);
     }
 
+    /**
+     * /v1/members 스트리밍 버전 ( 전체 List 를 만들지 않고 읽는 대로 chunk 단위로 보낸다 )
+     * Accept: text/event-stream -> SSE ( event: members 마다 chunk 배열 , 마지막 event: end )
+     * 그 외                      -> JSON 배열 ( chunked 응답 , 받는 쪽은 /v1/members 와 같은 형태 )
+     */
+    @GetMapping("/v1/members/stream")
+    public ResponseEntity<StreamingResponseBody> streamMemberV1(MemberSearchCondition condition,
+                                                                @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
+        //produces 로 나누면 Accept: */* 일때 어느 쪽인지 모호하다 -> 직접 확인
+        boolean sse = accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+        MemberExportService.StreamFormat format = sse
+                ? MemberExportService.StreamFormat.SSE
+                : MemberExportService.StreamFormat.JSON_ARRAY;
+        MediaType mediaType = sse ? MediaType.TEXT_EVENT_STREAM : MediaType.APPLICATION_JSON;
+
+        StreamingResponseBody body = out -> memberExportService.stream(condition, format, out);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .header("X-Accel-Buffering", "no")   //프록시 ( nginx ) 가 모아서 보내지 않도록
+                .body(body);
+    }
+
+    /**
+     * 검색 조건 여러개를 한번에 ( 화면 위젯마다 /v1/members 를 따로 부르지 않도록 )
+     * 본문 : [{"teamName":"teamA"},{"teamName":"teamB","ageGoe":20}, ...] -> 응답 : 조건 순서대로 결과 목록
+     */
+    @PostMapping("/members/search:batch")
+    public List<List<MemberTeamDto>> searchMemberBatch(@RequestBody List<MemberSearchCondition> conditions){
+        return memberRepository.searchBatch(conditions);
+    }
+
     @GetMapping("/v2/members")
     public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable){
         return memberRepository.searchPageSimple(condition, pageable);
@@ -34,4 +88,64 @@ public class MemberController {
         return memberRepository.searchPageComplex(condition, pageable);
     }
 
+    /**
+     * 커서 기반 페이징 ( /v4/members?after=커서&size=20&sort=age )
+     * 응답의 nextCursor 를 after 로 넘겨 다음 페이지 조회
+     */
+    @GetMapping("/v4/members")
+    public CursorResult<MemberTeamDto> searchMemberV4(MemberSearchCondition condition, Pageable pageable,
+                                                     @RequestParam(required = false) String after){
+        MemberCursor cursor = after != null ? MemberCursor.decode(after) : null;
+        Slice<MemberTeamDto> result = memberRepository.searchByCursor(condition, cursor, pageable);
+
+        List<MemberTeamDto> content = result.getContent();
+        String nextCursor = result.hasNext() ? MemberCursor.of(content.get(content.size() - 1)).encode() : null;
+        return new CursorResult<>(content, result.hasNext(), nextCursor);
+    }
+
+    /**
+     * 검색 결과 전체 내보내기 ( /members/export?format=csv )
+     * 응답을 스트리밍 하기 때문에 결과 크기와 상관없이 메모리 일정
+     */
+    @GetMapping("/members/export")
+    public ResponseEntity<StreamingResponseBody> exportMembers(MemberSearchCondition condition,
+                                                               @RequestParam(defaultValue = "ndjson") String format){
+        MemberExportService.Format exportFormat = MemberExportService.Format.of(format);
+        MediaType mediaType = exportFormat == MemberExportService.Format.CSV
+                ? new MediaType("text", "csv")
+                : MediaType.APPLICATION_NDJSON;
+
+        StreamingResponseBody body = out -> memberExportService.export(condition, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .body(body);
+    }
+
+    /**
+     * 회원 대량 등록 ( 본문을 스트림으로 읽는다 )
+     * Content-Type: application/x-ndjson -> {"username":"member1","age":10,"teamName":"teamA"} 한 줄씩
+     * Content-Type: text/csv             -> username,age,teamName 한 줄씩 ( 헤더 생략 가능 )
+     */
+    @PostMapping(value = "/members/bulk", consumes = {"application/x-ndjson", "text/csv"})
+    public MemberImportResult bulkInsertMembers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                InputStream body) throws IOException {
+        MemberImportService.Format format = contentType.contains("csv")
+                ? MemberImportService.Format.CSV
+                : MemberImportService.Format.NDJSON;
+        return memberImportService.importMembers(body, format);
+    }
+
+    /**
+     * 검색 조건에 맞는 회원 나이 집계 ( member.columnar.enabled 면 메모리 복제본에서 )
+     */
+    @GetMapping("/members/analytics/age")
+    public AgeStatsDto ageStats(MemberSearchCondition condition){
+        return memberAnalyticsService.ageStats(condition);
+    }
+
+    @GetMapping("/members/analytics/teams")
+    public List<TeamStatsDto> ageStatsByTeam(MemberSearchCondition condition){
+        return memberAnalyticsService.ageStatsByTeam(condition);
+    }
+
 }
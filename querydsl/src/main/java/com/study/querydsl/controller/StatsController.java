@@ -0,0 +1,79 @@
+package com.study.querydsl.controller;
+
+import com.study.querydsl.repository.support.CountCache;
+import com.study.querydsl.repository.support.DatabaseConcurrencyLimiter;
+import com.study.querydsl.repository.support.MemberColumns;
+import com.study.querydsl.repository.support.MemberSnapshot;
+import com.study.querydsl.repository.support.NPlusOneDetector;
+import com.study.querydsl.repository.support.SearchResultCache;
+import com.study.querydsl.repository.support.SecondLevelCacheStats;
+import com.study.querydsl.repository.support.SingleFlight;
+import com.study.querydsl.repository.support.UsernameIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 캐시 등 내부 상태 조회용
+ */
+@RestController
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final CountCache countCache;
+    private final SearchResultCache searchResultCache;
+    private final SingleFlight singleFlight;
+    private final SecondLevelCacheStats secondLevelCacheStats;
+    private final DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+    private final NPlusOneDetector nPlusOneDetector;
+    private final UsernameIndex usernameIndex;
+    private final MemberColumns memberColumns;
+    private final MemberSnapshot memberSnapshot;
+
+    @GetMapping("/stats/count-cache")
+    public CountCache.Stats countCacheStats(){
+        return countCache.stats();
+    }
+
+    @GetMapping("/stats/search-cache")
+    public SearchResultCache.Stats searchCacheStats(){
+        return searchResultCache.stats();
+    }
+
+    @GetMapping("/stats/single-flight")
+    public SingleFlight.Stats singleFlightStats(){
+        return singleFlight.stats();
+    }
+
+    @GetMapping("/stats/second-level-cache")
+    public List<SecondLevelCacheStats.RegionStats> secondLevelCacheStats(){
+        return secondLevelCacheStats.regions();
+    }
+
+    @GetMapping("/stats/db-limiter")
+    public DatabaseConcurrencyLimiter.Stats databaseLimiterStats(){
+        return databaseConcurrencyLimiter.stats();
+    }
+
+    @GetMapping("/stats/n-plus-one")
+    public List<NPlusOneDetector.Report> nPlusOneReports(){
+        return nPlusOneDetector.reports();
+    }
+
+    @GetMapping("/stats/username-index")
+    public UsernameIndex.Stats usernameIndexStats(){
+        return usernameIndex.stats();
+    }
+
+    @GetMapping("/stats/member-columns")
+    public MemberColumns.Stats memberColumnsStats(){
+        return memberColumns.stats();
+    }
+
+    @GetMapping("/stats/member-snapshot")
+    public MemberSnapshot.Stats memberSnapshotStats(){
+        return memberSnapshot.stats();
+    }
+}
@@ -0,0 +1,24 @@
+package com.study.querydsl.controller;
+
+import com.study.querydsl.dto.TeamStatsDto;
+import com.study.querydsl.service.TeamStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamStatsService teamStatsService;
+
+    /**
+     * 팀별 회원 수 / 나이 합 / 평균 / 최소 / 최대 ( 회원 전체를 집계하지 않고 team_stats 를 읽는다 )
+     */
+    @GetMapping("/teams/stats")
+    public List<TeamStatsDto> teamStats(){
+        return teamStatsService.findAll();
+    }
+}
@@ -0,0 +1,20 @@
+package com.study.querydsl.dto;
+
+import lombok.Data;
+
+@Data
+public class AgeStatsDto {
+    private long memberCount;
+    private long ageSum;
+    private Double ageAvg;
+    private Integer minAge;
+    private Integer maxAge;
+
+    public AgeStatsDto(long memberCount, long ageSum, Integer minAge, Integer maxAge){
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+        this.ageAvg = memberCount == 0 ? null : (double) ageSum / memberCount;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+    }
+}
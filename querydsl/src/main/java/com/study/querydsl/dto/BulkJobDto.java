@@ -0,0 +1,37 @@
+package com.study.querydsl.dto;
+
+import com.study.querydsl.entity.BulkJob;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class BulkJobDto {
+    private Long jobId;
+    private BulkJob.Action action;
+    private BulkJob.Status status;
+    private double progress;
+    private long lastId;
+    private long maxId;
+    private int chunkCount;
+    private long affectedCount;
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+
+    public BulkJobDto(BulkJob job){
+        this.jobId = job.getId();
+        this.action = job.getAction();
+        this.status = job.getStatus();
+        this.progress = job.getProgress();
+        this.lastId = job.getLastId();
+        this.maxId = job.getMaxId();
+        this.chunkCount = job.getChunkCount();
+        this.affectedCount = job.getAffectedCount();
+        this.error = job.getError();
+        this.startedAt = job.getStartedAt();
+        this.updatedAt = job.getUpdatedAt();
+        this.finishedAt = job.getFinishedAt();
+    }
+}
@@ -0,0 +1,16 @@
+package com.study.querydsl.dto;
+
+import com.study.querydsl.entity.BulkJob;
+import lombok.Data;
+
+/**
+ * 벌크 작업 시작 요청
+ * {"action":"INCREASE_AGE","value":"1","condition":{"ageGoe":18},"chunkSize":1000}
+ */
+@Data
+public class BulkJobRequest {
+    private BulkJob.Action action;
+    private String value;
+    private MemberSearchCondition condition = new MemberSearchCondition();
+    private Integer chunkSize;     //없으면 member.bulk-job.chunk-size
+}
@@ -0,0 +1,22 @@
+package com.study.querydsl.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 커서 기반 페이징 응답
+ * nextCursor 를 다음 요청의 after 파라미터로 넘기면 이어서 조회한다 ( 마지막이면 null )
+ */
+@Data
+public class CursorResult<T> {
+    private List<T> content;
+    private boolean hasNext;
+    private String nextCursor;
+
+    public CursorResult(List<T> content, boolean hasNext, String nextCursor){
+        this.content = content;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+}
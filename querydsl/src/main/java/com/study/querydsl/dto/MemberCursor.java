@@ -0,0 +1,43 @@
+package com.study.querydsl.dto;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 커서 기반(keyset) 페이징의 위치 정보
+ * 마지막으로 조회한 row 의 (age, memberId) 를 담고, 클라이언트에게는 불투명한 문자열로 전달한다
+ */
+@Getter
+public class MemberCursor {
+
+    private final int age;
+    private final Long memberId;
+
+    public MemberCursor(int age, Long memberId){
+        this.age = age;
+        this.memberId = memberId;
+    }
+
+    public static MemberCursor of(MemberTeamDto dto){
+        return new MemberCursor(dto.getAge(), dto.getMemberId());
+    }
+
+    //"age:memberId" 를 URL-safe Base64 로 인코딩
+    public String encode(){
+        String raw = age + ":" + memberId;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(String cursor){
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int idx = raw.indexOf(':');
+            return new MemberCursor(Integer.parseInt(raw.substring(0, idx)), Long.parseLong(raw.substring(idx + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("잘못된 커서 값입니다: " + cursor, e);
+        }
+    }
+}
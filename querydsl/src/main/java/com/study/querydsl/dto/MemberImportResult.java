@@ -0,0 +1,14 @@
+package com.study.querydsl.dto;
+
+import lombok.Data;
+
+@Data
+public class MemberImportResult {
+    private long count;
+    private long elapsedMillis;
+
+    public MemberImportResult(long count, long elapsedMillis){
+        this.count = count;
+        this.elapsedMillis = elapsedMillis;
+    }
+}
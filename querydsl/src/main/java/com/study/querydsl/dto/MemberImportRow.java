@@ -0,0 +1,13 @@
+package com.study.querydsl.dto;
+
+import lombok.Data;
+
+/**
+ * 대량 등록 한 줄 ( NDJSON 한 줄 또는 CSV 한 줄 : username,age,teamName )
+ */
+@Data
+public class MemberImportRow {
+    private String username;
+    private int age;
+    private String teamName;
+}
@@ -3,6 +3,7 @@ package com.study.querydsl.dto;
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.util.StringUtils;
 
 @Data
 @Getter @Setter
@@ -12,5 +13,30 @@ public class MemberSearchCondition {
     private String teamName;
     private Integer ageGoe;
     private Integer ageLoe;
+    //username 부분 일치 / 앞부분 일치 ( UsernameIndex )
+    private String usernameContains;
+    private String usernameStartsWith;
+
+    /**
+     * 캐시 key 등으로 쓸 때 사용
+     * 검색 조건(hasText)과 똑같이 "" , "  " 는 null 로 취급해서 같은 조건이 같은 key 가 되도록 한다
+     */
+    public MemberSearchCondition normalized(){
+        MemberSearchCondition normalized = new MemberSearchCondition();
+        normalized.setUsername(StringUtils.hasText(username) ? username : null);
+        normalized.setTeamName(StringUtils.hasText(teamName) ? teamName : null);
+        normalized.setAgeGoe(ageGoe);
+        normalized.setAgeLoe(ageLoe);
+        normalized.setUsernameContains(StringUtils.hasText(usernameContains) ? usernameContains : null);
+        normalized.setUsernameStartsWith(StringUtils.hasText(usernameStartsWith) ? usernameStartsWith : null);
+        return normalized;
+    }
+
+    /**
+     * contains / startsWith 조건이 있으면 미리 만들어둔 템플릿 ( MemberSearchTemplates ) 대신 동적 쿼리
+     */
+    public boolean hasUsernamePattern(){
+        return StringUtils.hasText(usernameContains) || StringUtils.hasText(usernameStartsWith);
+    }
 
 }
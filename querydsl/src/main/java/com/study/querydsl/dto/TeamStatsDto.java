@@ -0,0 +1,24 @@
+package com.study.querydsl.dto;
+
+import lombok.Data;
+
+@Data
+public class TeamStatsDto {
+    private Long teamId;
+    private String teamName;
+    private long memberCount;
+    private long ageSum;
+    private Double ageAvg;
+    private Integer minAge;
+    private Integer maxAge;
+
+    public TeamStatsDto(Long teamId, String teamName, long memberCount, long ageSum, Integer minAge, Integer maxAge){
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+        this.ageAvg = memberCount == 0 ? null : (double) ageSum / memberCount;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+    }
+}
@@ -0,0 +1,136 @@
+package com.study.querydsl.entity;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * 청크 단위 벌크 작업 ( MemberBulkJobService )
+ *
+ * member_id 범위 ( lastId , lastId + chunkSize ] 를 하나씩 처리하고 청크와 같은 트랜잭션에서 lastId 를 저장한다
+ * -> 중간에 멈춰도 lastId 다음부터 이어서 실행 ( 같은 청크가 두번 실행되지 않는다 )
+ * maxId 는 시작 시점의 최대 id ( 작업 중에 새로 들어온 회원은 대상이 아니다 )
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(of = {"id", "action", "status", "lastId", "maxId", "affectedCount"})
+public class BulkJob {
+
+    public enum Action { DELETE, INCREASE_AGE, RENAME }
+
+    public enum Status { RUNNING, STOPPED, INTERRUPTED, FAILED, COMPLETED }
+
+    //V1 bulk_job.error varchar(255) - JDBC / Hibernate 예외 메시지는 이보다 긴 경우가 많다 ( 전체는 로그에 )
+    public static final int ERROR_LENGTH = 255;
+
+    @Id @GeneratedValue
+    @Column(name = "bulk_job_id")
+    private Long id;
+
+    //V1 은 varchar ( H2 에서 Hibernate 6 기본은 enum 타입 -> ddl-auto: validate 에서 걸린다 )
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    private Action action;
+
+    //INCREASE_AGE -> 더할 나이 , RENAME -> 바꿀 이름
+    private String actionValue;
+
+    //대상 조건 ( MemberSearchCondition )
+    private String username;
+    private String teamName;
+    private Integer ageGoe;
+    private Integer ageLoe;
+
+    private int chunkSize;
+    private long firstId;   //시작 범위 ( 최소 id - 1 )
+    private long lastId;    //여기까지 처리 완료 ( 체크포인트 )
+    private long maxId;
+
+    private long affectedCount;
+    private int chunkCount;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    private Status status;
+
+    @Column(length = ERROR_LENGTH)
+    private String error;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+
+    public BulkJob(Action action, String actionValue, MemberSearchCondition condition,
+                   int chunkSize, long firstId, long maxId){
+        this.action = action;
+        this.actionValue = actionValue;
+        this.username = condition.getUsername();
+        this.teamName = condition.getTeamName();
+        this.ageGoe = condition.getAgeGoe();
+        this.ageLoe = condition.getAgeLoe();
+        this.chunkSize = chunkSize;
+        this.firstId = firstId;
+        this.lastId = firstId;
+        this.maxId = maxId;
+        this.status = Status.RUNNING;
+        this.startedAt = LocalDateTime.now();
+        this.updatedAt = startedAt;
+    }
+
+    public MemberSearchCondition toCondition(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setTeamName(teamName);
+        condition.setAgeGoe(ageGoe);
+        condition.setAgeLoe(ageLoe);
+        return condition;
+    }
+
+    public boolean isFinished(){
+        return lastId >= maxId;
+    }
+
+    public boolean isResumable(){
+        return status == Status.STOPPED || status == Status.INTERRUPTED || status == Status.FAILED;
+    }
+
+    /**
+     * 처리한 id 범위 비율 ( 0 ~ 1 )
+     */
+    public double getProgress(){
+        return maxId <= firstId ? 1 : (double) (lastId - firstId) / (maxId - firstId);
+    }
+
+    public void chunkDone(long lastId, long affected){
+        this.lastId = lastId;
+        this.affectedCount += affected;
+        this.chunkCount++;
+        this.updatedAt = LocalDateTime.now();
+        if(isFinished()){
+            this.status = Status.COMPLETED;
+            this.finishedAt = updatedAt;
+        }
+    }
+
+    public void resume(){
+        this.status = Status.RUNNING;
+        this.error = null;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void finish(Status status, String error){
+        this.status = status;
+        //잘리지 않으면 FAILED 저장 자체가 실패해서 RUNNING 으로 남는다
+        this.error = error != null && error.length() > ERROR_LENGTH ? error.substring(0, ERROR_LENGTH) : error;
+        this.updatedAt = LocalDateTime.now();
+        this.finishedAt = updatedAt;
+    }
+}
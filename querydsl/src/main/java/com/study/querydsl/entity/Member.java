@@ -3,8 +3,21 @@ package com.study.querydsl.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Table(indexes = {
+        //usernameEq (+ 나이 범위) - search 의 member 컬럼을 인덱스만으로
+        @Index(name = "idx_member_username_age", columnList = "username, age, team_id"),
+        //나이 범위 + 커서 페이징 정렬 ( age , member_id )
+        @Index(name = "idx_member_age_id", columnList = "age, member_id"),
+        //teamNameEq 로 찾은 팀의 회원 (+ 나이 범위)
+        @Index(name = "idx_member_team_age", columnList = "team_id, age")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id" , "username", "age"})
@@ -40,6 +53,11 @@ public class Member {
     }
 
     public void changeTeam(Team team){
+        //이전 팀 컬렉션에서도 빼야 같은 영속성 컨텍스트에서 양쪽 팀 members 가 맞는다
+        //지연 로딩 안된 컬렉션은 건드리지 않는다 ( remove 가 컬렉션 전체를 초기화 , 컬렉션 캐시는 auto_evict_collection_cache 가 비운다 )
+        if(this.team != null && Hibernate.isInitialized(this.team) && Hibernate.isInitialized(this.team.getMembers())){
+            this.team.getMembers().remove(this);
+        }
         this.team = team;
         team.getMembers().add(this);
     }
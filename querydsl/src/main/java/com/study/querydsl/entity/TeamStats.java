@@ -0,0 +1,47 @@
+package com.study.querydsl.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * 팀별 회원 통계 ( 회원 수 , 나이 합 , 최소 / 최대 나이 )
+ *
+ * 회원 저장 / 삭제 / 팀 변경 / 나이 변경시 TeamStatsListener 가 증분으로 갱신한다
+ * 최소 / 최대 나이인 회원이 빠지면 증분으로는 다시 구할 수 없어서 dirty 로 표시 -> TeamStatsService 가 다시 계산
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(of = {"teamId", "memberCount", "ageSum", "minAge", "maxAge", "dirty"})
+public class TeamStats {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+
+    private long memberCount;
+    private long ageSum;
+    private Integer minAge;
+    private Integer maxAge;
+    private boolean dirty;
+
+    public TeamStats(Long teamId){
+        this.teamId = teamId;
+    }
+
+    /**
+     * 실제 값으로 덮어쓰기 ( 재계산 )
+     */
+    public void reset(long memberCount, long ageSum, Integer minAge, Integer maxAge){
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.dirty = false;
+    }
+}
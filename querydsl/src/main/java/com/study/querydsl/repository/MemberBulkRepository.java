@@ -0,0 +1,139 @@
+package com.study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.repository.support.MemberBulkEvent;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static com.study.querydsl.entity.QMember.member;
+
+/**
+ * 영속성 컨텍스트를 지키는 벌크 update / delete
+ *
+ * queryFactory.update(member)...execute() 는 영속성 컨텍스트를 무시하고 DB 에 바로 실행된다
+ * 그래서 보통 em.flush(); em.clear(); 를 하는데 그러면 상관없는 엔티티까지 전부 버리고 다시 조회해야 한다
+ *
+ * 여기서는 실행 전에 대상 id ( + 팀 id ) 를 먼저 조회해 두고
+ *  - update : 영속성 컨텍스트에 올라와 있는 대상만 em.refresh ( DB 값으로 다시 읽기 )
+ *  - delete : 영속성 컨텍스트에 올라와 있는 대상만 team.members 에서 빼고 em.detach
+ * 나머지 엔티티는 그대로 둔다
+ *
+ * 주의
+ *  - 대상 id 조회와 벌크 실행 사이에 다른 트랜잭션이 바꾼 row 는 놓칠 수 있다 ( 이벤트의 id 목록도 동일 )
+ *  - where 는 member 기준 조건만 ( 벌크 update / delete 는 조인 불가 , 서브쿼리는 가능 )
+ *  - 2차 캐시는 Hibernate 가 벌크 실행 시점에 member region 을 비운다
+ */
+@Repository
+public class MemberBulkRepository {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final ApplicationEventPublisher publisher;
+
+    public MemberBulkRepository(EntityManager em, ApplicationEventPublisher publisher){
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.publisher = publisher;
+    }
+
+    /**
+     * bulkUpdate(member.age.lt(28), update -> update.set(member.username, "비회원"))
+     */
+    @Transactional
+    public long update(Predicate where, Consumer<JPAUpdateClause> setter){
+        //쓰기 지연된 변경을 먼저 반영 ( refresh 로 덮어쓰지 않도록 )
+        em.flush();
+        List<Tuple> targets = affected(where);
+        List<Long> ids = memberIds(targets);
+
+        JPAUpdateClause update = queryFactory.update(member).where(where);
+        setter.accept(update);
+        long count = update.execute();
+
+        for (Member managed : managedMembers(ids)) {
+            em.refresh(managed);
+        }
+        publisher.publishEvent(new MemberBulkEvent(MemberBulkEvent.Type.UPDATE, ids, teamIds(targets)));
+        return count;
+    }
+
+    @Transactional
+    public long delete(Predicate where){
+        em.flush();
+        List<Tuple> targets = affected(where);
+        List<Long> ids = memberIds(targets);
+
+        long count = queryFactory.delete(member).where(where).execute();
+
+        for (Member managed : managedMembers(ids)) {
+            //지연 로딩 안된 컬렉션은 건드리지 않는다 ( 초기화 쿼리 방지 )
+            Team team = managed.getTeam();
+            if(team != null && Hibernate.isInitialized(team) && Hibernate.isInitialized(team.getMembers())){
+                team.getMembers().remove(managed);
+            }
+            em.detach(managed);
+        }
+        publisher.publishEvent(new MemberBulkEvent(MemberBulkEvent.Type.DELETE, ids, teamIds(targets)));
+        return count;
+    }
+
+    //대상 ( member id , team id )
+    private List<Tuple> affected(Predicate where) {
+        return queryFactory
+                .select(member.id, member.team.id)
+                .from(member)
+                .where(where)
+                .fetch();
+    }
+
+    private static List<Long> memberIds(List<Tuple> targets) {
+        List<Long> ids = new ArrayList<>(targets.size());
+        for (Tuple target : targets) {
+            ids.add(target.get(member.id));
+        }
+        return ids;
+    }
+
+    private static Set<Long> teamIds(List<Tuple> targets) {
+        Set<Long> ids = new HashSet<>();
+        for (Tuple target : targets) {
+            Long teamId = target.get(member.team.id);
+            if(teamId != null){
+                ids.add(teamId);
+            }
+        }
+        return ids;
+    }
+
+    //id 로 영속성 컨텍스트에 올라와 있는 엔티티만 ( 초기화 안된 프록시는 DB 에서 다시 읽으므로 제외 )
+    private List<Member> managedMembers(List<Long> ids) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Member.class);
+        List<Member> result = new ArrayList<>();
+        for (Long id : ids) {
+            EntityKey key = session.generateEntityKey(id, persister);
+            Object entity = session.getPersistenceContextInternal().getEntity(key);
+            if(entity != null){
+                result.add((Member) entity);
+            }
+        }
+        return result;
+    }
+}
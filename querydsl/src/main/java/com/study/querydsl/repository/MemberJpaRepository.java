@@ -10,12 +10,18 @@ import com.study.querydsl.dto.QMemberDto;
 import com.study.querydsl.dto.QMemberTeamDto;
 import com.study.querydsl.entity.Member;
 import com.study.querydsl.entity.QMember;
+import com.study.querydsl.repository.support.MemberSearchTemplates;
+import com.study.querydsl.repository.support.MemberSnapshot;
+import com.study.querydsl.repository.support.SearchResultCache;
+import com.study.querydsl.repository.support.SingleFlight;
 import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static com.study.querydsl.entity.QMember.*;
 import static com.study.querydsl.entity.QTeam.team;
@@ -29,10 +35,19 @@ public class MemberJpaRepository {
     //싱글톤 (동시성 문제 안생김!! - Spring에선 EntityManager 트랙션 바인딩만 해준다..? )
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchTemplates searchTemplates;
+    private final MemberSnapshot memberSnapshot;
+    private final SearchResultCache searchResultCache;
+    private final SingleFlight singleFlight;
 
-    public MemberJpaRepository(EntityManager em){
+    public MemberJpaRepository(EntityManager em, MemberSearchTemplates searchTemplates, MemberSnapshot memberSnapshot,
+                               SearchResultCache searchResultCache, SingleFlight singleFlight){
         this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.searchTemplates = searchTemplates;
+        this.memberSnapshot = memberSnapshot;
+        this.searchResultCache = searchResultCache;
+        this.singleFlight = singleFlight;
     }
 
     /*
@@ -47,6 +62,24 @@ public class MemberJpaRepository {
         em.persist(member);
     }
 
+    /**
+     * 대량 저장
+     * batchSize 마다 flush / clear -> hibernate.jdbc.batch_size 와 맞춰서 한번에 batch insert 로 보내고
+     * 영속성 컨텍스트를 비워서 메모리가 쌓이지 않게 한다
+     * 주의 : clear 하기 때문에 호출 전에 영속 상태였던 엔티티도 준영속이 된다
+     */
+    public void saveAll(List<Member> members, int batchSize){
+        for (int i = 0; i < members.size(); i++) {
+            em.persist(members.get(i));
+            if((i + 1) % batchSize == 0){
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
     public Optional<Member> findById(Long id){
         Member findMember = em.find(Member.class, id);
         return Optional.ofNullable(findMember);
@@ -66,6 +99,7 @@ public class MemberJpaRepository {
     public List<Member> findByUsername(String username){
         return em.createQuery("select m from Member m where m.username = :username", Member.class)
                 .setParameter("username", username)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)  //쿼리 캐시
                 .getResultList();
     }
 
@@ -108,6 +142,18 @@ public class MemberJpaRepository {
     }
 
     public List<MemberTeamDto> search(MemberSearchCondition condition){
+        //스냅샷 파일이 켜져 있으면 기동 후 따라잡는 동안은 DB 대신 ( MemberSnapshot )
+        if(memberSnapshot.isServing()){
+            return memberSnapshot.search(condition);
+        }
+        //조건 조합별로 미리 만들어둔 쿼리 템플릿 사용 ( 매번 식을 만들고 JPQL 로 직렬화하지 않는다 ) , 결과는 캐시
+        return searchResultCache.get("MemberJpaRepository.search", condition, () ->
+                singleFlight.execute(List.of("MemberJpaRepository.search", condition.normalized()),
+                        () -> searchTemplates.search(condition)));
+    }
+
+    //템플릿 없이 매번 동적 쿼리를 만드는 버전 ( 비교용 )
+    public List<MemberTeamDto> searchDynamic(MemberSearchCondition condition){
         return queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -128,6 +174,33 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    /**
+     * 결과를 List 로 모으지 않고 DB 커서로 한 row 씩 읽는다 ( 전체 건수와 상관없이 메모리 일정 )
+     * fetchSize 만큼씩 JDBC 에서 가져오고, DTO 조회라 영속성 컨텍스트에도 쌓이지 않는다
+     * 트랜잭션 안에서 사용하고 반드시 close 해야 한다 ( try-with-resources )
+     */
+    public Stream<MemberTeamDto> streamSearch(MemberSearchCondition condition, int fetchSize){
+        return queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .stream();
+    }
+
     //predicate 말고 BooleanExpression 경우 조합이 가능하다 (위 메소드처럼 )
     private BooleanExpression ageBetween(int ageLoe, int ageGoe){
         return ageLoe(ageLoe).and(ageGoe(ageGoe));
@@ -1,7 +1,10 @@
 package com.study.querydsl.repository;
 
 import com.study.querydsl.entity.Member;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.stereotype.Repository;
 
@@ -13,6 +16,8 @@ import java.util.List;
 public interface MemberRepository extends JpaRepository<Member, Long> , MemberRepositoryCustom, QuerydslPredicateExecutor {
 
     //select m from Member m where m.username = ?
+    //쿼리 캐시 ( member 테이블이 바뀌면 자동 무효화 )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Member> findByUsername(String username);
 
 }
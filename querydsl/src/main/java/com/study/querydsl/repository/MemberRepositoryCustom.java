@@ -1,9 +1,11 @@
 package com.study.querydsl.repository;
 
+import com.study.querydsl.dto.MemberCursor;
 import com.study.querydsl.dto.MemberSearchCondition;
 import com.study.querydsl.dto.MemberTeamDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -25,4 +27,18 @@ public interface MemberRepositoryCustom {
      * 카운트 쿼리랑 content 쿼리 분리해서 별도로
      */
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+
+    /**
+     * 커서 기반(keyset) 페이징
+     * offset 대신 마지막으로 조회한 row 이후부터 seek 하기 때문에 뒤쪽 페이지도 첫 페이지와 비용이 같다
+     * 정렬은 id 또는 (age, id) 만 지원 ( pageable 의 page 번호는 무시 )
+     * cursor 가 null 이면 처음부터 조회
+     */
+    Slice<MemberTeamDto> searchByCursor(MemberSearchCondition condition, MemberCursor cursor, Pageable pageable);
+
+    /**
+     * 검색 조건 여러개를 한번에 ( 결과는 조건 순서대로 )
+     * username 또는 teamName 같음 조건 하나 + 같은 나이 범위인 조건들은 in 쿼리 하나로 묶어서 조회 후 나눈다
+     */
+    List<List<MemberTeamDto>> searchBatch(List<MemberSearchCondition> conditions);
 }
@@ -1,22 +1,42 @@
 package com.study.querydsl.repository;
 
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.JPQLQuery;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.dto.MemberCursor;
 import com.study.querydsl.dto.MemberSearchCondition;
 import com.study.querydsl.dto.MemberTeamDto;
 import com.study.querydsl.dto.QMemberTeamDto;
 import com.study.querydsl.entity.Member;
+import com.study.querydsl.repository.support.CountCache;
+import com.study.querydsl.repository.support.CountQueries;
+import com.study.querydsl.repository.support.MemberSearchTemplates;
+import com.study.querydsl.repository.support.MemberSnapshot;
+import com.study.querydsl.repository.support.MeteredPages;
+import com.study.querydsl.repository.support.ParallelPageExecutor;
+import com.study.querydsl.repository.support.SearchResultCache;
+import com.study.querydsl.repository.support.SingleFlight;
+import com.study.querydsl.repository.support.UsernameIndex;
 import jakarta.persistence.EntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
-import org.springframework.data.support.PageableExecutionUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static com.study.querydsl.entity.QMember.member;
 import static com.study.querydsl.entity.QTeam.team;
@@ -41,11 +61,32 @@ import static org.springframework.util.StringUtils.hasText;
  */
 public class MemberRepositoryImpl  implements MemberRepositoryCustom{
 
+    private static final int MAX_BATCH_CONDITIONS = 100;
+
 //    //QuerydslRepositorySupport 를 사용하면 필요없다
+    private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final CountCache countCache;
+    private final MemberSearchTemplates searchTemplates;
+    private final ParallelPageExecutor parallelPageExecutor;
+    private final UsernameIndex usernameIndex;
+    private final MemberSnapshot memberSnapshot;
+    private final SearchResultCache searchResultCache;
+    private final SingleFlight singleFlight;
 
-    public MemberRepositoryImpl(EntityManager em){
+    public MemberRepositoryImpl(EntityManager em, CountCache countCache, MemberSearchTemplates searchTemplates,
+                                ParallelPageExecutor parallelPageExecutor, UsernameIndex usernameIndex,
+                                MemberSnapshot memberSnapshot, SearchResultCache searchResultCache,
+                                SingleFlight singleFlight){
+        this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.countCache = countCache;
+        this.searchTemplates = searchTemplates;
+        this.parallelPageExecutor = parallelPageExecutor;
+        this.usernameIndex = usernameIndex;
+        this.memberSnapshot = memberSnapshot;
+        this.searchResultCache = searchResultCache;
+        this.singleFlight = singleFlight;
     }
 
     /*
@@ -77,24 +118,21 @@ public class MemberRepositoryImpl  implements MemberRepositoryCustom{
                         team.name.as("teamName")))
                 .fetch();
         */
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        //동적 쿼리
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+        //MemberJpaRepository.searchDynamic 과 같은 쿼리를 미리 만들어둔 템플릿으로 실행 ( 파라미터 바인딩만 )
+        //스냅샷 파일이 켜져 있으면 DB 대신 ( 재시작 직후 )
+        if(memberSnapshot.isServing()){
+            return memberSnapshot.search(condition);
+        }
+        //같은 조건이면 결과 캐시 ( member / team 쓰기가 있으면 무효화 )
+        //캐시에 없을때 같은 조건이 동시에 들어오면 DB 조회는 한번만 ( SingleFlight )
+        return searchResultCache.get("MemberRepositoryImpl.search", condition, () ->
+                singleFlight.execute(List.of("MemberRepositoryImpl.search", condition.normalized()), () -> {
+                    //contains / startsWith 는 템플릿 조합에 없다 -> 동적 쿼리 ( UsernameIndex 후보 id 로 좁힌다 )
+                    if(condition.hasUsernamePattern()){
+                        return searchQuery(condition, usernamePattern(condition)).fetch();
+                    }
+                    return searchTemplates.search(condition);
+                }));
     }
 
     @Override
@@ -114,7 +152,8 @@ public class MemberRepositoryImpl  implements MemberRepositoryCustom{
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+                        ageLoe(condition.getAgeLoe()),
+                        usernamePattern(condition)
                 )
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
@@ -164,7 +203,66 @@ public class MemberRepositoryImpl  implements MemberRepositoryCustom{
 
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        //같은 조건 + 같은 페이지가 동시에 들어오면 content / count 쿼리는 한번만 ( SingleFlight )
+        return singleFlight.execute(List.of("searchPageComplex", condition.normalized(), pageable),
+                () -> fetchPageComplex(condition, pageable));
+    }
+
+    private Page<MemberTeamDto> fetchPageComplex(MemberSearchCondition condition, Pageable pageable) {
 
+        // 카운트 쿼리를 최적화 하기 위해서! ( 효율화! )  - 데이터가 많다면!
+        // 특정 상황에서는 Join을 할 필요가 없을 수도 있기 때문!
+        //featch 나 featchCount를 해줘야 쿼리를 요청하는데 없으면 실제로 요청하진 않는다
+        //UsernameIndex 후보는 한번만 구해서 content / count 에 같이 사용
+        BooleanExpression usernamePattern = usernamePattern(condition);
+        JPAQuery<Member> countQuery = queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()),
+                        usernamePattern
+                );
+        Object countKey = CountCache.key("searchPageComplex", condition.normalized());
+        //contains / startsWith 가 없으면 search 와 같은 템플릿 + offset / limit
+        JPAQuery<MemberTeamDto> contentQuery = usernamePattern != null
+                ? searchQuery(condition, usernamePattern).offset(pageable.getOffset()).limit(pageable.getPageSize())
+                : null;
+
+        //설정이 켜져 있으면 content 와 count 를 각각 다른 커넥션으로 동시에 실행
+        if(parallelPageExecutor.isAvailable()){
+            return parallelPageExecutor.getPage(pageable,
+                    readOnlyEm -> contentQuery != null
+                            ? contentQuery.clone(readOnlyEm).fetch()
+                            : searchTemplates.search(readOnlyEm, condition, pageable.getOffset(), pageable.getPageSize()),
+                    readOnlyEm -> countCache.get(countKey, () -> CountQueries.fetchCount(readOnlyEm, countQuery)));
+        }
+
+        List<MemberTeamDto> content = contentQuery != null
+                ? contentQuery.fetch()
+                : searchTemplates.search(condition, pageable.getOffset(), pageable.getPageSize());
+
+        //getPage에서 content와 pageable의 totalSize를 보고 page의 시작이면서 contentSize보다 작거나 마지막 페이지면
+        //함수를 호출안한다 ( () -> contQuery.fetchCount() )
+        //호출 되더라도 같은 조건의 count 는 CountCache 에서 재사용
+        //CountQueries 가 teamName 조건이 없으면 team 조인을 빼고 select count(*) 로 실행
+        return MeteredPages.getPage(content, pageable,
+                () -> countCache.get(countKey, () -> CountQueries.fetchCount(em, countQuery)));
+        //return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    public Slice<MemberTeamDto> searchByCursor(MemberSearchCondition condition, MemberCursor cursor, Pageable pageable) {
+        //정렬 키는 (age, id) 또는 id 만 허용 ( seek 조건과 order by 가 같은 키여야 한다 )
+        validateCursorSort(pageable.getSort());
+        Sort.Order ageOrder = pageable.getSort().getOrderFor("age");
+        Sort.Order idOrder = pageable.getSort().getOrderFor("id");
+        boolean orderByAge = ageOrder != null;
+        boolean asc = orderByAge ? ageOrder.isAscending() : idOrder == null || idOrder.isAscending();
+
+        // offset 없이 커서 이후만 조회, 다음 페이지 여부 확인을 위해 1개 더 가져온다
         List<MemberTeamDto> content = queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -176,33 +274,201 @@ public class MemberRepositoryImpl  implements MemberRepositoryCustom{
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        //동적 쿼리
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+                        ageLoe(condition.getAgeLoe()),
+                        usernamePattern(condition),
+                        cursorAfter(cursor, orderByAge, asc)
                 )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
+                .orderBy(keysetOrder(orderByAge, asc))
+                .limit(pageable.getPageSize() + 1)
                 .fetch();
 
-        // 카운트 쿼리를 최적화 하기 위해서! ( 효율화! )  - 데이터가 많다면!
-        // 특정 상황에서는 Join을 할 필요가 없을 수도 있기 때문!
-        //featch 나 featchCount를 해줘야 쿼리를 요청하는데 없으면 실제로 요청하진 않는다
-        JPAQuery<Member> countQuery = queryFactory
-                .selectFrom(member)
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if(hasNext){
+            content = content.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    //허용하지 않는 정렬은 무시하지 않고 400 ( 요청한 순서와 다른 순서로 응답하지 않는다 )
+    private static void validateCursorSort(Sort sort) {
+        Sort.Direction direction = null;
+        boolean idSeen = false;
+        for (Sort.Order order : sort) {
+            String property = order.getProperty();
+            if(!"age".equals(property) && !"id".equals(property)){
+                throw new IllegalArgumentException("커서 조회는 age , id 정렬만 지원합니다: " + property);
+            }
+            if(direction != null && direction != order.getDirection()){
+                throw new IllegalArgumentException("커서 조회의 정렬 방향은 하나여야 합니다: " + sort);
+            }
+            if("age".equals(property) && idSeen){
+                throw new IllegalArgumentException("커서 조회는 age 정렬이 id 보다 앞이어야 합니다: " + sort);
+            }
+            idSeen |= "id".equals(property);
+            direction = order.getDirection();
+        }
+    }
+
+    @Override
+    public List<List<MemberTeamDto>> searchBatch(List<MemberSearchCondition> conditions) {
+        if(conditions.size() > MAX_BATCH_CONDITIONS){
+            throw new IllegalArgumentException("한번에 검색할 수 있는 조건은 " + MAX_BATCH_CONDITIONS + "개까지 입니다: " + conditions.size());
+        }
+        //본문의 null 원소 ( [{...}, null] ) -> 400
+        for (int i = 0; i < conditions.size(); i++) {
+            if(conditions.get(i) == null){
+                throw new IllegalArgumentException("검색 조건이 비어 있습니다: " + i + "번째");
+            }
+        }
+
+        //정규화된 조건 -> 결과 ( 같은 조건은 한번만 )
+        Map<MemberSearchCondition, List<MemberTeamDto>> results = new HashMap<>();
+        //( 묶는 컬럼 , ageGoe , ageLoe ) -> 그 컬럼 값들
+        Map<List<Object>, Set<String>> groups = new LinkedHashMap<>();
+        List<MemberSearchCondition> singles = new ArrayList<>();
+        for (MemberSearchCondition condition : conditions) {
+            MemberSearchCondition normalized = condition.normalized();
+            if(results.putIfAbsent(normalized, new ArrayList<>()) != null){
+                continue;
+            }
+            List<Object> group = batchGroup(normalized);
+            if(group == null || memberSnapshot.isServing()){
+                singles.add(normalized);
+                continue;
+            }
+            groups.computeIfAbsent(group, key -> new LinkedHashSet<>())
+                    .add(normalized.getUsername() != null ? normalized.getUsername() : normalized.getTeamName());
+        }
+
+        for (Map.Entry<List<Object>, Set<String>> entry : groups.entrySet()) {
+            List<Object> group = entry.getKey();
+            //값이 하나뿐이면 묶을 필요 없이 search ( 템플릿 + 결과 캐시 )
+            if(entry.getValue().size() == 1){
+                singles.add(batchCondition(group, entry.getValue().iterator().next()));
+                continue;
+            }
+            //값은 MAX_BATCH_CONDITIONS 개 이하 -> in 목록 하나
+            boolean byUsername = group.get(0).equals("username");
+            Set<String> values = entry.getValue();
+            List<MemberTeamDto> rows = searchQuery(new MemberSearchCondition(), null)
+                    .where(byUsername ? member.username.in(values) : team.name.in(values),
+                            ageGoe((Integer) group.get(1)),
+                            ageLoe((Integer) group.get(2)))
+                    .fetch();
+            //row 를 조건별로 나눈다
+            for (MemberTeamDto row : rows) {
+                String value = byUsername ? row.getUsername() : row.getTeamName();
+                List<MemberTeamDto> target = results.get(batchCondition(group, value));
+                //대소문자 무시 collation 이면 요청한 값과 다를 수 있다 ( 같은 조건은 없다 )
+                if(target != null){
+                    target.add(row);
+                }
+            }
+        }
+
+        for (MemberSearchCondition single : singles) {
+            results.put(single, search(single));
+        }
+
+        List<List<MemberTeamDto>> result = new ArrayList<>(conditions.size());
+        for (MemberSearchCondition condition : conditions) {
+            result.add(results.get(condition.normalized()));
+        }
+        return result;
+    }
+
+    //username 또는 teamName 하나만 같음 조건이면 ( 묶는 컬럼 , ageGoe , ageLoe ) , 아니면 null
+    private static List<Object> batchGroup(MemberSearchCondition condition) {
+        if(condition.hasUsernamePattern() || (condition.getUsername() == null) == (condition.getTeamName() == null)){
+            return null;
+        }
+        //List.of 는 null 을 허용하지 않는다
+        List<Object> group = new ArrayList<>(3);
+        group.add(condition.getUsername() != null ? "username" : "teamName");
+        group.add(condition.getAgeGoe());
+        group.add(condition.getAgeLoe());
+        return group;
+    }
+
+    private static MemberSearchCondition batchCondition(List<Object> group, String value) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if(group.get(0).equals("username")){
+            condition.setUsername(value);
+        } else {
+            condition.setTeamName(value);
+        }
+        condition.setAgeGoe((Integer) group.get(1));
+        condition.setAgeLoe((Integer) group.get(2));
+        return condition;
+    }
+
+    // (age, id) > (커서 age, 커서 id) 를 풀어서 쓴 조건 ( row value 비교를 지원하지 않는 JPQL 때문 )
+    private BooleanExpression cursorAfter(MemberCursor cursor, boolean orderByAge, boolean asc) {
+        if(cursor == null){
+            return null;
+        }
+        BooleanExpression idAfter = asc ? member.id.gt(cursor.getMemberId()) : member.id.lt(cursor.getMemberId());
+        if(!orderByAge){
+            return idAfter;
+        }
+        BooleanExpression ageAfter = asc ? member.age.gt(cursor.getAge()) : member.age.lt(cursor.getAge());
+        return ageAfter.or(member.age.eq(cursor.getAge()).and(idAfter));
+    }
+
+    private OrderSpecifier<?>[] keysetOrder(boolean orderByAge, boolean asc) {
+        OrderSpecifier<Long> idOrder = asc ? member.id.asc() : member.id.desc();
+        if(!orderByAge){
+            return new OrderSpecifier<?>[]{idOrder};
+        }
+        return new OrderSpecifier<?>[]{asc ? member.age.asc() : member.age.desc(), idOrder};
+    }
+
+    //search 의 동적 쿼리 ( 템플릿을 쓸 수 없는 조건일 때 )
+    private JPAQuery<MemberTeamDto> searchQuery(MemberSearchCondition condition, BooleanExpression usernamePattern) {
+        return queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
+                .from(member)
                 .leftJoin(member.team, team)
                 .where(
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+                        ageLoe(condition.getAgeLoe()),
+                        usernamePattern
                 );
-        
-        //getPage에서 content와 pageable의 totalSize를 보고 page의 시작이면서 contentSize보다 작거나 마지막 페이지면
-        //함수를 호출안한다 ( () -> contQuery.fetchCount() )
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);  //() -> countQuery.fetchCount()
-        //return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * usernameContains / usernameStartsWith
+     * UsernameIndex 후보 id 로 좁히고 ( pk in ) like 로 최종 확인 , 인덱스를 쓸 수 없으면 like 만
+     */
+    private BooleanExpression usernamePattern(MemberSearchCondition condition) {
+        BooleanExpression contains = hasText(condition.getUsernameContains())
+                ? narrow(usernameIndex.contains(condition.getUsernameContains()),
+                        member.username.contains(condition.getUsernameContains()))
+                : null;
+        BooleanExpression startsWith = hasText(condition.getUsernameStartsWith())
+                ? narrow(usernameIndex.startsWith(condition.getUsernameStartsWith()),
+                        member.username.startsWith(condition.getUsernameStartsWith()))
+                : null;
+        if(contains == null){
+            return startsWith;
+        }
+        return startsWith != null ? contains.and(startsWith) : contains;
+    }
+
+    //후보가 비어 있으면 in 조건은 항상 거짓 ( Querydsl 이 1 = 2 로 바꾼다 )
+    private BooleanExpression narrow(Collection<Long> candidates, BooleanExpression like) {
+        return candidates != null ? member.id.in(candidates).and(like) : like;
     }
 
     private BooleanExpression usernameEq(String username) {
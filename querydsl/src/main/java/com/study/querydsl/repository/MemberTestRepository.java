@@ -5,11 +5,12 @@ import com.querydsl.jpa.impl.JPAQuery;
 import com.study.querydsl.dto.MemberSearchCondition;
 import com.study.querydsl.entity.Member;
 import com.study.querydsl.entity.QMember;
+import com.study.querydsl.repository.support.CountCache;
+import com.study.querydsl.repository.support.MeteredPages;
 import com.study.querydsl.repository.support.Querydsl4RepositorySupport;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -54,7 +55,8 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
         List<Member> content = getQuerydsl().applyPagination(pageable, query)
                 .fetch();
         
-        return PageableExecutionUtils.getPage(content, pageable, query::fetchCount);
+        //count 는 content 쿼리에서 자동 생성 ( 조건에 안쓰이는 team 조인은 빠진다 )
+        return MeteredPages.getPage(content, pageable, () -> fetchCount(query));
     }
     
     
@@ -65,7 +67,7 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
         //  List<Member> content = getQuerydsl().applyPagination(pageable, query).fetch();
         //  return PageableExecutionUtils.getPage(content, pageable, query::fetchCount);
         //가 존재
-        return applyPagination(pageable, query ->
+        return applyPagination(pageable, CountCache.key("applyPagination", condition.normalized()), query ->
                 query.selectFrom(member)
                         .leftJoin(member.team, team)
                         .where(
@@ -79,7 +81,7 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
 
 
     public Page<Member> applyPagination2(MemberSearchCondition condition, Pageable pageable){
-        return applyPagination(pageable,
+        return applyPagination(pageable, CountCache.key("applyPagination2", condition.normalized()),
                 contentQuery -> contentQuery
                         .selectFrom(member)
                         .leftJoin(member.team, team)
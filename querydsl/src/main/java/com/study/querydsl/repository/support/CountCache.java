@@ -0,0 +1,132 @@
+package com.study.querydsl.repository.support;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 페이징 count 쿼리 결과 캐시
+ *
+ * 같은 검색 조건으로 페이지만 넘기는 경우 매번 count(*) 를 다시 실행하지 않는다
+ * key 는 ( 쿼리 이름 + 정규화된 검색 조건 ) , TTL 이 지나거나 member / team 에 쓰기가 발생하면 버린다
+ * ( TableWriteInspector 가 벌크 update / delete 까지 잡아준다 )
+ * 쓰기 트랜잭션 안에서는 캐시를 거치지 않는다 ( 커밋 전 count 를 다른 스레드와 나눠 쓰면 안된다 )
+ */
+@Component
+public class CountCache {
+
+    private static final String[] TABLES = {"member", "team"};
+
+    private final Map<Object, Entry> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder bypasses = new LongAdder();
+
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    public CountCache(@Value("${member.count-cache.ttl:30s}") Duration ttl,
+                      @Value("${member.count-cache.max-entries:10000}") int maxEntries){
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    public static Object key(String query, Object condition){
+        return List.of(query, condition);
+    }
+
+    /**
+     * 캐시에 있으면 그대로, 없거나 만료되었으면 countQuery 실행 후 저장
+     */
+    public long get(Object key, LongSupplier countQuery){
+        if(!usable()){
+            bypasses.increment();
+            return countQuery.getAsLong();
+        }
+        long now = System.nanoTime();
+        Entry entry = cache.get(key);
+        if(entry != null && entry.expiresAt - now > 0){
+            hits.increment();
+            return entry.count;
+        }
+        misses.increment();
+
+        //쿼리 실행 전 세대를 기억해 두고, 실행 중에 무효화 되었으면 저장하지 않는다
+        long generation = invalidations.sum();
+        long count = countQuery.getAsLong();
+        if(generation == invalidations.sum()){
+            if(cache.size() >= maxEntries){
+                cache.values().removeIf(e -> e.expiresAt - now <= 0);
+                if(cache.size() >= maxEntries){
+                    cache.clear();
+                }
+            }
+            cache.put(key, new Entry(count, now + ttlNanos));
+        }
+        return count;
+    }
+
+    @EventListener
+    public void onTableWrite(TableWriteEvent event){
+        if(event.isFor(TABLES)){
+            invalidateAll();
+        }
+    }
+
+    public void invalidateAll(){
+        invalidations.increment();
+        cache.clear();
+    }
+
+    public Stats stats(){
+        return new Stats(hits.sum(), misses.sum(), invalidations.sum(), bypasses.sum(), cache.size());
+    }
+
+    //트랜잭션 밖이거나 읽기 전용 트랜잭션 ( SearchResultCache 와 같은 기준 )
+    private static boolean usable() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static class Entry {
+        private final long count;
+        private final long expiresAt;
+
+        private Entry(long count, long expiresAt){
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    @Getter
+    public static class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long invalidationCount;
+        private final long bypassCount;     //쓰기 트랜잭션 안이라 캐시를 안 거친 수
+        private final int size;
+
+        public Stats(long hitCount, long missCount, long invalidationCount, long bypassCount, int size){
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.invalidationCount = invalidationCount;
+            this.bypassCount = bypassCount;
+            this.size = size;
+        }
+
+        public double getHitRatio(){
+            long total = hitCount + missCount;
+            return total == 0 ? 0 : (double) hitCount / total;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.study.querydsl.repository.support;
+
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinFlag;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.*;
+import com.querydsl.core.types.dsl.Wildcard;
+import com.querydsl.jpa.JPAQueryMixin;
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * content 쿼리로부터 count 쿼리를 자동으로 만든다
+ *
+ *  - select 절(projection), order by, offset / limit 제거 -> select count(*)
+ *  - where / having / group by / 다른 조인 어디에도 쓰이지 않는 to-one left join 제거
+ *    ( to-one left join 은 row 수를 늘리거나 줄이지 않는다 , 컬렉션 조인이나 세타 조인은 남긴다 )
+ *  - fetch join 은 일반 조인으로 ( count 쿼리에서는 fetch join 이 불가능 )
+ *
+ * 예) teamName 조건이 없으면 selectFrom(member).leftJoin(member.team, team) -> select count(*) from Member member
+ */
+public final class CountQueries {
+
+    private CountQueries() {
+    }
+
+    /**
+     * count 쿼리를 만들 수 없는 경우( group by , distinct ) null
+     */
+    public static JPAQuery<Long> derive(EntityManager em, JPAQuery<?> contentQuery) {
+        QueryMetadata source = contentQuery.getMetadata();
+        if (!source.getGroupBy().isEmpty() || source.isDistinct()) {
+            return null;
+        }
+
+        Set<Path<?>> usedPaths = new HashSet<>();
+        collect(source.getWhere(), usedPaths);
+
+        //뒤에서부터 보면서 필요한 조인이 참조하는 경로까지 사용 중으로 표시
+        List<JoinExpression> joins = source.getJoins();
+        boolean[] keep = new boolean[joins.size()];
+        for (int i = joins.size() - 1; i >= 0; i--) {
+            JoinExpression join = joins.get(i);
+            if (isPrunable(join) && !isUsed(aliasOf(join), usedPaths)) {
+                continue;
+            }
+            keep[i] = true;
+            collect(join.getTarget(), usedPaths);
+            collect(join.getCondition(), usedPaths);
+        }
+
+        JPAQuery<Void> countQuery = new JPAQuery<>(em);
+        QueryMetadata target = countQuery.getMetadata();
+        for (int i = 0; i < joins.size(); i++) {
+            if (!keep[i]) {
+                continue;
+            }
+            JoinExpression join = joins.get(i);
+            target.addJoin(join.getType(), join.getTarget());
+            if (join.getCondition() != null) {
+                target.addJoinCondition(join.getCondition());
+            }
+            for (JoinFlag flag : join.getFlags()) {
+                if (!flag.equals(JPAQueryMixin.FETCH) && !flag.equals(JPAQueryMixin.FETCH_ALL_PROPERTIES)) {
+                    target.addJoinFlag(flag);
+                }
+            }
+        }
+        if (source.getWhere() != null) {
+            target.addWhere(source.getWhere());
+        }
+        copyParams(source, target);
+        return countQuery.select(Wildcard.count);
+    }
+
+    /**
+     * derive 가 가능하면 자동 생성한 count 쿼리, 아니면 기존 fetchCount()
+     * contentQuery 를 만든 EntityManager 가 아니라 em 으로 실행한다
+     */
+    public static long fetchCount(EntityManager em, JPAQuery<?> contentQuery) {
+        JPAQuery<Long> countQuery = derive(em, contentQuery);
+        if (countQuery == null) {
+            return contentQuery.clone(em).fetchCount();
+        }
+        Long count = countQuery.fetchOne();
+        return count != null ? count : 0L;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void copyParams(QueryMetadata source, QueryMetadata target) {
+        for (Map.Entry<ParamExpression<?>, Object> param : source.getParams().entrySet()) {
+            target.setParam((ParamExpression) param.getKey(), param.getValue());
+        }
+    }
+
+    //연관관계(member.team) 를 따라가는 to-one left join 만 제거 대상
+    private static boolean isPrunable(JoinExpression join) {
+        if (join.getType() != JoinType.LEFTJOIN) {
+            return false;
+        }
+        Expression<?> association = join.getTarget();
+        if (association instanceof Operation && ((Operation<?>) association).getOperator() == Ops.ALIAS) {
+            association = ((Operation<?>) association).getArg(0);
+        }
+        return association instanceof Path
+                && ((Path<?>) association).getMetadata().getParent() != null
+                && !(association instanceof CollectionExpression)
+                && !(association instanceof MapExpression);
+    }
+
+    private static Path<?> aliasOf(JoinExpression join) {
+        Expression<?> target = join.getTarget();
+        if (target instanceof Operation && ((Operation<?>) target).getOperator() == Ops.ALIAS) {
+            return (Path<?>) ((Operation<?>) target).getArg(1);
+        }
+        return (Path<?>) target;
+    }
+
+    //team.name -> team , member.team.name -> member.team 처럼 부모 경로를 따라가며 확인
+    private static boolean isUsed(Path<?> alias, Set<Path<?>> usedPaths) {
+        for (Path<?> path : usedPaths) {
+            for (Path<?> current = path; current != null; current = current.getMetadata().getParent()) {
+                if (current.equals(alias)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void collect(Expression<?> expr, Set<Path<?>> usedPaths) {
+        if (expr != null) {
+            expr.accept(PathCollector.INSTANCE, usedPaths);
+        }
+    }
+
+    /**
+     * 식 안에 등장하는 모든 Path 수집 ( 서브쿼리 포함 )
+     */
+    private static class PathCollector implements Visitor<Void, Set<Path<?>>> {
+
+        private static final PathCollector INSTANCE = new PathCollector();
+
+        @Override
+        public Void visit(Constant<?> expr, Set<Path<?>> context) {
+            return null;
+        }
+
+        @Override
+        public Void visit(FactoryExpression<?> expr, Set<Path<?>> context) {
+            for (Expression<?> arg : expr.getArgs()) {
+                arg.accept(this, context);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Operation<?> expr, Set<Path<?>> context) {
+            for (Expression<?> arg : expr.getArgs()) {
+                arg.accept(this, context);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(ParamExpression<?> expr, Set<Path<?>> context) {
+            return null;
+        }
+
+        @Override
+        public Void visit(Path<?> expr, Set<Path<?>> context) {
+            context.add(expr);
+            return null;
+        }
+
+        @Override
+        public Void visit(SubQueryExpression<?> expr, Set<Path<?>> context) {
+            QueryMetadata metadata = expr.getMetadata();
+            for (JoinExpression join : metadata.getJoins()) {
+                collect(join.getTarget(), context);
+                collect(join.getCondition(), context);
+            }
+            collect(metadata.getProjection(), context);
+            collect(metadata.getWhere(), context);
+            collect(metadata.getHaving(), context);
+            for (Expression<?> groupBy : metadata.getGroupBy()) {
+                collect(groupBy, context);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(TemplateExpression<?> expr, Set<Path<?>> context) {
+            for (Object arg : expr.getArgs()) {
+                if (arg instanceof Expression) {
+                    ((Expression<?>) arg).accept(this, context);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.study.querydsl.repository.support;
+
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * DatabaseConcurrencyLimiter 에서 대기 시간 안에 실행 순서를 못 얻은 경우 ( 잠시 후 재시도 가능 )
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class DatabaseBusyException extends TransientDataAccessResourceException {
+
+    public DatabaseBusyException(String msg){
+        super(msg);
+    }
+}
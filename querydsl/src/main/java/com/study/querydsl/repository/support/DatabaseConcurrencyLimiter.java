@@ -0,0 +1,202 @@
+package com.study.querydsl.repository.support;
+
+import lombok.Getter;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * 레포지토리 실행 동시성 제한 ( 세마포어 )
+ *
+ * 요청이 몰리면 톰캣 스레드 수 ( 기본 200 ) 만큼 , 가상 스레드 ( spring.threads.virtual.enabled ) 면 제한 없이 동시에 레포지토리까지 들어온다
+ * 커넥션 풀 크기만큼만 쿼리를 실행하고 나머지는 여기서 줄을 서게 해서
+ * 커넥션 풀 대기 ( connectionTimeout 후 예외 ) 대신 가볍게 기다리게 한다
+ *
+ *  - 허가는 레포지토리 호출이 끝나면 반납 -> 커넥션도 그때 반납되어야 한다 ( spring.jpa.open-in-view: false )
+ *  - Stream 을 반환하면 다 읽고 close 할 때 반납 ( 읽는 동안 커넥션을 쓴다 )
+ *  - 스트리밍 응답 ( MemberExportService ) 은 트랜잭션이 응답이 끝날 때까지 커넥션을 쥔다
+ *    -> 트랜잭션 시작 전에 허가를 얻고 응답이 끝나면 반납 , 동시에 max-streams 개까지 ( 넘으면 기다리지 않고 503 )
+ *    느린 클라이언트 몇개가 허가를 다 가져가지 않도록 스트림 수를 따로 제한한다
+ *  - 레포지토리 안에서 다른 레포지토리를 부르면 한번만 획득 ( 스레드별 깊이 )
+ *  - 이미 트랜잭션이 진행중이면 커넥션을 가진 상태라 그대로 통과 ( 커넥션을 쥔 채 기다리면 교착 )
+ *    -> @Transactional 서비스 ( MemberImportService , TeamStatsService , 벌크 작업 ) 의 커넥션은 허가 없이 쓰인다
+ *       max-concurrent 는 커넥션 풀 크기에서 이런 트랜잭션 수만큼 여유를 두고 잡는다
+ *  - 레포지토리 호출 밖에서 커넥션을 하나 더 쓰는 곳 ( ParallelPageExecutor 의 count 쿼리 ) 은 tryAcquire 로 허가를 따로 얻는다
+ *  - acquire-timeout 안에 못 얻으면 DatabaseBusyException ( 503 )
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DatabaseConcurrencyLimiter {
+
+    private static final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final boolean enabled;
+    private final int maxConcurrent;
+    private final int maxStreams;
+    private final long acquireTimeoutNanos;
+    private final Semaphore semaphore;
+    private final Semaphore streams;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public DatabaseConcurrencyLimiter(@Value("${member.db-limiter.enabled:true}") boolean enabled,
+                                      @Value("${member.db-limiter.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+                                      @Value("${member.db-limiter.acquire-timeout:5s}") Duration acquireTimeout,
+                                      @Value("${member.db-limiter.max-streams:2}") int maxStreams){
+        this.enabled = enabled;
+        this.maxConcurrent = maxConcurrent;
+        this.maxStreams = maxStreams;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.semaphore = new Semaphore(maxConcurrent, true);
+        this.streams = new Semaphore(maxStreams);
+    }
+
+    //repository 패키지의 빈 ( support 제외 ) + MemberRepository 에 선언한 메서드
+    @Around("(within(com.study.querydsl.repository..*) && !within(com.study.querydsl.repository.support..*))"
+            + " || execution(* com.study.querydsl.repository.MemberRepository.*(..))")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        int[] current = depth.get();
+        if(!enabled || current[0] > 0 || TransactionSynchronizationManager.isActualTransactionActive()){
+            return proceedNested(joinPoint, current);
+        }
+
+        long start = System.nanoTime();
+        if(!semaphore.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)){
+            rejected.increment();
+            throw new DatabaseBusyException("DB 동시 실행 한도(" + maxConcurrent + ") 초과 - "
+                    + Duration.ofNanos(acquireTimeoutNanos).toMillis() + "ms 대기 후 실패");
+        }
+        long waited = System.nanoTime() - start;
+        acquired.increment();
+        waitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        boolean release = true;
+        try {
+            Object result = proceedNested(joinPoint, current);
+            if(result instanceof Stream){
+                release = false;
+                return ((Stream<?>) result).onClose(semaphore::release);
+            }
+            return result;
+        } finally {
+            if(release){
+                semaphore.release();
+            }
+        }
+    }
+
+    //스트리밍 응답 - @Transactional 보다 먼저 ( HIGHEST_PRECEDENCE ) 허가를 얻고 메서드가 끝날 때까지 쥔다
+    @Around("execution(public * com.study.querydsl.service.MemberExportService.*(..))")
+    public Object limitStream(ProceedingJoinPoint joinPoint) throws Throwable {
+        if(!enabled || depth.get()[0] > 0 || TransactionSynchronizationManager.isActualTransactionActive()){
+            return limit(joinPoint);
+        }
+        if(!streams.tryAcquire()){
+            rejected.increment();
+            throw new DatabaseBusyException("동시 스트리밍 응답 한도(" + maxStreams + ") 초과");
+        }
+        try {
+            return limit(joinPoint);
+        } finally {
+            streams.release();
+        }
+    }
+
+    /**
+     * 추가 커넥션용 허가를 기다리지 않고 얻는다 ( 없으면 null -> 추가 커넥션 없이 실행 )
+     * 이미 허가를 쥔 스레드가 기다리면 모두가 서로를 기다릴 수 있어 기다리지 않는다
+     * 꺼져 있으면 아무것도 안하는 허가
+     */
+    public Permit tryAcquire(){
+        if(!enabled){
+            return new Permit(null);
+        }
+        try {
+            //tryAcquire() 는 줄 선 스레드를 앞지른다 -> timeout 0 으로 공정성 유지
+            if(!semaphore.tryAcquire(0, TimeUnit.NANOSECONDS)){
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        acquired.increment();
+        return new Permit(semaphore);
+    }
+
+    private static Object proceedNested(ProceedingJoinPoint joinPoint, int[] current) throws Throwable {
+        current[0]++;
+        try {
+            return joinPoint.proceed();
+        } finally {
+            if(--current[0] == 0){
+                depth.remove();
+            }
+        }
+    }
+
+    public Stats stats(){
+        return new Stats(maxConcurrent, semaphore.availablePermits(), semaphore.getQueueLength(),
+                maxStreams - streams.availablePermits(),
+                acquired.sum(), rejected.sum(), waitNanos.sum(), maxWaitNanos.get());
+    }
+
+    //여러번 release 해도 한번만 반납
+    public static class Permit {
+        private final Semaphore semaphore;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Semaphore semaphore){
+            this.semaphore = semaphore;
+        }
+
+        public void release(){
+            if(semaphore != null && released.compareAndSet(false, true)){
+                semaphore.release();
+            }
+        }
+    }
+
+    @Getter
+    public static class Stats {
+        private final int maxConcurrent;
+        private final int availablePermits;
+        private final int queueDepth;        //지금 기다리는 스레드 수 ( 근사값 )
+        private final int activeStreams;     //허가를 쥐고 있는 스트리밍 응답 수
+        private final long acquiredCount;
+        private final long rejectedCount;
+        private final long totalWaitNanos;
+        private final double averageWaitMillis;
+        private final double maxWaitMillis;
+
+        public Stats(int maxConcurrent, int availablePermits, int queueDepth, int activeStreams,
+                     long acquiredCount, long rejectedCount, long totalWaitNanos, long maxWaitNanos){
+            this.maxConcurrent = maxConcurrent;
+            this.availablePermits = availablePermits;
+            this.queueDepth = queueDepth;
+            this.activeStreams = activeStreams;
+            this.acquiredCount = acquiredCount;
+            this.rejectedCount = rejectedCount;
+            this.totalWaitNanos = totalWaitNanos;
+            this.averageWaitMillis = acquiredCount == 0 ? 0 : totalWaitNanos / 1_000_000.0 / acquiredCount;
+            this.maxWaitMillis = maxWaitNanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Visitor;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 리플렉션 없는 Projections
+ *
+ * Projections.bean / fields / constructor 는 row 마다 리플렉션(Method.invoke , Field.set , Constructor.newInstance) 으로 DTO 를 만든다
+ * 여기서는 클래스별로 한번만 LambdaMetafactory / MethodHandle 로 접근자를 만들어 캐시하고 row 마다 그것만 호출한다
+ *
+ * 사용법은 Projections 와 동일 ( 별칭도 동일하게 member.username.as("name") )
+ *   FastProjections.bean(MemberDto.class, member.username, member.age)
+ *   FastProjections.fields(UserDto.class, member.username.as("name"), member.age)
+ *   FastProjections.constructor(MemberTeamDto.class, member.id, member.username, member.age, team.id, team.name)
+ */
+public final class FastProjections {
+
+    private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    //클래스 + 프로퍼티명 -> setter , 클래스 + 생성자 파라미터 타입 -> 생성자
+    private static final Map<Class<?>, Supplier<Object>> constructors = new ConcurrentHashMap<>();
+    private static final Map<List<Object>, BiConsumer<Object, Object>> setters = new ConcurrentHashMap<>();
+    private static final Map<List<Object>, ConstructorAccessor> argConstructors = new ConcurrentHashMap<>();
+
+    private FastProjections() {
+    }
+
+    /**
+     * setter 로 값을 넣는다 ( Projections.bean )
+     */
+    public static <T> FactoryExpressionBase<T> bean(Class<? extends T> type, Expression<?>... exprs) {
+        return new Bean<>(type, false, exprs);
+    }
+
+    /**
+     * 필드에 바로 값을 넣는다 ( Projections.fields ) - setter 가 없어도 된다
+     */
+    public static <T> FactoryExpressionBase<T> fields(Class<? extends T> type, Expression<?>... exprs) {
+        return new Bean<>(type, true, exprs);
+    }
+
+    /**
+     * 생성자를 호출한다 ( Projections.constructor ) - 파라미터 순서대로
+     */
+    public static <T> FactoryExpressionBase<T> constructor(Class<? extends T> type, Expression<?>... exprs) {
+        Class<?>[] paramTypes = new Class<?>[exprs.length];
+        for (int i = 0; i < exprs.length; i++) {
+            paramTypes[i] = exprs[i].getType();
+        }
+        return new ArgConstructor<>(type, paramTypes, exprs);
+    }
+
+    private static class Bean<T> extends FactoryExpressionBase<T> {
+
+        private final List<Expression<?>> args;
+        private final boolean fieldAccess;
+        private final Supplier<Object> constructor;
+        private final BiConsumer<Object, Object>[] setters;
+
+        @SuppressWarnings("unchecked")
+        private Bean(Class<? extends T> type, boolean fieldAccess, Expression<?>... exprs) {
+            super((Class<T>) type);
+            this.args = List.of(exprs);
+            this.fieldAccess = fieldAccess;
+            this.constructor = constructors.computeIfAbsent(type, FastProjections::noArgConstructor);
+            this.setters = new BiConsumer[exprs.length];
+            for (int i = 0; i < exprs.length; i++) {
+                String property = propertyName(exprs[i]);
+                this.setters[i] = FastProjections.setters.computeIfAbsent(List.of(type, property, fieldAccess),
+                        key -> fieldAccess ? fieldSetter(type, property) : methodSetter(type, property));
+            }
+        }
+
+        @Override
+        public List<Expression<?>> getArgs() {
+            return args;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T newInstance(Object... values) {
+            Object bean = constructor.get();
+            for (int i = 0; i < values.length; i++) {
+                //QBean 과 같이 null 은 넣지 않는다 ( primitive 필드 기본값 유지 )
+                if (values[i] != null) {
+                    setters[i].accept(bean, values[i]);
+                }
+            }
+            return (T) bean;
+        }
+
+        @Override
+        public <R, C> R accept(Visitor<R, C> v, C context) {
+            return v.visit(this, context);
+        }
+
+        //같은 select 면 같은 쿼리 메타데이터 ( SingleFlight / 캐시 key ) -> equals 와 hashCode 를 같은 값으로
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Bean && ((Bean<?>) obj).getType().equals(getType())
+                    && ((Bean<?>) obj).fieldAccess == fieldAccess && ((Bean<?>) obj).args.equals(args);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(getType(), fieldAccess, args);
+        }
+    }
+
+    private static class ArgConstructor<T> extends FactoryExpressionBase<T> {
+
+        private final List<Expression<?>> args;
+        private final MethodHandle constructor;
+        private final Object[] defaults;
+
+        @SuppressWarnings("unchecked")
+        private ArgConstructor(Class<? extends T> type, Class<?>[] paramTypes, Expression<?>... exprs) {
+            super((Class<T>) type);
+            this.args = List.of(exprs);
+            ConstructorAccessor accessor = argConstructors.computeIfAbsent(List.of(type, List.of(paramTypes)),
+                    key -> new ConstructorAccessor(findConstructor(type, paramTypes)));
+            this.constructor = accessor.handle;
+            this.defaults = accessor.defaults;
+        }
+
+        @Override
+        public List<Expression<?>> getArgs() {
+            return args;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T newInstance(Object... values) {
+            Object[] params = values;
+            for (int i = 0; i < params.length; i++) {
+                if (params[i] == null && defaults[i] != null) {
+                    params = params == values ? values.clone() : params;
+                    params[i] = defaults[i];
+                }
+            }
+            try {
+                return (T) (Object) constructor.invokeExact(params);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public <R, C> R accept(Visitor<R, C> v, C context) {
+            return v.visit(this, context);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ArgConstructor && ((ArgConstructor<?>) obj).getType().equals(getType())
+                    && ((ArgConstructor<?>) obj).args.equals(args);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(getType(), args);
+        }
+    }
+
+    private static class ConstructorAccessor {
+
+        private final MethodHandle handle;
+        private final Object[] defaults;
+
+        private ConstructorAccessor(Constructor<?> constructor) {
+            try {
+                //(Object[]) -> Object 형태로 바꿔 두면 row 마다 invokeExact 한번
+                this.handle = lookup.unreflectConstructor(constructor)
+                        .asSpreader(Object[].class, constructor.getParameterCount())
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(constructor.getDeclaringClass().getName() + " 생성자에 접근할 수 없습니다", e);
+            }
+            //null -> primitive 파라미터는 기본값 ( Projections.constructor 와 동일 )
+            Class<?>[] declared = constructor.getParameterTypes();
+            this.defaults = new Object[declared.length];
+            for (int i = 0; i < declared.length; i++) {
+                if (declared[i].isPrimitive()) {
+                    defaults[i] = defaultValue(declared[i]);
+                }
+            }
+        }
+    }
+
+    //member.username -> username , member.username.as("name") -> name
+    private static String propertyName(Expression<?> expr) {
+        if (expr instanceof Operation && ((Operation<?>) expr).getOperator() == Ops.ALIAS) {
+            return ((Path<?>) ((Operation<?>) expr).getArg(1)).getMetadata().getName();
+        }
+        if (expr instanceof Path) {
+            return ((Path<?>) expr).getMetadata().getName();
+        }
+        throw new IllegalArgumentException("별칭이 필요합니다: " + expr);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> noArgConstructor(Class<?> type) {
+        try {
+            MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+            CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    constructor,
+                    MethodType.methodType(type));
+            return (Supplier<Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException(type.getName() + " 에 public 기본 생성자가 필요합니다", e);
+        }
+    }
+
+    //setUsername(String) -> (bean, value) -> bean.setUsername((String) value) 람다
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> methodSetter(Class<?> type, String property) {
+        String name = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        Method method = Arrays.stream(type.getMethods())
+                .filter(m -> m.getName().equals(name) && m.getParameterCount() == 1 && !Modifier.isStatic(m.getModifiers()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(type.getName() + " 에 " + name + " 이 없습니다"));
+        try {
+            MethodHandle setter = lookup.unreflect(method);
+            Class<?> valueType = wrap(method.getParameterTypes()[0]);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    setter,
+                    MethodType.methodType(void.class, type, valueType));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException(type.getName() + "." + name + " 접근자 생성 실패", e);
+        }
+    }
+
+    //private 필드는 람다로 만들 수 없어서 필드 setter MethodHandle 을 (Object, Object)void 로 맞춰서 사용
+    private static BiConsumer<Object, Object> fieldSetter(Class<?> type, String property) {
+        Field field = findField(type, property);
+        try {
+            MethodHandle setter = MethodHandles.privateLookupIn(field.getDeclaringClass(), lookup)
+                    .unreflectSetter(field)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (bean, value) -> {
+                try {
+                    setter.invokeExact(bean, value);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(type.getName() + "." + property + " 필드에 접근할 수 없습니다", e);
+        }
+    }
+
+    private static Field findField(Class<?> type, String property) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.getName().equals(property) && !Modifier.isStatic(field.getModifiers())) {
+                    return field;
+                }
+            }
+        }
+        throw new IllegalArgumentException(type.getName() + " 에 " + property + " 필드가 없습니다");
+    }
+
+    //식 타입으로 생성자 찾기 ( int <-> Integer 허용 )
+    private static Constructor<?> findConstructor(Class<?> type, Class<?>[] paramTypes) {
+        for (Constructor<?> constructor : type.getConstructors()) {
+            Class<?>[] declared = constructor.getParameterTypes();
+            if (declared.length != paramTypes.length) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < declared.length && matches; i++) {
+                matches = wrap(declared[i]).isAssignableFrom(wrap(paramTypes[i]));
+            }
+            if (matches) {
+                return constructor;
+            }
+        }
+        throw new IllegalArgumentException(type.getName() + " 에 맞는 public 생성자가 없습니다: " + Arrays.toString(paramTypes));
+    }
+
+    private static Object defaultValue(Class<?> primitive) {
+        try {
+            return MethodHandles.zero(primitive).invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //int -> Integer
+    private static Class<?> wrap(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+}
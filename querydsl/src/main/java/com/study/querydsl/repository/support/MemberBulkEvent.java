@@ -0,0 +1,32 @@
+package com.study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * MemberBulkRepository 로 벌크 update / delete 가 실행됐다는 이벤트
+ *
+ * TableWriteEvent 는 "member 테이블이 바뀌었다" 까지만 알려준다
+ * 이 이벤트는 대상 member id 까지 알려줘서 id 단위로 갱신하는 구조( 인덱스 , 통계 등 )가 전체를 다시 만들지 않게 한다
+ * SQL 실행 시점에 한번 발행 -> 커밋 후에 반영하려면 @TransactionalEventListener 로 받는다
+ */
+@Getter
+@ToString
+public class MemberBulkEvent {
+
+    public enum Type {UPDATE, DELETE}
+
+    private final Type type;
+    private final List<Long> memberIds;
+    //실행 전 대상 회원들의 팀 ( update 로 옮겨간 팀은 memberIds 로 다시 조회 )
+    private final Set<Long> teamIds;
+
+    public MemberBulkEvent(Type type, List<Long> memberIds, Set<Long> teamIds){
+        this.type = type;
+        this.memberIds = memberIds;
+        this.teamIds = teamIds;
+    }
+}
@@ -0,0 +1,254 @@
+package com.study.querydsl.repository.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.FlushMode;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static com.study.querydsl.entity.QMember.member;
+import static com.study.querydsl.entity.QTeam.team;
+
+/**
+ * 커밋된 Member / Team 변경 피드 ( UsernameIndex , MemberColumns , MemberSnapshot 이 구독 )
+ *
+ * 메모리 복제본들이 각자 Hibernate 리스너 + 세션별 변경 + 커밋 후 반영을 따로 들고 있던 것을 한 곳으로
+ *  - Member / Team insert / update / delete 이벤트 , MemberBulkEvent 로 바뀐 id 를 세션 ( 트랜잭션 ) 별로 모은다 , 롤백이면 버린다
+ *  - 커밋 후 바뀐 회원 / 팀을 DB 에서 다시 읽어 구독자에게 한번 전달 ( 없으면 삭제 )
+ *    이벤트 시점의 값을 그대로 쓰면 동시에 커밋한 트랜잭션의 after-commit 순서가 커밋 순서와 달라서 오래된 값이 남을 수 있다
+ *    -> 다시 읽기 + 전달을 lock 하나로 줄 세운다 , 나중에 읽은 쪽이 나중에 전달되므로 마지막 전달은 항상 마지막 커밋 이후의 값
+ *    커밋마다 바뀐 id 로 select 가 한번 더 나간다 ( pk in , IN_CHUNK 개씩 )
+ *  - 구독자는 커밋한 스레드에서 호출된다 , 구독자가 없으면 Hibernate 리스너도 등록하지 않는다
+ *  - 반영에 실패하면 로그만 남긴다 ( 구독자는 각자 주기적인 전체 재로딩으로 보정 )
+ */
+@Slf4j
+@Component
+public class MemberChangeFeed implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final int IN_CHUNK = 1000;
+
+    private final EntityManagerFactory emf;
+    private final EntityManager em;
+
+    private final List<Consumer<Changes>> subscribers = new CopyOnWriteArrayList<>();
+    //세션( 트랜잭션 ) 별 아직 커밋 안된 변경
+    private final Map<SharedSessionContractImplementor, Pending> pending = new ConcurrentHashMap<>();
+    //다시 읽기 + 전달 순서
+    private final Object publishLock = new Object();
+    private boolean registered;
+
+    public MemberChangeFeed(EntityManagerFactory emf, EntityManager em){
+        this.emf = emf;
+        this.em = em;
+    }
+
+    /**
+     * 커밋된 변경을 받는다 ( 첫 구독때 Hibernate 리스너 등록 )
+     */
+    synchronized void subscribe(Consumer<Changes> subscriber){
+        if(!registered){
+            EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                    .getServiceRegistry().getService(EventListenerRegistry.class);
+            registry.appendListeners(EventType.POST_INSERT, this);
+            registry.appendListeners(EventType.POST_UPDATE, this);
+            registry.appendListeners(EventType.POST_DELETE, this);
+            registered = true;
+        }
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * 현재 트랜잭션에서 바뀌었지만 아직 커밋 안된 회원 id ( 트랜잭션 밖이면 비어 있다 )
+     * 검색 쿼리가 할 auto flush 를 미리 한다 ( persist 만 하고 flush 전인 회원도 insert 이벤트가 나와야 여기 들어온다 )
+     */
+    Set<Long> uncommittedMemberIds(){
+        if(subscribers.isEmpty() || !TransactionSynchronizationManager.isActualTransactionActive()){
+            return Set.of();
+        }
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        FlushMode flushMode = session.getHibernateFlushMode();
+        if(flushMode == FlushMode.AUTO || flushMode == FlushMode.ALWAYS){
+            session.flush();
+        }
+        Pending changes = pending.get(session);
+        return changes != null ? new LinkedHashSet<>(changes.memberIds) : Set.of();
+    }
+
+    /**
+     * 벌크 연산 대상 회원 ( update / delete 모두 커밋 후 DB 에서 다시 읽는다 )
+     * MemberBulkRepository 가 트랜잭션 안에서 발행 -> 같은 세션 변경으로 기록
+     */
+    @EventListener
+    public void onBulk(MemberBulkEvent event){
+        if(subscribers.isEmpty()){
+            return;
+        }
+        pending(em.unwrap(SessionImplementor.class)).memberIds.addAll(event.getMemberIds());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        changed(event.getSession(), event.getEntity(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        changed(event.getSession(), event.getEntity(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        changed(event.getSession(), event.getEntity(), event.getId());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    //값은 커밋 후 다시 읽는다 ( id 만 기록 )
+    private void changed(EventSource session, Object entity, Object id) {
+        if(entity instanceof Member){
+            pending(session).memberIds.add((Long) id);
+        } else if(entity instanceof Team){
+            pending(session).teamIds.add((Long) id);
+        }
+    }
+
+    private Pending pending(SharedSessionContractImplementor session) {
+        return pending.computeIfAbsent(session, key -> {
+            Pending changes = new Pending();
+            ((EventSource) session).getActionQueue().registerProcess(changes);
+            return changes;
+        });
+    }
+
+    private void publish(Changes changes) {
+        for (Consumer<Changes> subscriber : subscribers) {
+            try {
+                subscriber.accept(changes);
+            } catch (RuntimeException e) {
+                log.warn("커밋된 회원 변경 반영 실패 , 다음 전체 재로딩까지 메모리 복제본이 DB 와 다를 수 있습니다", e);
+            }
+        }
+    }
+
+    //커밋된 값을 DB 에서 읽는다 ( 없는 회원 / 팀 = 삭제 )
+    private Changes read(Set<Long> memberIds, Set<Long> teamIds) {
+        Changes changes = new Changes();
+        for (Long memberId : memberIds) {
+            changes.members.put(memberId, null);
+        }
+        Set<Long> remainingTeams = new LinkedHashSet<>(teamIds);
+        EntityManager readEm = emf.createEntityManager();
+        try {
+            JPAQueryFactory query = new JPAQueryFactory(readEm);
+            List<Long> teams = new ArrayList<>(teamIds);
+            for (int from = 0; from < teams.size(); from += IN_CHUNK) {
+                for (Tuple row : query
+                        .select(team.id, team.name)
+                        .from(team)
+                        .where(team.id.in(teams.subList(from, Math.min(from + IN_CHUNK, teams.size()))))
+                        .fetch()) {
+                    changes.teams.put(row.get(team.id), row.get(team.name));
+                    remainingTeams.remove(row.get(team.id));
+                }
+            }
+            changes.deletedTeams.addAll(remainingTeams);
+
+            List<Long> ids = new ArrayList<>(memberIds);
+            for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+                for (Tuple row : query
+                        .select(member.id, member.username, member.age, member.team.id)
+                        .from(member)
+                        .where(member.id.in(ids.subList(from, Math.min(from + IN_CHUNK, ids.size()))))
+                        .fetch()) {
+                    changes.members.put(row.get(member.id),
+                            new MemberRow(row.get(member.username), row.get(member.age), row.get(member.team.id)));
+                }
+            }
+        } finally {
+            readEm.close();
+        }
+        return changes;
+    }
+
+    private class Pending implements AfterTransactionCompletionProcess {
+
+        private final Set<Long> memberIds = new LinkedHashSet<>();
+        private final Set<Long> teamIds = new LinkedHashSet<>();
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            pending.remove(session);
+            if(!success || (memberIds.isEmpty() && teamIds.isEmpty())){
+                return;
+            }
+            synchronized (publishLock) {
+                Changes changes;
+                try {
+                    changes = read(memberIds, teamIds);
+                } catch (RuntimeException e) {
+                    log.warn("커밋된 회원 변경 다시 읽기 실패 , 다음 전체 재로딩까지 메모리 복제본이 DB 와 다를 수 있습니다", e);
+                    return;
+                }
+                publish(changes);
+            }
+        }
+    }
+
+    /**
+     * 커밋된 변경 하나 ( 구독자는 읽기만 한다 )
+     * 회원 id -> 새 값 ( null = 삭제 ) , 팀 id -> 새 이름 , 삭제된 팀
+     */
+    @Getter
+    static class Changes {
+        private final Map<Long, MemberRow> members = new LinkedHashMap<>();
+        private final Map<Long, String> teams = new LinkedHashMap<>();
+        private final Set<Long> deletedTeams = new LinkedHashSet<>();
+    }
+
+    @Getter
+    static class MemberRow {
+        private final String username;
+        private final int age;
+        private final Long teamId;
+
+        MemberRow(String username, Integer age, Long teamId){
+            this.username = username;
+            this.age = age != null ? age : 0;
+            this.teamId = teamId;
+        }
+    }
+}
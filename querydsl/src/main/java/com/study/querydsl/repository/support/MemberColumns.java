@@ -0,0 +1,451 @@
+package com.study.querydsl.repository.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.dto.MemberSearchCondition;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+import static com.study.querydsl.entity.QMember.member;
+import static com.study.querydsl.entity.QTeam.team;
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * Member 컬럼형 메모리 복제본 ( 나이 집계 / 필터 전용 )
+ *
+ * QuerydslBasicTest.aggregation / group 같은 집계를 DB 에서 매번 row 를 읽어 계산하지 않고
+ * 회원 row 를 컬럼별 배열 ( id[] , age[] , username 코드[] , team 번호[] ) 로 들고 있다가 반복문 한번으로 계산한다
+ *
+ *  - username / team 은 사전 인코딩 ( 문자열 -> int 코드 , team id -> 배열 번호 )
+ *    조건의 문자열은 조회 시작할 때 한번만 코드로 바꾸고 , 반복문 안에서는 int 비교만 ( row 마다 객체를 만들지 않는다 )
+ *  - 삭제는 마지막 row 를 빈 자리로 옮긴다 ( 배열이 항상 빈틈 없이 차 있다 )
+ *  - 커밋된 변경은 MemberChangeFeed 로 받아서 반영 , rebuild-interval 마다 전체 재로딩
+ *  - 조회는 StampedLock 읽기 락 ( 커밋 반영 / 재로딩만 쓰기 락 )
+ *
+ * 커밋된 데이터만 가지고 있으므로 쓰기 트랜잭션 안에서는 쓰지 않는다 ( isAvailable )
+ */
+@Slf4j
+@Component
+public class MemberColumns {
+
+    private static final int NO_TEAM = -1;
+
+    private final EntityManagerFactory emf;
+    private final MemberChangeFeed feed;
+    private final boolean enabled;
+
+    private final StampedLock lock = new StampedLock();
+    private volatile Columns columns;
+    //전체 로딩 중 커밋된 변경 ( 로딩 끝나면 새 복제본에 다시 적용 )
+    private List<MemberChangeFeed.Changes> recording;
+
+    public MemberColumns(EntityManagerFactory emf, MemberChangeFeed feed,
+                         @Value("${member.columnar.enabled:false}") boolean enabled){
+        this.emf = emf;
+        this.feed = feed;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void register(){
+        if(!enabled){
+            return;
+        }
+        feed.subscribe(this::commit);
+    }
+
+    /**
+     * 로딩이 끝났고 , 현재 쓰기 트랜잭션이 아닐 때 ( 읽기 전용 트랜잭션은 가능 )
+     */
+    public boolean isAvailable(){
+        if(!enabled || columns == null){
+            return false;
+        }
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * 조건에 맞는 회원 수 / 나이 합 / 최소 / 최대
+     */
+    public AgeAggregate aggregate(MemberSearchCondition condition){
+        long stamp = lock.readLock();
+        try {
+            Columns c = columns;
+            Filter filter = c.filter(condition);
+            long count = 0, sum = 0;
+            int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+            if(filter != null){
+                int[] ages = c.ages;
+                for (int i = 0, size = c.size; i < size; i++) {
+                    int age = ages[i];
+                    if(age < filter.ageGoe || age > filter.ageLoe || !filter.matches(c, i)){
+                        continue;
+                    }
+                    count++;
+                    sum += age;
+                    min = Math.min(min, age);
+                    max = Math.max(max, age);
+                }
+            }
+            return new AgeAggregate(null, null, count, sum, count == 0 ? null : min, count == 0 ? null : max);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 팀별 집계 ( 회원이 있는 팀만 , 팀 없는 회원은 제외 - inner join 과 같다 )
+     */
+    public List<AgeAggregate> aggregateByTeam(MemberSearchCondition condition){
+        long stamp = lock.readLock();
+        try {
+            Columns c = columns;
+            Filter filter = c.filter(condition);
+            if(filter == null){
+                return List.of();
+            }
+            //팀 번호별 누적 ( 조회당 한번 할당 )
+            int teamCount = c.teamIds.size();
+            long[] counts = new long[teamCount];
+            long[] sums = new long[teamCount];
+            int[] mins = new int[teamCount];
+            int[] maxs = new int[teamCount];
+            Arrays.fill(mins, Integer.MAX_VALUE);
+            Arrays.fill(maxs, Integer.MIN_VALUE);
+
+            int[] ages = c.ages;
+            int[] teams = c.teams;
+            for (int i = 0, size = c.size; i < size; i++) {
+                int age = ages[i];
+                int slot = teams[i];
+                if(slot == NO_TEAM || age < filter.ageGoe || age > filter.ageLoe || !filter.matches(c, i)){
+                    continue;
+                }
+                counts[slot]++;
+                sums[slot] += age;
+                mins[slot] = Math.min(mins[slot], age);
+                maxs[slot] = Math.max(maxs[slot], age);
+            }
+
+            List<AgeAggregate> result = new ArrayList<>();
+            for (int slot = 0; slot < teamCount; slot++) {
+                if(counts[slot] > 0){
+                    result.add(new AgeAggregate(c.teamIds.get(slot), c.teamNames.get(slot),
+                            counts[slot], sums[slot], mins[slot], maxs[slot]));
+                }
+            }
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * DB 에서 전체를 다시 읽어 새로 만든다 ( 읽는 동안 커밋된 변경은 새 복제본에 다시 적용 )
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${member.columnar.rebuild-interval:PT10M}",
+            initialDelayString = "${member.columnar.rebuild-interval:PT10M}")
+    public void rebuild(){
+        if(!enabled){
+            return;
+        }
+        List<MemberChangeFeed.Changes> recorded = new ArrayList<>();
+        long stamp = lock.writeLock();
+        recording = recorded;
+        lock.unlockWrite(stamp);
+
+        long start = System.nanoTime();
+        Columns newColumns = new Columns();
+        try {
+            EntityManager readEm = emf.createEntityManager();
+            try {
+                JPAQueryFactory query = new JPAQueryFactory(readEm);
+                for (Tuple row : query.select(team.id, team.name).from(team).fetch()) {
+                    newColumns.putTeam(row.get(team.id), row.get(team.name));
+                }
+                for (Tuple row : query.select(member.id, member.username, member.age, member.team.id).from(member).fetch()) {
+                    newColumns.putMember(row.get(member.id), row.get(member.username), row.get(member.age),
+                            row.get(member.team.id));
+                }
+            } finally {
+                readEm.close();
+            }
+        } catch (RuntimeException e) {
+            stamp = lock.writeLock();
+            recording = null;
+            lock.unlockWrite(stamp);
+            throw e;
+        }
+
+        stamp = lock.writeLock();
+        try {
+            for (MemberChangeFeed.Changes changes : recorded) {
+                apply(changes, newColumns);
+            }
+            columns = newColumns;
+            recording = null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        log.info("회원 컬럼 복제본 로딩 {}명 , 팀 {}개 , username {}종 ( {}ms )", newColumns.size, newColumns.teamIds.size(),
+                newColumns.usernames.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public Stats stats(){
+        long stamp = lock.readLock();
+        try {
+            return columns == null
+                    ? new Stats(false, 0, 0, 0)
+                    : new Stats(true, columns.size, columns.teamIds.size(), columns.usernames.size());
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    //커밋된 변경 반영 ( 전체 로딩 중이면 기록도 )
+    private void commit(MemberChangeFeed.Changes changes) {
+        long stamp = lock.writeLock();
+        try {
+            if(columns != null){
+                apply(changes, columns);
+            }
+            if(recording != null){
+                recording.add(changes);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    //팀 먼저 ( 새 팀에 들어간 회원 )
+    private static void apply(MemberChangeFeed.Changes changes, Columns target) {
+        for (Map.Entry<Long, String> change : changes.getTeams().entrySet()) {
+            target.putTeam(change.getKey(), change.getValue());
+        }
+        for (Long teamId : changes.getDeletedTeams()) {
+            target.removeTeam(teamId);
+        }
+        for (Map.Entry<Long, MemberChangeFeed.MemberRow> change : changes.getMembers().entrySet()) {
+            MemberChangeFeed.MemberRow row = change.getValue();
+            if(row == null){
+                target.removeMember(change.getKey());
+            } else {
+                target.putMember(change.getKey(), row.getUsername(), row.getAge(), row.getTeamId());
+            }
+        }
+    }
+
+    /**
+     * 복제본 본체 ( lock 안에서만 사용 )
+     */
+    private static class Columns {
+
+        private long[] ids = new long[1024];
+        private int[] ages = new int[1024];
+        private int[] usernameCodes = new int[1024];
+        private int[] teams = new int[1024];
+        private int size;
+
+        //회원 id -> 배열 위치 ( 변경 반영할 때만 사용 )
+        private final Map<Long, Integer> positions = new HashMap<>();
+
+        //username 사전 ( 코드 -> 문자열 , 문자열 -> 코드 ) , 재로딩 전까지 줄어들지 않는다
+        private final List<String> usernames = new ArrayList<>();
+        private final Map<String, Integer> usernameCodeOf = new HashMap<>();
+
+        //팀 번호 -> id / 이름 ( 삭제된 팀은 이름 null ) , team id -> 번호
+        private final List<Long> teamIds = new ArrayList<>();
+        private final List<String> teamNames = new ArrayList<>();
+        private final Map<Long, Integer> teamSlotOf = new HashMap<>();
+
+        private void putMember(Long id, String username, int age, Long teamId) {
+            Integer position = positions.get(id);
+            int i;
+            if(position != null){
+                i = position;
+            } else {
+                if(size == ids.length){
+                    int capacity = size * 2;
+                    ids = Arrays.copyOf(ids, capacity);
+                    ages = Arrays.copyOf(ages, capacity);
+                    usernameCodes = Arrays.copyOf(usernameCodes, capacity);
+                    teams = Arrays.copyOf(teams, capacity);
+                }
+                i = size++;
+                positions.put(id, i);
+            }
+            ids[i] = id;
+            ages[i] = age;
+            usernameCodes[i] = usernameCode(username);
+            teams[i] = teamId != null ? teamSlot(teamId) : NO_TEAM;
+        }
+
+        private void removeMember(Long id) {
+            Integer position = positions.remove(id);
+            if(position == null){
+                return;
+            }
+            int last = --size;
+            if(position != last){
+                ids[position] = ids[last];
+                ages[position] = ages[last];
+                usernameCodes[position] = usernameCodes[last];
+                teams[position] = teams[last];
+                positions.put(ids[position], position);
+            }
+        }
+
+        private void putTeam(Long teamId, String name) {
+            teamNames.set(teamSlot(teamId), name);
+        }
+
+        //번호는 재로딩 전까지 재사용하지 않는다 ( 팀이 지워지기 전에 회원의 team_id 가 먼저 바뀐다 )
+        private void removeTeam(Long teamId) {
+            Integer slot = teamSlotOf.get(teamId);
+            if(slot != null){
+                teamNames.set(slot, null);
+            }
+        }
+
+        private int teamSlot(Long teamId) {
+            Integer slot = teamSlotOf.get(teamId);
+            if(slot == null){
+                slot = teamIds.size();
+                teamIds.add(teamId);
+                teamNames.add(null);
+                teamSlotOf.put(teamId, slot);
+            }
+            return slot;
+        }
+
+        private int usernameCode(String username) {
+            if(username == null){
+                return -1;
+            }
+            Integer code = usernameCodeOf.get(username);
+            if(code == null){
+                code = usernames.size();
+                usernames.add(username);
+                usernameCodeOf.put(username, code);
+            }
+            return code;
+        }
+
+        /**
+         * 조건을 코드 / 번호로 바꾼다 , 맞는 회원이 있을 수 없으면 null
+         */
+        private Filter filter(MemberSearchCondition condition) {
+            Filter filter = new Filter();
+            filter.ageGoe = condition.getAgeGoe() != null ? condition.getAgeGoe() : Integer.MIN_VALUE;
+            filter.ageLoe = condition.getAgeLoe() != null ? condition.getAgeLoe() : Integer.MAX_VALUE;
+
+            //username 조건들은 사전 코드별 true / false 로 미리 계산
+            if(hasText(condition.getUsername()) || condition.hasUsernamePattern()){
+                boolean[] usernameMatch = new boolean[usernames.size()];
+                boolean any = false;
+                for (int code = 0; code < usernameMatch.length; code++) {
+                    String username = usernames.get(code);
+                    usernameMatch[code] = (!hasText(condition.getUsername()) || username.equals(condition.getUsername()))
+                            && (!hasText(condition.getUsernameContains()) || username.contains(condition.getUsernameContains()))
+                            && (!hasText(condition.getUsernameStartsWith()) || username.startsWith(condition.getUsernameStartsWith()));
+                    any |= usernameMatch[code];
+                }
+                if(!any){
+                    return null;
+                }
+                filter.usernameMatch = usernameMatch;
+            }
+
+            if(hasText(condition.getTeamName())){
+                boolean[] teamMatch = new boolean[teamIds.size()];
+                boolean any = false;
+                for (int slot = 0; slot < teamMatch.length; slot++) {
+                    teamMatch[slot] = condition.getTeamName().equals(teamNames.get(slot));
+                    any |= teamMatch[slot];
+                }
+                if(!any){
+                    return null;
+                }
+                filter.teamMatch = teamMatch;
+            }
+            return filter;
+        }
+    }
+
+    //나이 범위 외의 조건 ( 없으면 null )
+    private static class Filter {
+        private int ageGoe;
+        private int ageLoe;
+        private boolean[] usernameMatch;
+        private boolean[] teamMatch;
+
+        private boolean matches(Columns c, int i) {
+            if(usernameMatch != null){
+                int code = c.usernameCodes[i];
+                if(code < 0 || !usernameMatch[code]){
+                    return false;
+                }
+            }
+            if(teamMatch != null){
+                int slot = c.teams[i];
+                return slot != NO_TEAM && teamMatch[slot];
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 집계 결과 ( 팀별 집계가 아니면 teamId / teamName 은 null , 회원이 없으면 min / max 는 null )
+     */
+    @Getter
+    public static class AgeAggregate {
+        private final Long teamId;
+        private final String teamName;
+        private final long count;
+        private final long sum;
+        private final Integer min;
+        private final Integer max;
+
+        public AgeAggregate(Long teamId, String teamName, long count, long sum, Integer min, Integer max){
+            this.teamId = teamId;
+            this.teamName = teamName;
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    @Getter
+    public static class Stats {
+        private final boolean loaded;
+        private final int memberCount;
+        private final int teamCount;
+        private final int usernameCount;
+
+        public Stats(boolean loaded, int memberCount, int teamCount, int usernameCount){
+            this.loaded = loaded;
+            this.memberCount = memberCount;
+            this.teamCount = teamCount;
+            this.usernameCount = usernameCount;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.study.querydsl.repository.support;
+
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.study.querydsl.entity.QMember.member;
+import static com.study.querydsl.entity.QTeam.team;
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * MemberSearchCondition 검색 쿼리 템플릿
+ *
+ * 조건 4개(username, teamName, ageGoe, ageLoe) 의 유무 조합은 16가지 뿐이다
+ * 조합마다 Param 자리표시자로 쿼리를 한번만 만들어 JPQL 문자열로 직렬화 해두고,
+ * 요청마다 Querydsl 식 생성 / 직렬화 없이 파라미터만 바인딩해서 실행한다
+ * JPQL 문자열이 항상 같기 때문에 Hibernate 쿼리 플랜 캐시도 그대로 재사용된다
+ */
+@Component
+public class MemberSearchTemplates {
+
+    private static final int USERNAME = 1;
+    private static final int TEAM_NAME = 1 << 1;
+    private static final int AGE_GOE = 1 << 2;
+    private static final int AGE_LOE = 1 << 3;
+
+    private static final Param<String> usernameParam = new Param<>(String.class, "username");
+    private static final Param<String> teamNameParam = new Param<>(String.class, "teamName");
+    private static final Param<Integer> ageGoeParam = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> ageLoeParam = new Param<>(Integer.class, "ageLoe");
+
+    //row -> DTO 변환도 리플렉션 없이 ( QMemberTeamDto 와 같은 생성자 )
+    private static final FactoryExpression<MemberTeamDto> projection = FastProjections.constructor(MemberTeamDto.class,
+            member.id.as("memberId"),
+            member.username,
+            member.age,
+            team.id.as("teamId"),
+            team.name.as("teamName"));
+
+    private final EntityManager em;
+    private final Template[] templates = new Template[16];
+
+    public MemberSearchTemplates(EntityManager em){
+        this.em = em;
+        for (int shape = 0; shape < templates.length; shape++) {
+            templates[shape] = compile(shape);
+        }
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition){
+        return search(condition, -1, -1);
+    }
+
+    /**
+     * offset , limit 이 0 보다 작으면 적용하지 않는다
+     */
+    public List<MemberTeamDto> search(MemberSearchCondition condition, long offset, int limit){
+        return search(em, condition, offset, limit);
+    }
+
+    /**
+     * 주입받은 EntityManager 대신 em 으로 실행 ( ParallelPageExecutor 등 별도 EntityManager )
+     */
+    public List<MemberTeamDto> search(EntityManager em, MemberSearchCondition condition, long offset, int limit){
+        Map<ParamExpression<?>, Object> params = new HashMap<>(8);
+        int shape = 0;
+        if(hasText(condition.getUsername())){
+            shape |= USERNAME;
+            params.put(usernameParam, condition.getUsername());
+        }
+        if(hasText(condition.getTeamName())){
+            shape |= TEAM_NAME;
+            params.put(teamNameParam, condition.getTeamName());
+        }
+        if(condition.getAgeGoe() != null){
+            shape |= AGE_GOE;
+            params.put(ageGoeParam, condition.getAgeGoe());
+        }
+        if(condition.getAgeLoe() != null){
+            shape |= AGE_LOE;
+            params.put(ageLoeParam, condition.getAgeLoe());
+        }
+
+        Template template = templates[shape];
+        Query query = em.createQuery(template.jpql);
+        JPAUtil.setConstants(query, template.constants, params);
+        if(offset >= 0){
+            query.setFirstResult(firstResult(offset));
+        }
+        if(limit >= 0){
+            query.setMaxResults(limit);
+        }
+
+        List<?> rows = query.getResultList();
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            result.add(projection.newInstance((Object[]) row));
+        }
+        return result;
+    }
+
+    //JPA 는 int offset 만 받는다 , ( int ) 로 자르면 엉뚱한 페이지가 나온다 -> 400
+    private static int firstResult(long offset) {
+        if(offset > Integer.MAX_VALUE){
+            throw new IllegalArgumentException("offset 이 너무 큽니다: " + offset + " ( 최대 " + Integer.MAX_VALUE + " , 뒤쪽 페이지는 /v4/members 커서 페이징 )");
+        }
+        return (int) offset;
+    }
+
+    //MemberRepositoryImpl.search 의 동적 쿼리와 같은 쿼리 ( 값 대신 Param )
+    private static Template compile(int shape) {
+        JPAQuery<MemberTeamDto> query = new JPAQuery<Void>()
+                .select(projection)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        (shape & USERNAME) != 0 ? member.username.eq(usernameParam) : null,
+                        (shape & TEAM_NAME) != 0 ? team.name.eq(teamNameParam) : null,
+                        (shape & AGE_GOE) != 0 ? member.age.goe(ageGoeParam) : null,
+                        (shape & AGE_LOE) != 0 ? member.age.loe(ageLoeParam) : null
+                );
+
+        JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+        serializer.serialize(query.getMetadata(), false, null);
+        return new Template(serializer.toString(), serializer.getConstants());
+    }
+
+    private static class Template {
+        private final String jpql;
+        private final List<Object> constants;
+
+        private Template(String jpql, List<Object> constants){
+            this.jpql = jpql;
+            this.constants = constants;
+        }
+    }
+}
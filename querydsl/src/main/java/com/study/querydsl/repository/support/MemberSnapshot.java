@@ -0,0 +1,741 @@
+package com.study.querydsl.repository.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.study.querydsl.entity.QMember.member;
+import static com.study.querydsl.entity.QTeam.team;
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 회원 검색 결과 ( MemberTeamDto ) 스냅샷 파일 - 재시작 직후 ( 따라잡기가 끝날 때까지 ) search 를 DB 없이 응답
+ *
+ * 기동 직후에는 캐시가 비어 있어서 처음 몇 분의 트래픽이 전부 DB 로 간다
+ * -> 주기적으로 ( + 종료시 ) 검색 projection 을 바이너리 파일로 써 두고 , 기동시 FileChannel.map 으로 바로 올린다
+ *    ( 힙으로 읽어 들이지 않는다 , 페이지 캐시에 있으면 디스크도 안 읽는다 )
+ *
+ * 파일 형식 ( 회원은 id 순 , 고정 길이 -> id 로 이진 탐색 )
+ *  header   : magic , format , 생성 시각 , 회원 수 , 팀 수 , 문자열 영역 길이
+ *  팀       : ( team id , 이름 위치 ) * 팀 수
+ *  회원     : ( member id , age , team id ( 없으면 0 ) , username 위치 ) * 회원 수
+ *  문자열   : ( 길이 , UTF-8 ) * n
+ *
+ * 기동 후 따라잡기
+ *  - member 에는 변경 시각 / 버전 컬럼이 없다 -> 스냅샷과 DB 를 id 순으로 청크 단위 비교해서 달라진 row 만 힙 overlay 로 ( 백그라운드 )
+ *  - 그 사이 커밋된 변경은 MemberChangeFeed 로 받아서 바로 overlay ( 비교 결과보다 우선 )
+ *  - 다 따라잡으면 새 스냅샷을 쓰고 다시 map , overlay 비움
+ *  - 따라잡기 전에는 스냅샷 시점의 데이터가 응답될 수 있다 ( 켜는 순간 감수하는 것 )
+ *  - 따라잡은 뒤에는 원래 경로 ( 인덱스를 타는 DB 조회 + SearchResultCache ) 로 돌아간다 , 스냅샷 검색은 파일 전체를 훑는다
+ *
+ * 파일 길이가 header 와 맞지 않거나 ( 잘린 파일 등 ) 문자열 위치가 범위를 벗어나면 map 하지 않고 기동 후 새로 쓴다
+ *
+ * 커밋된 데이터만 가지고 있으므로 쓰기 트랜잭션 안에서는 쓰지 않는다 ( isServing )
+ */
+@Slf4j
+@Component
+public class MemberSnapshot {
+
+    private static final int MAGIC = 0x4D534E50; // MSNP
+    private static final int FORMAT = 2;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4 + 4;
+    private static final int TEAM_BYTES = 8 + 4;
+    private static final int ROW_BYTES = 8 + 4 + 8 + 4;
+    private static final int CHUNK = 1000;
+
+    private final EntityManagerFactory emf;
+    private final MemberChangeFeed feed;
+    private final boolean enabled;
+    private final Path path;
+    private final TaskExecutor taskExecutor;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile State state;
+    private volatile boolean caughtUp;
+    //새 스냅샷을 쓰는 중 커밋된 변경 ( 새 스냅샷에 다시 적용 )
+    private List<MemberChangeFeed.Changes> recording;
+
+    public MemberSnapshot(EntityManagerFactory emf, MemberChangeFeed feed,
+                          @Value("${member.snapshot.enabled:false}") boolean enabled,
+                          @Value("${member.snapshot.path:${java.io.tmpdir}/querydsl-member.snapshot}") String path,
+                          @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor){
+        this.emf = emf;
+        this.feed = feed;
+        this.enabled = enabled;
+        this.path = Paths.get(path);
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * 파일이 있으면 바로 map ( 따라잡기는 ApplicationReady 이후 )
+     */
+    @PostConstruct
+    public void open(){
+        if(!enabled){
+            return;
+        }
+        feed.subscribe(changes -> apply(changes, true));
+        load();
+    }
+
+    //파일 map ( 없거나 깨진 파일이면 state 는 null -> catchUpAsync 가 새로 쓴다 )
+    void load(){
+        State loaded = null;
+        if(!Files.exists(path)){
+            log.info("회원 스냅샷 없음 {} - 기동 후 새로 만든다", path);
+        } else {
+            try {
+                Base base = Base.map(path);
+                loaded = new State(base);
+                log.info("회원 스냅샷 로딩 {} - 회원 {}명 , {} 시점", path, base.rowCount, Instant.ofEpochMilli(base.createdAt));
+            } catch (IOException | RuntimeException e) {
+                log.warn("회원 스냅샷을 읽을 수 없습니다 {} - 기동 후 새로 만든다", path, e);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            state = loaded;
+            caughtUp = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 스냅샷으로 응답할 수 있는지 ( 파일이 map 되어 있고 , 아직 따라잡는 중이고 , 쓰기 트랜잭션이 아닐 때 )
+     */
+    public boolean isServing(){
+        if(!enabled || state == null || caughtUp){
+            return false;
+        }
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * MemberRepositoryImpl.search 와 같은 조건 ( 결과는 member id 순 )
+     */
+    public List<MemberTeamDto> search(MemberSearchCondition condition){
+        Matcher matcher = new Matcher(condition);
+        lock.readLock().lock();
+        try {
+            State s = state;
+            long[] teamIds = matcher.teamIds(s);
+            List<MemberTeamDto> result = new ArrayList<>();
+            if(teamIds != null && teamIds.length == 0){
+                return result;
+            }
+            Base base = s.base;
+            ByteBuffer buf = base.buffer;
+            for (int i = 0; i < base.rowCount; i++) {
+                if(s.superseded.get(i)){
+                    continue;
+                }
+                int row = base.rowsStart + i * ROW_BYTES;
+                int age = buf.getInt(row + 8);
+                long teamId = buf.getLong(row + 12);
+                int usernameAt = buf.getInt(row + 20);
+                if(!matcher.age(age) || !matcher.team(teamId, teamIds) || !matcher.username(base, usernameAt)){
+                    continue;
+                }
+                result.add(new MemberTeamDto(buf.getLong(row), base.string(usernameAt), age,
+                        teamId != 0 ? teamId : null, teamId != 0 ? s.teamName(teamId) : null));
+            }
+            for (Map.Entry<Long, MemberChangeFeed.MemberRow> entry : s.changed.entrySet()) {
+                MemberChangeFeed.MemberRow changed = entry.getValue();
+                if(changed == State.DELETED){
+                    continue;
+                }
+                long teamId = changed.getTeamId() != null ? changed.getTeamId() : 0;
+                if(matcher.age(changed.getAge()) && matcher.team(teamId, teamIds) && matcher.username(changed.getUsername())){
+                    result.add(new MemberTeamDto(entry.getKey(), changed.getUsername(), changed.getAge(),
+                            changed.getTeamId(), changed.getTeamId() != null ? s.teamName(changed.getTeamId()) : null));
+                }
+            }
+            result.sort(Comparator.comparing(MemberTeamDto::getMemberId));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 기동 후 따라잡기 ( 스냅샷이 없거나 깨졌으면 바로 새로 쓴다 )
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUpAsync(){
+        if(!enabled){
+            return;
+        }
+        taskExecutor.execute(() -> {
+            try {
+                if(state != null){
+                    catchUp();
+                }
+                write();
+                caughtUp = true;
+            } catch (RuntimeException e) {
+                log.warn("회원 스냅샷 따라잡기 실패 - 다음 주기에 다시 쓴다", e);
+            }
+        });
+    }
+
+    /**
+     * 새 스냅샷 파일을 쓰고 다시 map ( overlay 는 그 사이 커밋된 변경만 남는다 )
+     */
+    @Scheduled(fixedDelayString = "${member.snapshot.interval:PT10M}",
+            initialDelayString = "${member.snapshot.interval:PT10M}")
+    public void scheduledWrite(){
+        if(enabled && caughtUp){
+            write();
+        }
+    }
+
+    @PreDestroy
+    public void close(){
+        if(enabled && caughtUp){
+            try {
+                write();
+            } catch (RuntimeException e) {
+                log.warn("종료 전 회원 스냅샷 저장 실패", e);
+            }
+        }
+    }
+
+    public synchronized void write(){
+        List<MemberChangeFeed.Changes> recorded = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            recording = recorded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.nanoTime();
+        Base base;
+        try {
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            int rows = writeFile(temp);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            //이전 map 은 참조가 없어지면 GC 가 해제한다
+            base = Base.map(path);
+            log.info("회원 스냅샷 저장 {} - 회원 {}명 ( {}ms )", path, rows, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            stopRecording();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            stopRecording();
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            State newState = new State(base);
+            for (MemberChangeFeed.Changes changes : recorded) {
+                newState.apply(changes, true);
+            }
+            state = newState;
+            recording = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void stopRecording() {
+        lock.writeLock().lock();
+        try {
+            recording = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //스냅샷과 DB 를 id 순으로 비교해서 달라진 row 만 overlay 로
+    void catchUp() {
+        long start = System.nanoTime();
+        State s = state;
+        Base base = s.base;
+        int changedCount = 0;
+        EntityManager readEm = emf.createEntityManager();
+        try {
+            JPAQueryFactory query = new JPAQueryFactory(readEm);
+
+            MemberChangeFeed.Changes teams = new MemberChangeFeed.Changes();
+            for (Tuple row : query.select(team.id, team.name).from(team).fetch()) {
+                if(!Objects.equals(row.get(team.name), s.teamName(row.get(team.id)))){
+                    teams.getTeams().put(row.get(team.id), row.get(team.name));
+                }
+            }
+            apply(teams, false);
+
+            int position = 0;
+            long lastId = Long.MIN_VALUE;
+            while (true) {
+                List<Tuple> rows = query
+                        .select(member.id, member.username, member.age, member.team.id)
+                        .from(member)
+                        .where(member.id.gt(lastId))
+                        .orderBy(member.id.asc())
+                        .limit(CHUNK)
+                        .fetch();
+                MemberChangeFeed.Changes changes = new MemberChangeFeed.Changes();
+                for (Tuple row : rows) {
+                    long id = row.get(member.id);
+                    //스냅샷에만 있는 회원 = 삭제
+                    while (position < base.rowCount && base.id(position) < id) {
+                        changes.getMembers().put(base.id(position++), null);
+                    }
+                    MemberChangeFeed.MemberRow dbRow = new MemberChangeFeed.MemberRow(row.get(member.username),
+                            row.get(member.age), row.get(member.team.id));
+                    if(position < base.rowCount && base.id(position) == id){
+                        if(!base.sameAs(position, dbRow)){
+                            changes.getMembers().put(id, dbRow);
+                        }
+                        position++;
+                    } else {
+                        changes.getMembers().put(id, dbRow);
+                    }
+                    lastId = id;
+                }
+                if(rows.size() < CHUNK){
+                    while (position < base.rowCount) {
+                        changes.getMembers().put(base.id(position++), null);
+                    }
+                }
+                changedCount += changes.getMembers().size();
+                apply(changes, false);
+                readEm.clear();
+                if(rows.size() < CHUNK){
+                    break;
+                }
+            }
+        } finally {
+            readEm.close();
+        }
+        log.info("회원 스냅샷 따라잡기 완료 - 달라진 회원 {}명 ( {}ms )", changedCount, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public Stats stats(){
+        lock.readLock().lock();
+        try {
+            State s = state;
+            return s == null
+                    ? new Stats(false, caughtUp, 0, 0, null)
+                    : new Stats(true, caughtUp, s.base.rowCount, s.changed.size(), Instant.ofEpochMilli(s.base.createdAt));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //live = 커밋된 변경 ( 따라잡기 비교 결과보다 우선 )
+    private void apply(MemberChangeFeed.Changes changes, boolean live) {
+        lock.writeLock().lock();
+        try {
+            if(state != null){
+                state.apply(changes, live);
+            }
+            if(live && recording != null){
+                recording.add(changes);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //DB -> 파일 ( 회원은 id 순으로 청크 단위 조회 ) , 쓴 회원 수
+    private int writeFile(Path file) throws IOException {
+        Map<String, Integer> stringOffsets = new HashMap<>();
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        DataOutputStream stringOut = new DataOutputStream(strings);
+        ByteArrayOutputStream teams = new ByteArrayOutputStream();
+        DataOutputStream teamOut = new DataOutputStream(teams);
+        ByteArrayOutputStream rows = new ByteArrayOutputStream();
+        DataOutputStream rowOut = new DataOutputStream(rows);
+        int teamCount = 0;
+        int rowCount = 0;
+
+        EntityManager readEm = emf.createEntityManager();
+        try {
+            JPAQueryFactory query = new JPAQueryFactory(readEm);
+            for (Tuple row : query.select(team.id, team.name).from(team).orderBy(team.id.asc()).fetch()) {
+                teamOut.writeLong(row.get(team.id));
+                teamOut.writeInt(stringOffset(row.get(team.name), stringOffsets, stringOut));
+                teamCount++;
+            }
+            long lastId = Long.MIN_VALUE;
+            while (true) {
+                List<Tuple> chunk = query
+                        .select(member.id, member.username, member.age, member.team.id)
+                        .from(member)
+                        .where(member.id.gt(lastId))
+                        .orderBy(member.id.asc())
+                        .limit(CHUNK)
+                        .fetch();
+                for (Tuple row : chunk) {
+                    Long teamId = row.get(member.team.id);
+                    rowOut.writeLong(row.get(member.id));
+                    rowOut.writeInt(row.get(member.age));
+                    rowOut.writeLong(teamId != null ? teamId : 0);
+                    rowOut.writeInt(stringOffset(row.get(member.username), stringOffsets, stringOut));
+                    lastId = row.get(member.id);
+                    rowCount++;
+                }
+                readEm.clear();
+                if(chunk.size() < CHUNK){
+                    break;
+                }
+            }
+        } finally {
+            readEm.close();
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC).putInt(FORMAT).putLong(System.currentTimeMillis()).putInt(rowCount).putInt(teamCount)
+                .putInt(strings.size());
+        header.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] sections = {header, ByteBuffer.wrap(teams.toByteArray()),
+                    ByteBuffer.wrap(rows.toByteArray()), ByteBuffer.wrap(strings.toByteArray())};
+            long remaining = HEADER_BYTES + teams.size() + rows.size() + strings.size();
+            while (remaining > 0) {
+                remaining -= channel.write(sections);
+            }
+            channel.force(true);
+        }
+        return rowCount;
+    }
+
+    //같은 문자열은 한번만 ( 팀 이름 등 ) , null 은 -1
+    private static int stringOffset(String value, Map<String, Integer> offsets, DataOutputStream out) throws IOException {
+        if(value == null){
+            return -1;
+        }
+        Integer offset = offsets.get(value);
+        if(offset == null){
+            offset = out.size();
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            offsets.put(value, offset);
+        }
+        return offset;
+    }
+
+    /**
+     * map 된 스냅샷 파일 ( 읽기 전용 , 절대 위치로만 읽으므로 여러 스레드가 같이 읽어도 된다 )
+     */
+    private static class Base {
+        private final ByteBuffer buffer;
+        private final long createdAt;
+        private final int rowCount;
+        private final int rowsStart;
+        private final int stringsStart;
+        private final int stringsLength;
+        private final Map<Long, String> teamNames = new HashMap<>();
+
+        private Base(ByteBuffer buffer){
+            this.buffer = buffer;
+            if(buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT){
+                throw new IllegalStateException("회원 스냅샷 형식이 아닙니다");
+            }
+            this.createdAt = buffer.getLong(8);
+            this.rowCount = buffer.getInt(16);
+            int teamCount = buffer.getInt(20);
+            this.stringsLength = buffer.getInt(24);
+            //파일 길이 = header + 팀 + 회원 + 문자열 ( 잘리거나 뒤에 덧붙은 파일은 map 하지 않는다 )
+            long expected = HEADER_BYTES + (long) teamCount * TEAM_BYTES + (long) rowCount * ROW_BYTES + stringsLength;
+            if(rowCount < 0 || teamCount < 0 || stringsLength < 0 || expected != buffer.capacity()){
+                throw new IllegalStateException("회원 스냅샷 길이가 맞지 않습니다 ( 파일 " + buffer.capacity() + " , header " + expected + " )");
+            }
+            this.rowsStart = HEADER_BYTES + teamCount * TEAM_BYTES;
+            this.stringsStart = rowsStart + rowCount * ROW_BYTES;
+            for (int i = 0; i < teamCount; i++) {
+                int at = HEADER_BYTES + i * TEAM_BYTES;
+                checkString(buffer.getInt(at + 8));
+                teamNames.put(buffer.getLong(at), string(buffer.getInt(at + 8)));
+            }
+            //map 할 때 한번만 훑는다 ( search 는 범위를 다시 확인하지 않는다 , id 순이어야 이진 탐색이 맞다 )
+            long lastId = Long.MIN_VALUE;
+            for (int i = 0; i < rowCount; i++) {
+                int at = rowsStart + i * ROW_BYTES;
+                if(i > 0 && buffer.getLong(at) <= lastId){
+                    throw new IllegalStateException("회원 스냅샷의 회원이 id 순이 아닙니다 ( " + i + " 번째 )");
+                }
+                lastId = buffer.getLong(at);
+                checkString(buffer.getInt(at + 20));
+            }
+        }
+
+        private static Base map(Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if(size < HEADER_BYTES || size > Integer.MAX_VALUE){
+                    throw new IllegalStateException("회원 스냅샷 길이가 맞지 않습니다 ( 파일 " + size + " )");
+                }
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                return new Base(buffer);
+            }
+        }
+
+        //문자열 위치 ( -1 = null ) 와 길이가 문자열 영역 안인지
+        private void checkString(int offset) {
+            if(offset == -1){
+                return;
+            }
+            if(offset < 0 || offset > stringsLength - 4){
+                throw new IllegalStateException("회원 스냅샷 문자열 위치가 범위를 벗어났습니다 ( " + offset + " )");
+            }
+            int length = buffer.getInt(stringsStart + offset);
+            if(length < 0 || length > stringsLength - 4 - offset){
+                throw new IllegalStateException("회원 스냅샷 문자열 길이가 범위를 벗어났습니다 ( " + offset + " , " + length + " )");
+            }
+        }
+
+        private long id(int position) {
+            return buffer.getLong(rowsStart + position * ROW_BYTES);
+        }
+
+        //id 로 위치 찾기 ( 없으면 -1 )
+        private int positionOf(long id) {
+            int low = 0, high = rowCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long midId = id(mid);
+                if(midId < id){
+                    low = mid + 1;
+                } else if(midId > id){
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        private boolean sameAs(int position, MemberChangeFeed.MemberRow row) {
+            int at = rowsStart + position * ROW_BYTES;
+            long teamId = buffer.getLong(at + 12);
+            return buffer.getInt(at + 8) == row.getAge()
+                    && teamId == (row.getTeamId() != null ? row.getTeamId() : 0)
+                    && Objects.equals(string(buffer.getInt(at + 20)), row.getUsername());
+        }
+
+        private String string(int offset) {
+            if(offset < 0){
+                return null;
+            }
+            int at = stringsStart + offset;
+            byte[] bytes = new byte[buffer.getInt(at)];
+            buffer.get(at + 4, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        //아래는 문자열을 만들지 않고 파일의 UTF-8 바이트를 그대로 비교 ( 조건에 맞는 row 만 DTO 로 만든다 )
+        private boolean stringEquals(int offset, byte[] expected) {
+            return offset >= 0 && buffer.getInt(stringsStart + offset) == expected.length && regionMatches(offset, 0, expected);
+        }
+
+        private boolean stringStartsWith(int offset, byte[] prefix) {
+            return offset >= 0 && buffer.getInt(stringsStart + offset) >= prefix.length && regionMatches(offset, 0, prefix);
+        }
+
+        private boolean stringContains(int offset, byte[] part) {
+            if(offset < 0){
+                return false;
+            }
+            int length = buffer.getInt(stringsStart + offset);
+            for (int from = 0; from + part.length <= length; from++) {
+                if(regionMatches(offset, from, part)){
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean regionMatches(int offset, int from, byte[] bytes) {
+            int at = stringsStart + offset + 4 + from;
+            for (int i = 0; i < bytes.length; i++) {
+                if(buffer.get(at + i) != bytes[i]){
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 스냅샷 + 이후 변경 ( lock 안에서만 변경 )
+     */
+    private static class State {
+        //overlay 의 삭제 표시 ( 스냅샷에 있던 회원 )
+        private static final MemberChangeFeed.MemberRow DELETED = new MemberChangeFeed.MemberRow(null, 0, null);
+
+        private final Base base;
+        //스냅샷 row 중 overlay 로 대체된 위치
+        private final BitSet superseded = new BitSet();
+        private final Map<Long, MemberChangeFeed.MemberRow> changed = new HashMap<>();
+        //커밋된 변경이 들어온 회원 ( 따라잡기 비교 결과로 덮어쓰지 않는다 )
+        private final Set<Long> live = new HashSet<>();
+        private final Map<Long, String> teamNames;
+
+        private State(Base base){
+            this.base = base;
+            this.teamNames = new HashMap<>(base.teamNames);
+        }
+
+        private String teamName(Long teamId) {
+            return teamNames.get(teamId);
+        }
+
+        //삭제된 팀은 그 팀 회원이 먼저 바뀌므로 이름만 남아도 상관없다
+        private void apply(MemberChangeFeed.Changes changes, boolean live) {
+            teamNames.putAll(changes.getTeams());
+            for (Map.Entry<Long, MemberChangeFeed.MemberRow> change : changes.getMembers().entrySet()) {
+                Long id = change.getKey();
+                if(live){
+                    this.live.add(id);
+                } else if(this.live.contains(id)){
+                    continue;
+                }
+                int position = base.positionOf(id);
+                if(position >= 0){
+                    superseded.set(position);
+                }
+                MemberChangeFeed.MemberRow row = change.getValue();
+                if(row == null){
+                    //스냅샷에 없던 회원이면 overlay 에서만 지운다
+                    if(position >= 0){
+                        changed.put(id, DELETED);
+                    } else {
+                        changed.remove(id);
+                    }
+                } else {
+                    changed.put(id, row);
+                }
+            }
+        }
+    }
+
+    /**
+     * 검색 조건 ( 문자열은 UTF-8 바이트로 한번만 바꿔 둔다 )
+     */
+    private static class Matcher {
+        private final MemberSearchCondition condition;
+        private final byte[] username;
+        private final byte[] contains;
+        private final byte[] startsWith;
+        private final int ageGoe;
+        private final int ageLoe;
+
+        private Matcher(MemberSearchCondition condition){
+            this.condition = condition;
+            this.username = hasText(condition.getUsername()) ? utf8(condition.getUsername()) : null;
+            this.contains = hasText(condition.getUsernameContains()) ? utf8(condition.getUsernameContains()) : null;
+            this.startsWith = hasText(condition.getUsernameStartsWith()) ? utf8(condition.getUsernameStartsWith()) : null;
+            this.ageGoe = condition.getAgeGoe() != null ? condition.getAgeGoe() : Integer.MIN_VALUE;
+            this.ageLoe = condition.getAgeLoe() != null ? condition.getAgeLoe() : Integer.MAX_VALUE;
+        }
+
+        private static byte[] utf8(String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        //팀 이름 조건을 team id 목록으로 ( 조건이 없으면 null )
+        private long[] teamIds(State s) {
+            if(!hasText(condition.getTeamName())){
+                return null;
+            }
+            return s.teamNames.entrySet().stream()
+                    .filter(e -> condition.getTeamName().equals(e.getValue()))
+                    .mapToLong(Map.Entry::getKey)
+                    .toArray();
+        }
+
+        private boolean age(int age) {
+            return age >= ageGoe && age <= ageLoe;
+        }
+
+        private boolean team(long teamId, long[] teamIds) {
+            if(teamIds == null){
+                return true;
+            }
+            for (long id : teamIds) {
+                if(id == teamId){
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean username(Base base, int offset) {
+            return (username == null || base.stringEquals(offset, username))
+                    && (startsWith == null || base.stringStartsWith(offset, startsWith))
+                    && (contains == null || base.stringContains(offset, contains));
+        }
+
+        private boolean username(String value) {
+            return (!hasText(condition.getUsername()) || condition.getUsername().equals(value))
+                    && (!hasText(condition.getUsernameStartsWith()) || (value != null && value.startsWith(condition.getUsernameStartsWith())))
+                    && (!hasText(condition.getUsernameContains()) || (value != null && value.contains(condition.getUsernameContains())));
+        }
+    }
+
+    @Getter
+    public static class Stats {
+        private final boolean loaded;
+        private final boolean caughtUp;
+        private final int snapshotCount;
+        private final int overlayCount;
+        private final Instant createdAt;
+
+        public Stats(boolean loaded, boolean caughtUp, int snapshotCount, int overlayCount, Instant createdAt){
+            this.loaded = loaded;
+            this.caughtUp = caughtUp;
+            this.snapshotCount = snapshotCount;
+            this.overlayCount = overlayCount;
+            this.createdAt = createdAt;
+        }
+    }
+}
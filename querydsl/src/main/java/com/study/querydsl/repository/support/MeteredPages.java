@@ -0,0 +1,43 @@
+package com.study.querydsl.repository.support;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * PageableExecutionUtils.getPage + count 쿼리 생략 비율 측정
+ *
+ * 첫 페이지인데 content 가 pageSize 보다 적거나 마지막 페이지면 count 쿼리를 실행하지 않는다
+ * 실행 / 생략 횟수를 세고 , MetricsConfig 가 repository.page.count ( result = executed | skipped ) 로 등록
+ * ( CountCache 적중도 executed 로 센다 - count 값이 필요했던 경우 )
+ */
+public final class MeteredPages {
+
+    private static final LongAdder executed = new LongAdder();
+    private static final LongAdder skipped = new LongAdder();
+
+    private MeteredPages() {
+    }
+
+    public static <T> Page<T> getPage(List<T> content, Pageable pageable, LongSupplier totalSupplier) {
+        boolean[] counted = new boolean[1];
+        Page<T> page = PageableExecutionUtils.getPage(content, pageable, () -> {
+            counted[0] = true;
+            return totalSupplier.getAsLong();
+        });
+        (counted[0] ? executed : skipped).increment();
+        return page;
+    }
+
+    public static long executedCount() {
+        return executed.sum();
+    }
+
+    public static long skippedCount() {
+        return skipped.sum();
+    }
+}
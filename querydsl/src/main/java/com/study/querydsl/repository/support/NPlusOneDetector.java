@@ -0,0 +1,273 @@
+package com.study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * N+1 지연 로딩 감지
+ *
+ * member.getTeam().getName() 처럼 조회 결과를 돌면서 프록시 / 지연 컬렉션을 초기화하면 row 마다 쿼리가 나간다
+ * Hibernate 이벤트 ( 프록시 초기화 = LoadEvent IMMEDIATE_LOAD , 컬렉션 초기화 = InitializeCollectionEvent ) 를
+ * 요청 ( beginScope / endScope ) 또는 트랜잭션 단위로 세서 같은 대상이 threshold 번 넘게 초기화되면 리포트
+ *
+ *  - sample-rate 비율의 요청 / 트랜잭션만 센다 ( 나머지는 ThreadLocal 조회 한번 )
+ *  - 호출 위치는 threshold 를 넘는 순간 한번만 스택을 본다 ( StackWalker )
+ *  - 레포지토리 메서드는 범위 안에서 마지막으로 호출된 레포지토리 메서드 ( 결과를 돌면서 초기화하는 경우가 대부분 )
+ *  - suggest=true 면 fetch join / batch size 제안을 같이 남긴다
+ *  - 2차 캐시에서 찾아 SQL 이 안나가도 초기화 횟수로는 센다
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class NPlusOneDetector implements LoadEventListener, InitializeCollectionEventListener {
+
+    private static final int MAX_REPORTS = 100;
+
+    private static final ThreadLocal<Scope> requestScope = new ThreadLocal<>();
+
+    private final EntityManagerFactory emf;
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final double sampleRate;
+    private final int threshold;
+    private final boolean suggest;
+
+    //엔티티 이름 -> 그 엔티티를 가리키는 to-one 연관관계 ( Team -> Member.team )
+    private final Map<String, List<String>> toOneAssociations = new HashMap<>();
+    private final Deque<Report> reports = new ArrayDeque<>();
+
+    public NPlusOneDetector(EntityManagerFactory emf, MeterRegistry registry,
+                            @Value("${member.n-plus-one.enabled:true}") boolean enabled,
+                            @Value("${member.n-plus-one.sample-rate:0.1}") double sampleRate,
+                            @Value("${member.n-plus-one.threshold:10}") int threshold,
+                            @Value("${member.n-plus-one.suggest:true}") boolean suggest){
+        this.emf = emf;
+        this.registry = registry;
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.threshold = threshold;
+        this.suggest = suggest;
+    }
+
+    @PostConstruct
+    public void register(){
+        for (EntityType<?> entity : emf.getMetamodel().getEntities()) {
+            for (Attribute<?, ?> attribute : entity.getAttributes()) {
+                if(attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.MANY_TO_ONE
+                        || attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.ONE_TO_ONE){
+                    toOneAssociations.computeIfAbsent(attribute.getJavaType().getName(), key -> new ArrayList<>())
+                            .add(entity.getName() + "." + attribute.getName());
+                }
+            }
+        }
+        if(!enabled){
+            return;
+        }
+        EventListenerRegistry listeners = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.LOAD, this);
+        listeners.appendListeners(EventType.INIT_COLLECTION, this);
+    }
+
+    /**
+     * 요청 단위 감지 시작 ( NPlusOneInterceptor )
+     */
+    public void beginScope(String name){
+        if(enabled){
+            requestScope.set(newScope(name));
+        }
+    }
+
+    public void endScope(){
+        requestScope.remove();
+    }
+
+    //범위 안에서 마지막으로 호출된 레포지토리 메서드 기록
+    @Around("(within(com.study.querydsl.repository..*) && !within(com.study.querydsl.repository.support..*))"
+            + " || execution(* com.study.querydsl.repository.MemberRepository.*(..))")
+    public Object trackRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        Scope scope = currentScope();
+        if(scope != null && scope.sampled){
+            scope.repositoryMethod = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                    + "." + joinPoint.getSignature().getName();
+        }
+        return joinPoint.proceed();
+    }
+
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+        //프록시 초기화만 ( em.find 등 직접 조회는 제외 )
+        if(loadType == LoadEventListener.IMMEDIATE_LOAD){
+            lazyLoaded(event.getEntityClassName(), false);
+        }
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+        lazyLoaded(event.getCollection().getRole(), true);
+    }
+
+    private void lazyLoaded(String target, boolean collection) {
+        Scope scope = currentScope();
+        if(scope == null || !scope.sampled){
+            return;
+        }
+        int count = scope.counts.merge(target, 1, Integer::sum);
+        if(count == threshold + 1){
+            report(new Report(scope.name, simpleName(target), collection, count, callSite(),
+                    scope.repositoryMethod, suggest ? suggestion(target, collection) : null));
+        }
+    }
+
+    //요청 범위가 없으면 트랜잭션에 묶인 범위 ( 없으면 새로 만든다 )
+    private Scope currentScope() {
+        Scope scope = requestScope.get();
+        if(scope != null || !enabled || !TransactionSynchronizationManager.isSynchronizationActive()){
+            return scope;
+        }
+        scope = (Scope) TransactionSynchronizationManager.getResource(this);
+        if(scope == null){
+            Scope newScope = newScope("transaction");
+            TransactionSynchronizationManager.bindResource(this, newScope);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(NPlusOneDetector.this);
+                }
+            });
+            scope = newScope;
+        }
+        return scope;
+    }
+
+    private Scope newScope(String name) {
+        return new Scope(name, sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    //이 프로젝트 코드 중 Hibernate / 프록시 / 감지기 밖의 첫번째 프레임
+    private static String callSite() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith("com.study.querydsl")
+                        && !f.getClassName().startsWith(NPlusOneDetector.class.getName())
+                        && !f.getClassName().contains("$HibernateProxy")
+                        && !f.getClassName().contains("$$"))
+                .findFirst()
+                .map(f -> f.getClassName() + "." + f.getMethodName() + ":" + f.getLineNumber())
+                .orElse("unknown"));
+    }
+
+    private String suggestion(String target, boolean collection) {
+        //프로젝트 전역 batch size 로 쓰기 좋은 값 ( 2의 제곱 , 최대 1000 )
+        int batchSize = Math.min(1000, Integer.highestOneBit(threshold) << 2);
+        if(collection){
+            String role = simpleName(target);
+            return "컬렉션 " + role + " 를 쓰는 조회라면 fetch join ( 페이징이면 불가 ) 또는 "
+                    + role + " 에 @BatchSize(size = " + batchSize + ") / hibernate.default_batch_fetch_size=" + batchSize;
+        }
+        List<String> associations = toOneAssociations.getOrDefault(target, List.of());
+        String joins = associations.stream()
+                .map(a -> ".leftJoin(" + uncapitalize(a) + ", " + uncapitalize(simpleName(target)) + ").fetchJoin()")
+                .collect(Collectors.joining(" 또는 "));
+        return (joins.isEmpty() ? "fetch join" : joins) + " , 또는 " + simpleName(target)
+                + " 에 @BatchSize(size = " + batchSize + ") / hibernate.default_batch_fetch_size=" + batchSize;
+    }
+
+    private synchronized void report(Report report) {
+        log.warn("N+1 의심 [{}] {} {}회 초기화 - 호출 위치 {} , 레포지토리 {}{}", report.getScope(), report.getTarget(),
+                report.getCount(), report.getCallSite(), report.getRepositoryMethod(),
+                report.getSuggestion() != null ? " , 제안: " + report.getSuggestion() : "");
+        registry.counter("jpa.n_plus_one.detected", "target", report.getTarget()).increment();
+        if(reports.size() >= MAX_REPORTS){
+            reports.removeFirst();
+        }
+        reports.addLast(report);
+    }
+
+    /**
+     * 최근 리포트 ( 최대 100개 )
+     */
+    public synchronized List<Report> reports(){
+        return new ArrayList<>(reports);
+    }
+
+    //com.study.querydsl.entity.Team.members -> Team.members ( 패키지 제거 )
+    private static String simpleName(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if(Character.isUpperCase(name.charAt(i)) && (i == 0 || name.charAt(i - 1) == '.')){
+                return name.substring(i);
+            }
+        }
+        return name;
+    }
+
+    //Member.team -> member.team ( Q 클래스 기본 별칭 )
+    private static String uncapitalize(String name) {
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static class Scope {
+        private final String name;
+        private final boolean sampled;
+        private final Map<String, Integer> counts = new HashMap<>();
+        private String repositoryMethod;
+
+        private Scope(String name, boolean sampled){
+            this.name = name;
+            this.sampled = sampled;
+        }
+    }
+
+    @Getter
+    public static class Report {
+        private final String scope;
+        private final String target;
+        private final boolean collection;
+        private final int count;
+        private final String callSite;
+        private final String repositoryMethod;
+        private final String suggestion;
+
+        public Report(String scope, String target, boolean collection, int count, String callSite,
+                      String repositoryMethod, String suggestion){
+            this.scope = scope;
+            this.target = target;
+            this.collection = collection;
+            this.count = count;
+            this.callSite = callSite;
+            this.repositoryMethod = repositoryMethod;
+            this.suggestion = suggestion;
+        }
+    }
+}
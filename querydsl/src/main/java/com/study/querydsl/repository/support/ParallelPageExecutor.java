@@ -0,0 +1,174 @@
+package com.study.querydsl.repository.support;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * 페이징 content 쿼리와 count 쿼리를 동시에 실행 ( member.search.parallel-count.enabled=true 일때만 )
+ *
+ * 원래는 content -> count 순서로 같은 스레드에서 실행해서 응답시간 = 두 쿼리의 합
+ * 각각 별도 읽기 전용 EntityManager ( = 별도 커넥션 ) 로 content 는 호출 스레드, count 는 풀 스레드에서 실행
+ *
+ * 주의
+ *  - 페이지 하나에 커넥션 2개를 쓴다 -> count 용 커넥션도 DatabaseConcurrencyLimiter 허가를 얻고 쓴다
+ *    허가가 없으면 기다리지 않고 content -> count 순서로 커넥션 하나에서 실행
+ *  - 별도 커넥션이라 현재 트랜잭션의 커밋 안된 변경은 안보인다 -> 트랜잭션 안에서는 기존처럼 순서대로 실행
+ *  - 조회한 엔티티는 준영속 상태로 반환된다 ( 지연 로딩 불가 , DTO 조회에 적합 )
+ *  - count 는 content 보다 먼저 시작한다 . content 가 pageSize 보다 적어 count 가 필요 없으면 ( 첫 / 마지막 페이지 )
+ *    아직 시작 안한 count 는 취소 , 실행 중인 count 는 JDBC Statement.cancel 로 DB 에서도 멈춘다
+ */
+@Slf4j
+@Component
+public class ParallelPageExecutor {
+
+    private final EntityManagerFactory emf;
+    private final DatabaseConcurrencyLimiter limiter;
+    private final boolean enabled;
+    private final ThreadPoolExecutor executor;
+
+    public ParallelPageExecutor(EntityManagerFactory emf, DatabaseConcurrencyLimiter limiter,
+                                @Value("${member.search.parallel-count.enabled:false}") boolean enabled,
+                                @Value("${member.search.parallel-count.pool-size:8}") int poolSize,
+                                @Value("${member.search.parallel-count.queue-size:100}") int queueSize){
+        this.emf = emf;
+        this.limiter = limiter;
+        this.enabled = enabled;
+        AtomicInteger sequence = new AtomicInteger();
+        //큐가 가득 차면 호출 스레드에서 실행 ( = 기존처럼 순서대로 )
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "page-count-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 병렬 실행을 쓸 수 있는지 ( 설정이 켜져 있고 , 진행중인 트랜잭션이 없을때 )
+     */
+    public boolean isAvailable(){
+        return enabled && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    public <T> Page<T> getPage(Pageable pageable, Function<EntityManager, List<T>> contentQuery,
+                               ToLongFunction<EntityManager> countQuery){
+        DatabaseConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if(permit == null){
+            return withReadOnlyEntityManager(em -> MeteredPages.getPage(contentQuery.apply(em), pageable,
+                    () -> countQuery.applyAsLong(em)));
+        }
+        //count 를 실행 중인 세션 ( 취소할 때 Statement.cancel )
+        AtomicReference<Session> countSession = new AtomicReference<>();
+        //허가 반납은 count 를 실행한 쪽 , 시작 전에 취소됐으면 취소한 쪽이 한번만
+        AtomicBoolean claimed = new AtomicBoolean();
+        CompletableFuture<Long> count = CompletableFuture.supplyAsync(() -> {
+            if(!claimed.compareAndSet(false, true)){
+                return 0L;
+            }
+            try {
+                return withReadOnlyEntityManager(em -> {
+                    countSession.set(em.unwrap(Session.class));
+                    try {
+                        return countQuery.applyAsLong(em);
+                    } finally {
+                        countSession.set(null);
+                    }
+                });
+            } finally {
+                permit.release();
+            }
+        }, executor);
+        Runnable cancel = () -> {
+            cancel(count, countSession);
+            if(claimed.compareAndSet(false, true)){
+                permit.release();
+            }
+        };
+
+        List<T> content;
+        try {
+            content = withReadOnlyEntityManager(contentQuery);
+        } catch (RuntimeException e) {
+            cancel.run();
+            throw e;
+        }
+        boolean[] counted = new boolean[1];
+        Page<T> page = MeteredPages.getPage(content, pageable, () -> {
+            counted[0] = true;
+            return join(count);
+        });
+        //PageableExecutionUtils 가 count 를 생략했다 ( 첫 페이지 / 마지막 페이지 )
+        if(!counted[0]){
+            cancel.run();
+        }
+        return page;
+    }
+
+    private static void cancel(CompletableFuture<Long> count, AtomicReference<Session> countSession) {
+        //아직 풀에서 시작 안했으면 실행되지 않는다
+        count.cancel(false);
+        Session session = countSession.get();
+        if(session == null){
+            return;
+        }
+        try {
+            //실행 중인 count 쿼리의 JDBC Statement.cancel ( 다른 스레드에서 호출 가능 )
+            session.cancelQuery();
+        } catch (RuntimeException e) {
+            //그 사이 count 가 끝났거나 세션이 닫혔다
+            log.debug("count 쿼리 취소 실패", e);
+        }
+    }
+
+    private <R> R withReadOnlyEntityManager(Function<EntityManager, R> work) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Session session = em.unwrap(Session.class);
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            return work.apply(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    private static long join(CompletableFuture<Long> count) {
+        try {
+            return count.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException){
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        executor.shutdown();
+    }
+}
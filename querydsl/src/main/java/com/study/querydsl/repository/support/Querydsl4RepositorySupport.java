@@ -6,13 +6,17 @@ package com.study.querydsl.repository.support;
  *  장점
  *  스프링 데이터가 제공하는 페이징을 편리하게 변환
  *  페이징과 카운트 쿼리 분리 가능
+ *  카운트 쿼리를 따로 안만들면 content 쿼리에서 자동으로 만든다 ( 불필요한 left join 제거 )
  *  스프링 데이터 Sort 지원
  *  select() , selectFrom() 으로 시작 가능
+ *  content / count 쿼리를 분리하면 설정에 따라 동시에 실행 ( ParallelPageExecutor )
+ *  DTO 조회는 같은 쿼리 + 같은 pageable 이 동시에 들어오면 한번만 실행 ( SingleFlight )
  *  EntityManager , QueryFactory 제공
  */
 
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
 import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
@@ -27,12 +31,13 @@ import
 import org.springframework.data.jpa.repository.support.Querydsl;
 import org.springframework.data.querydsl.SimpleEntityPathResolver;
 
-import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
 
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 /**
  * Querydsl 4.x 버전에 맞춘 Querydsl 지원 라이브러리
  *
@@ -46,6 +51,9 @@ public abstract class Querydsl4RepositorySupport {
     private Querydsl querydsl;
     private EntityManager entityManager;
     private JPAQueryFactory queryFactory;
+    private CountCache countCache;
+    private ParallelPageExecutor parallelPageExecutor;
+    private SingleFlight singleFlight;
     public Querydsl4RepositorySupport(Class<?> domainClass) {
         Assert.notNull(domainClass, "Domain class must not be null!");
         this.domainClass = domainClass;
@@ -62,11 +70,26 @@ public abstract class Querydsl4RepositorySupport {
                 PathBuilder<>(path.getType(), path.getMetadata()));
         this.queryFactory = new JPAQueryFactory(entityManager);
     }
+    @Autowired
+    public void setCountCache(CountCache countCache) {
+        this.countCache = countCache;
+    }
+    @Autowired
+    public void setParallelPageExecutor(ParallelPageExecutor parallelPageExecutor) {
+        this.parallelPageExecutor = parallelPageExecutor;
+    }
+    @Autowired
+    public void setSingleFlight(SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+    }
     @PostConstruct
     public void validate() {
         Assert.notNull(entityManager, "EntityManager must not be null!");
         Assert.notNull(querydsl, "Querydsl must not be null!");
         Assert.notNull(queryFactory, "QueryFactory must not be null!");
+        Assert.notNull(countCache, "CountCache must not be null!");
+        Assert.notNull(parallelPageExecutor, "ParallelPageExecutor must not be null!");
+        Assert.notNull(singleFlight, "SingleFlight must not be null!");
     }
     protected JPAQueryFactory getQueryFactory() {
         return queryFactory;
@@ -77,6 +100,13 @@ public abstract class Querydsl4RepositorySupport {
     protected EntityManager getEntityManager() {
         return entityManager;
     }
+    /**
+     * content 쿼리에서 count 쿼리를 자동으로 만들어 실행
+     * order by , projection , 조건에 안쓰이는 left join 을 제거 ( CountQueries 참고 )
+     */
+    protected long fetchCount(JPAQuery<?> contentQuery) {
+        return CountQueries.fetchCount(getEntityManager(), contentQuery);
+    }
     protected <T> JPAQuery<T> select(Expression<T> expr) {
         return getQueryFactory().select(expr);
     }
@@ -86,19 +116,99 @@ public abstract class Querydsl4RepositorySupport {
     protected <T> Page<T> applyPagination(Pageable pageable,
                                           Function<JPAQueryFactory, JPAQuery> contentQuery) {
         JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
-        List<T> content = getQuerydsl().applyPagination(pageable,
-                jpaQuery).fetch();
-        return PageableExecutionUtils.getPage(content, pageable,
-                jpaQuery::fetchCount);
+        return coalesce(pageable, jpaQuery, null, () -> {
+            List<T> content = getQuerydsl().applyPagination(pageable,
+                    jpaQuery).fetch();
+            return MeteredPages.getPage(content, pageable,
+                    () -> fetchCount(jpaQuery));
+        });
     }
     protected <T> Page<T> applyPagination(Pageable pageable,
                                           Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory,
             JPAQuery> countQuery) {
         JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
-        List<T> content = getQuerydsl().applyPagination(pageable,
-                jpaContentQuery).fetch();
         JPAQuery countResult = countQuery.apply(getQueryFactory());
-        return PageableExecutionUtils.getPage(content, pageable,
-                countResult::fetchCount);
+        return coalesce(pageable, jpaContentQuery, countResult, () -> {
+            if (parallelPageExecutor.isAvailable()) {
+                return applyParallelPagination(pageable, contentQuery, countQuery, JPAQuery::fetchCount);
+            }
+            List<T> content = getQuerydsl().applyPagination(pageable,
+                    jpaContentQuery).fetch();
+            return MeteredPages.getPage(content, pageable,
+                    countResult::fetchCount);
+        });
+    }
+    /**
+     * count 결과를 CountCache 에 countCacheKey 로 캐시하는 버전
+     * countCacheKey 는 count 쿼리를 유일하게 구분해야 한다 ( CountCache.key(쿼리이름, 정규화된 조건) )
+     */
+    protected <T> Page<T> applyPagination(Pageable pageable, Object countCacheKey,
+                                          Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        return coalesce(pageable, jpaQuery, null, () -> {
+            List<T> content = getQuerydsl().applyPagination(pageable,
+                    jpaQuery).fetch();
+            return MeteredPages.getPage(content, pageable,
+                    () -> countCache.get(countCacheKey, () -> fetchCount(jpaQuery)));
+        });
+    }
+    protected <T> Page<T> applyPagination(Pageable pageable, Object countCacheKey,
+                                          Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory,
+            JPAQuery> countQuery) {
+        JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
+        JPAQuery countResult = countQuery.apply(getQueryFactory());
+        return coalesce(pageable, jpaContentQuery, countResult, () -> {
+            if (parallelPageExecutor.isAvailable()) {
+                return applyParallelPagination(pageable, contentQuery, countQuery,
+                        parallelCount -> countCache.get(countCacheKey, parallelCount::fetchCount));
+            }
+            List<T> content = getQuerydsl().applyPagination(pageable,
+                    jpaContentQuery).fetch();
+            return MeteredPages.getPage(content, pageable,
+                    () -> countCache.get(countCacheKey, countResult::fetchCount));
+        });
+    }
+    /**
+     * 같은 content / count 쿼리 + 같은 pageable 이 동시에 실행 중이면 그 결과를 같이 쓴다 ( SingleFlight )
+     * key 는 실행 전 쿼리 메타데이터 복사본 ( select / join / where 식과 파라미터 값 ) -> 조건이 같으면 같은 key
+     * 엔티티 조회는 호출마다 실행 ( 엔티티는 실행한 쪽 영속성 컨텍스트 소속이라 나눠 쓸 수 없다 )
+     * select(member, team) 같은 Tuple / Projections 안의 엔티티도 포함
+     */
+    private <T> Page<T> coalesce(Pageable pageable, JPAQuery<?> contentQuery, JPAQuery<?> countQuery,
+                                 Supplier<Page<T>> page) {
+        Expression<?> projection = contentQuery.getMetadata().getProjection();
+        if (projection == null || selectsEntity(projection)) {
+            return page.get();
+        }
+        Object key = countQuery != null
+                ? List.of(contentQuery.getMetadata().clone(), countQuery.getMetadata().clone(), pageable)
+                : List.of(contentQuery.getMetadata().clone(), pageable);
+        return singleFlight.execute(key, page);
+    }
+    static boolean selectsEntity(Expression<?> expression) {
+        if (expression instanceof EntityPath) {
+            return true;
+        }
+        if (expression instanceof FactoryExpression) {
+            for (Expression<?> arg : ((FactoryExpression<?>) expression).getArgs()) {
+                if (selectsEntity(arg)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    /**
+     * content / count 를 각각 별도 읽기 전용 EntityManager 로 동시에 실행
+     * 조회한 엔티티는 준영속 상태 ( 지연 로딩 불가 )
+     */
+    private <T> Page<T> applyParallelPagination(Pageable pageable,
+                                                Function<JPAQueryFactory, JPAQuery> contentQuery,
+                                                Function<JPAQueryFactory, JPAQuery> countQuery,
+                                                ToLongFunction<JPAQuery> count) {
+        return parallelPageExecutor.getPage(pageable,
+                readOnlyEm -> getQuerydsl().applyPagination(pageable,
+                        contentQuery.apply(new JPAQueryFactory(readOnlyEm))).fetch(),
+                readOnlyEm -> count.applyAsLong(countQuery.apply(new JPAQueryFactory(readOnlyEm))));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+package com.study.querydsl.repository.support;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 레포지토리 메서드별 실행 시간 / 조회 row 수 ( Micrometer )
+ *
+ *  - repository.query : 실행 시간 히스토그램 ( repository , method , shape )
+ *  - repository.rows  : 반환 row 수 ( repository , method )
+ *
+ * shape 는 MemberSearchCondition 에서 값이 있는 조건 조합 ( username+teamName , none ... 최대 64가지 )
+ * DatabaseConcurrencyLimiter 안쪽에서 재기 때문에 대기 시간은 빠진다
+ * Stream 반환 메서드는 Stream 을 만드는 시간만 잰다
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RepositoryMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<List<String>, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<List<String>, DistributionSummary> rows = new ConcurrentHashMap<>();
+
+    public RepositoryMetrics(MeterRegistry registry){
+        this.registry = registry;
+    }
+
+    @Around("(within(com.study.querydsl.repository..*) && !within(com.study.querydsl.repository.support..*))"
+            + " || execution(* com.study.querydsl.repository.MemberRepository.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        Timer timer = timers.computeIfAbsent(List.of(repository, method, shape(joinPoint.getArgs())),
+                key -> Timer.builder("repository.query")
+                        .description("레포지토리 메서드 실행 시간")
+                        .tags("repository", key.get(0), "method", key.get(1), "shape", key.get(2))
+                        .publishPercentileHistogram()
+                        .register(registry));
+
+        Timer.Sample sample = Timer.start(registry);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } finally {
+            sample.stop(timer);
+        }
+
+        long count = ((MethodSignature) joinPoint.getSignature()).getReturnType() == void.class ? -1 : rowCount(result);
+        if(count >= 0){
+            rows.computeIfAbsent(List.of(repository, method),
+                    key -> DistributionSummary.builder("repository.rows")
+                            .description("레포지토리 메서드가 반환한 row 수")
+                            .baseUnit("rows")
+                            .tags("repository", key.get(0), "method", key.get(1))
+                            .register(registry))
+                    .record(count);
+        }
+        return result;
+    }
+
+    //조건 객체가 없는 메서드는 "-"
+    private static String shape(Object[] args) {
+        for (Object arg : args) {
+            if(arg instanceof MemberSearchCondition){
+                MemberSearchCondition condition = (MemberSearchCondition) arg;
+                StringBuilder shape = new StringBuilder();
+                append(shape, hasText(condition.getUsername()), "username");
+                append(shape, hasText(condition.getTeamName()), "teamName");
+                append(shape, condition.getAgeGoe() != null, "ageGoe");
+                append(shape, condition.getAgeLoe() != null, "ageLoe");
+                append(shape, hasText(condition.getUsernameContains()), "usernameContains");
+                append(shape, hasText(condition.getUsernameStartsWith()), "usernameStartsWith");
+                return shape.length() == 0 ? "none" : shape.toString();
+            }
+        }
+        return "-";
+    }
+
+    private static void append(StringBuilder shape, boolean present, String name) {
+        if(present){
+            shape.append(shape.length() == 0 ? "" : "+").append(name);
+        }
+    }
+
+    //-1 이면 기록하지 않는다 ( void , Stream 등 )
+    private static long rowCount(Object result) {
+        if(result == null){
+            return 0;
+        }
+        if(result instanceof Collection){
+            return ((Collection<?>) result).size();
+        }
+        if(result instanceof Slice){
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if(result instanceof Optional){
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if(result instanceof Stream<?> || result instanceof Number || result instanceof Boolean){
+            return -1;
+        }
+        return 1;
+    }
+}
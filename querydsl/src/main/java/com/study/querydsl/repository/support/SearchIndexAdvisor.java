@@ -0,0 +1,156 @@
+package com.study.querydsl.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 기동시 검색 조건 조합 ( shape ) 별로 받쳐주는 인덱스가 있는지 확인 ( 없으면 warn )
+ *
+ * shape 이름은 RepositoryMetrics 의 shape 태그와 같다 ( username+ageGoe , teamName+ageGoe+ageLoe ... )
+ * 인덱스는 DB 메타데이터에서 읽는다 ( 마이그레이션을 빠뜨렸거나 DB 에서 직접 지운 경우도 잡힌다 )
+ *
+ *  - 같음 조건 ( username , teamName -> team_id ) 컬럼이 앞에 , 범위 조건 ( age , startsWith ) 컬럼이 그 다음인 인덱스 = 충분
+ *  - 첫 컬럼만 맞는 인덱스 = 일부 ( info )
+ *  - 첫 컬럼이 맞는 인덱스가 없음 = warn
+ *  - usernameContains ( like '%x%' ) 는 어떤 인덱스로도 안된다 -> UsernameIndex 가 맡는다 ( 확인 대상 아님 )
+ */
+@Slf4j
+@Component
+public class SearchIndexAdvisor {
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final List<String> shapes;
+
+    public SearchIndexAdvisor(DataSource dataSource,
+                              @Value("${member.index-check.enabled:true}") boolean enabled,
+                              @Value("${member.index-check.shapes:username,teamName,ageGoe+ageLoe,username+ageGoe+ageLoe,teamName+ageGoe+ageLoe}") List<String> shapes){
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.shapes = shapes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check(){
+        if(!enabled){
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            List<List<String>> memberIndexes = indexes(metaData, "member");
+            List<List<String>> teamIndexes = indexes(metaData, "team");
+            for (String shape : shapes) {
+                check(shape.trim(), memberIndexes, teamIndexes);
+            }
+        } catch (SQLException e) {
+            log.warn("인덱스 확인 실패", e);
+        }
+    }
+
+    //shape 하나 확인
+    private void check(String shape, List<List<String>> memberIndexes, List<List<String>> teamIndexes) {
+        Set<String> conditions = new LinkedHashSet<>(List.of(shape.split("\\+")));
+
+        //member 컬럼 : 같음 조건 먼저 , 범위 조건 하나
+        Set<String> equality = new LinkedHashSet<>();
+        String range = null;
+        if(conditions.contains("username")){
+            equality.add("username");
+        }
+        if(conditions.contains("teamName")){
+            equality.add("team_id");
+            if(!hasLeading(teamIndexes, "name")){
+                log.warn("검색 조건 [{}] - team.name 인덱스가 없습니다 ( teamNameEq 가 team 전체를 읽는다 )", shape);
+            }
+        }
+        if(conditions.contains("usernameStartsWith") && equality.isEmpty()){
+            range = "username";
+        } else if(conditions.contains("ageGoe") || conditions.contains("ageLoe")){
+            range = "age";
+        }
+        if(equality.isEmpty() && range == null){
+            return;
+        }
+
+        List<String> wanted = new ArrayList<>(equality);
+        if(range != null && !wanted.contains(range)){
+            wanted.add(range);
+        }
+        for (List<String> index : memberIndexes) {
+            if(supports(index, equality, range)){
+                log.debug("검색 조건 [{}] - 인덱스 {}", shape, index);
+                return;
+            }
+        }
+        for (List<String> index : memberIndexes) {
+            if(wanted.contains(index.get(0))){
+                log.info("검색 조건 [{}] - 인덱스 {} 는 일부 조건만 사용 ( 권장 : member({}) )", shape, index, String.join(", ", wanted));
+                return;
+            }
+        }
+        log.warn("검색 조건 [{}] 를 받쳐주는 인덱스가 없습니다 - member 전체를 읽는다 ( 권장 : member({}) )",
+                shape, String.join(", ", wanted));
+    }
+
+    //앞쪽 컬럼이 같음 조건 컬럼들 ( 순서 무관 ) + 그 다음이 범위 조건 ( 같음 조건이 없으면 첫 컬럼 )
+    static boolean supports(List<String> index, Set<String> equality, String range) {
+        int size = range != null ? equality.size() + 1 : equality.size();
+        if(index.size() < size){
+            return false;
+        }
+        for (int i = 0; i < equality.size(); i++) {
+            if(!equality.contains(index.get(i))){
+                return false;
+            }
+        }
+        return range == null || index.get(equality.size()).equals(range);
+    }
+
+    private static boolean hasLeading(List<List<String>> indexes, String column) {
+        for (List<String> index : indexes) {
+            if(index.get(0).equals(column)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //인덱스 이름 -> 컬럼 ( 순서대로 , 소문자 ) , pk 포함
+    private static List<List<String>> indexes(DatabaseMetaData metaData, String table) throws SQLException {
+        String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+        Map<String, Map<Short, String>> columns = new LinkedHashMap<>();
+        try (ResultSet rs = metaData.getIndexInfo(null, null, name, false, true)) {
+            while (rs.next()) {
+                String indexName = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if(indexName == null || column == null){
+                    continue;
+                }
+                columns.computeIfAbsent(indexName, key -> new TreeMap<>())
+                        .put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+            }
+        }
+        List<List<String>> result = new ArrayList<>();
+        for (Map<Short, String> index : columns.values()) {
+            result.add(new ArrayList<>(index.values()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,272 @@
+package com.study.querydsl.repository.support;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDto;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 회원 검색 ( search ) 결과 캐시
+ *
+ * 같은 검색 조건 조합이 계속 들어오고 데이터는 거의 안 바뀐다 -> 결과 List 를 메모리에 둔다
+ * key 는 ( 쿼리 이름 + 정규화된 검색 조건 ) , 항목마다 읽은 테이블 ( member , team ) 태그를 같이 둔다
+ *
+ *  - 크기 : max-entries 를 넘거나 추정 메모리 ( weight ) 합이 max-weight 를 넘으면 오래 안 쓴 것부터 버린다 ( LRU )
+ *  - 만료 : 항목마다 저장 시점 + ttl
+ *  - 무효화 : TableWriteEvent ( 엔티티 저장 + JPAQueryFactory 벌크 update / delete ) 의 테이블 태그가 붙은 항목만 버린다
+ *  - 쓰기 트랜잭션 안에서는 쓰지 않는다 ( 아직 커밋 안된 내 변경이 안 보이거나 , 남에게 보이게 된다 )
+ *
+ * 결과 DTO 는 꺼낼 때마다 복사한다 ( 호출한 쪽이 setter 로 바꿔도 캐시는 그대로 )
+ */
+@Component
+public class SearchResultCache {
+
+    private static final String[] TABLES = {"member", "team"};
+
+    //weight 추정 ( 64bit , compressed oops 기준 대략 )
+    private static final int ENTRY_OVERHEAD = 200;   //key / List / Entry / 맵 노드
+    private static final int ROW_OVERHEAD = 64;      //MemberTeamDto + Long 2개 + 참조
+    private static final int STRING_OVERHEAD = 40;   //String + byte[] 헤더
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final long maxWeight;
+
+    //accessOrder = true -> 앞쪽이 오래 안 쓴 항목
+    private final LinkedHashMap<Object, Entry> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    //테이블 -> 무효화 세대 ( 조회 중에 무효화 되었으면 저장하지 않는다 )
+    private final Map<String, LongAdder> generations = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bypasses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public SearchResultCache(@Value("${member.search-cache.enabled:true}") boolean enabled,
+                             @Value("${member.search-cache.ttl:PT1M}") Duration ttl,
+                             @Value("${member.search-cache.max-entries:1000}") int maxEntries,
+                             @Value("${member.search-cache.max-weight:64MB}") DataSize maxWeight){
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight.toBytes();
+        for (String table : TABLES) {
+            generations.put(table, new LongAdder());
+        }
+    }
+
+    /**
+     * 캐시에 있으면 복사본 , 없거나 만료되었으면 query 실행 후 저장
+     */
+    public List<MemberTeamDto> get(String query, MemberSearchCondition condition, Supplier<List<MemberTeamDto>> loader){
+        if(!enabled || !usable()){
+            bypasses.increment();
+            return loader.get();
+        }
+        Object key = List.of(query, condition.normalized());
+        long now = System.nanoTime();
+
+        synchronized (cache) {
+            Entry entry = cache.get(key);
+            if(entry != null){
+                if(entry.expiresAt - now > 0){
+                    hits.increment();
+                    return copy(entry.rows);
+                }
+                remove(key);
+                expirations.increment();
+            }
+        }
+        misses.increment();
+
+        long[] before = generations();
+        List<MemberTeamDto> rows = loader.get();
+        long rowsWeight = weigh(rows);
+        //혼자서 max-weight 를 넘는 결과는 저장하지 않는다 ( 다른 항목을 전부 밀어낸다 )
+        if(rowsWeight > maxWeight){
+            return rows;
+        }
+
+        synchronized (cache) {
+            //조회 중에 member / team 에 쓰기가 있었으면 옛날 값일 수 있다
+            if(!Arrays.equals(before, generations())){
+                return rows;
+            }
+            remove(key);
+            cache.put(key, new Entry(copy(rows), TABLES, now + ttlNanos, rowsWeight));
+            weight += rowsWeight;
+            evict();
+        }
+        return rows;
+    }
+
+    @EventListener
+    public void onTableWrite(TableWriteEvent event){
+        if(event.isFor(TABLES)){
+            invalidate(event.getTable());
+        }
+    }
+
+    /**
+     * table 태그가 붙은 항목만 버린다
+     */
+    public void invalidate(String table){
+        String tag = table.toLowerCase(Locale.ROOT);
+        LongAdder generation = generations.get(tag);
+        if(generation == null){
+            return;
+        }
+        generation.increment();
+        synchronized (cache) {
+            Iterator<Map.Entry<Object, Entry>> it = cache.entrySet().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next().getValue();
+                if(entry.tables.contains(tag)){
+                    weight -= entry.weight;
+                    it.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    public void invalidateAll(){
+        for (String table : TABLES) {
+            invalidate(table);
+        }
+    }
+
+    public Stats stats(){
+        int size;
+        long currentWeight;
+        synchronized (cache) {
+            size = cache.size();
+            currentWeight = weight;
+        }
+        return new Stats(enabled, hits.sum(), misses.sum(), bypasses.sum(), evictions.sum(), expirations.sum(),
+                invalidations.sum(), size, currentWeight, maxWeight);
+    }
+
+    //트랜잭션 밖이거나 읽기 전용 트랜잭션
+    private static boolean usable() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private long[] generations() {
+        long[] result = new long[TABLES.length];
+        for (int i = 0; i < TABLES.length; i++) {
+            result[i] = generations.get(TABLES[i]).sum();
+        }
+        return result;
+    }
+
+    //cache 락 안에서
+    private void remove(Object key) {
+        Entry removed = cache.remove(key);
+        if(removed != null){
+            weight -= removed.weight;
+        }
+    }
+
+    //cache 락 안에서 , 오래 안 쓴 항목부터
+    private void evict() {
+        Iterator<Entry> it = cache.values().iterator();
+        while ((cache.size() > maxEntries || weight > maxWeight) && it.hasNext()) {
+            Entry eldest = it.next();
+            weight -= eldest.weight;
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private static long weigh(List<MemberTeamDto> rows) {
+        long result = ENTRY_OVERHEAD;
+        for (MemberTeamDto row : rows) {
+            result += ROW_OVERHEAD + weigh(row.getUsername()) + weigh(row.getTeamName());
+        }
+        return result;
+    }
+
+    private static long weigh(String value) {
+        //Latin-1 은 글자당 1 byte , 아니면 2 byte ( compact strings ) -> 보수적으로 2
+        return value == null ? 0 : STRING_OVERHEAD + value.length() * 2L;
+    }
+
+    private static List<MemberTeamDto> copy(List<MemberTeamDto> rows) {
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (MemberTeamDto row : rows) {
+            result.add(new MemberTeamDto(row.getMemberId(), row.getUsername(), row.getAge(), row.getTeamId(), row.getTeamName()));
+        }
+        return result;
+    }
+
+    private static class Entry {
+        private final List<MemberTeamDto> rows;
+        private final Set<String> tables;
+        private final long expiresAt;
+        private final long weight;
+
+        private Entry(List<MemberTeamDto> rows, String[] tables, long expiresAt, long weight){
+            this.rows = rows;
+            this.tables = Set.of(tables);
+            this.expiresAt = expiresAt;
+            this.weight = weight;
+        }
+    }
+
+    @Getter
+    public static class Stats {
+        private final boolean enabled;
+        private final long hitCount;
+        private final long missCount;
+        private final long bypassCount;     //쓰기 트랜잭션 안이라 캐시를 안 거친 수
+        private final long evictionCount;   //max-entries / max-weight 초과로 밀려난 수
+        private final long expirationCount;
+        private final long invalidationCount;
+        private final int size;
+        private final long weightBytes;     //추정 메모리
+        private final long maxWeightBytes;
+
+        public Stats(boolean enabled, long hitCount, long missCount, long bypassCount, long evictionCount,
+                     long expirationCount, long invalidationCount, int size, long weightBytes, long maxWeightBytes){
+            this.enabled = enabled;
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.bypassCount = bypassCount;
+            this.evictionCount = evictionCount;
+            this.expirationCount = expirationCount;
+            this.invalidationCount = invalidationCount;
+            this.size = size;
+            this.weightBytes = weightBytes;
+            this.maxWeightBytes = maxWeightBytes;
+        }
+
+        public double getHitRatio(){
+            long total = hitCount + missCount;
+            return total == 0 ? 0 : (double) hitCount / total;
+        }
+    }
+}
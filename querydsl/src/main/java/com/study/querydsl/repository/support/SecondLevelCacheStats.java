@@ -0,0 +1,90 @@
+package com.study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.Getter;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 2차 캐시 region 별 통계
+ *
+ * hit / miss / put / 메모리 건수 : Hibernate Statistics ( generate_statistics )
+ * eviction ( 용량 초과로 밀려난 수 ) : JCache CacheStatistics MBean ( ehcache.xml enable-statistics )
+ *
+ * JPAQueryFactory 벌크 update / delete 는 Hibernate 가 실행 시점에 대상 엔티티 region ,
+ * 그 엔티티를 담는 컬렉션 region , 쿼리 캐시 timestamps 를 자동으로 무효화 한다
+ * Member 단건 저장 / 삭제 / 팀 변경은 auto_evict_collection_cache 가 해당 팀의 Team.members 만 비운다
+ */
+@Component
+public class SecondLevelCacheStats {
+
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+
+    private final Statistics statistics;
+
+    public SecondLevelCacheStats(EntityManagerFactory emf){
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public List<RegionStats> regions(){
+        List<RegionStats> result = new ArrayList<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = QUERY_RESULTS_REGION.equals(region)
+                    ? statistics.getQueryRegionStatistics(region)
+                    : statistics.getDomainDataRegionStatistics(region);
+            if(regionStatistics != null){
+                result.add(new RegionStats(region, regionStatistics, evictions(region)));
+            }
+        }
+        return result;
+    }
+
+    //MBean 이 없으면 -1
+    private static long evictions(String cacheName) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Set<ObjectName> names = server.queryNames(
+                    new ObjectName("javax.cache:type=CacheStatistics,CacheManager=*,Cache=" + cacheName), null);
+            long evictions = 0;
+            for (ObjectName name : names) {
+                evictions += ((Number) server.getAttribute(name, "CacheEvictions")).longValue();
+            }
+            return names.isEmpty() ? -1 : evictions;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    @Getter
+    public static class RegionStats {
+        private final String region;
+        private final long hitCount;
+        private final long missCount;
+        private final long putCount;
+        private final long elementCountInMemory;
+        private final long evictionCount;
+
+        private RegionStats(String region, CacheRegionStatistics statistics, long evictionCount){
+            this.region = region;
+            this.hitCount = statistics.getHitCount();
+            this.missCount = statistics.getMissCount();
+            this.putCount = statistics.getPutCount();
+            this.elementCountInMemory = statistics.getElementCountInMemory();
+            this.evictionCount = evictionCount;
+        }
+
+        public double getHitRatio(){
+            long total = hitCount + missCount;
+            return total == 0 ? 0 : (double) hitCount / total;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.study.querydsl.repository.support;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 같은 조회가 동시에 여러번 들어오면 한번만 실행하고 결과를 나눠 쓴다 ( single flight )
+ *
+ * 인기 검색 조건의 캐시가 만료되는 순간 같은 요청 수십개가 한꺼번에 DB 로 가는 것을 막는다
+ * 먼저 온 호출 ( leader ) 이 실행하고 , 실행 중에 같은 key 로 온 호출 ( follower ) 은 그 결과를 기다린다
+ * 실행이 끝나면 key 를 지운다 -> 결과를 저장하지는 않는다 ( 캐시가 아니다 )
+ *
+ *  - key 는 ( 쿼리 이름 + 정규화된 검색 조건 + pageable ) 처럼 결과를 유일하게 정하는 값
+ *  - 트랜잭션 밖이거나 읽기 전용 트랜잭션에서만 ( 쓰기 트랜잭션은 커밋 안된 자기 변경을 봐야 한다 )
+ *  - leader 가 예외로 끝나면 follower 도 같은 예외
+ *  - follower 는 timeout 까지만 기다리고 , 넘으면 직접 실행한다 ( leader 가 멈춰도 DatabaseConcurrencyLimiter 허가를 쥔 채 같이 멈추지 않는다 )
+ *  - 결과 객체는 follower 와 같이 쓴다 -> DTO 조회에만 사용 ( 엔티티는 leader 의 영속성 컨텍스트 소속 )
+ */
+@Component
+public class SingleFlight {
+
+    private final boolean enabled;
+    private final long timeoutNanos;
+    private final Map<Object, Flight> flights = new ConcurrentHashMap<>();
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+    private final LongAdder bypasses = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public SingleFlight(@Value("${member.single-flight.enabled:true}") boolean enabled,
+                        @Value("${member.single-flight.timeout:PT2S}") Duration timeout){
+        this.enabled = enabled;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    /**
+     * 같은 key 로 실행 중인 호출이 있으면 그 결과 , 없으면 call 실행
+     */
+    public <T> T execute(Object key, Supplier<T> call){
+        if(!enabled || !usable()){
+            bypasses.increment();
+            return call.get();
+        }
+
+        Flight flight = new Flight();
+        Flight running = flights.putIfAbsent(key, flight);
+        if(running != null){
+            //같은 스레드에서 같은 key 로 다시 들어온 경우 ( 기다리면 자기 자신을 기다린다 )
+            if(running.leader == Thread.currentThread()){
+                bypasses.increment();
+                return call.get();
+            }
+            shared.increment();
+            return await(running, call);
+        }
+
+        executions.increment();
+        try {
+            T result = call.get();
+            flight.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    public Stats stats(){
+        return new Stats(enabled, executions.sum(), shared.sum(), bypasses.sum(), timeouts.sum(), flights.size());
+    }
+
+    //트랜잭션 밖이거나 읽기 전용 트랜잭션
+    private static boolean usable() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    //leader 결과를 timeout 까지 기다리고 , 넘으면 직접 실행
+    @SuppressWarnings("unchecked")
+    private <T> T await(Flight flight, Supplier<T> call) {
+        try {
+            return (T) flight.result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            return call.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("같은 조회의 결과를 기다리다 인터럽트 되었습니다", e);
+        } catch (ExecutionException e) {
+            //leader 가 던진 예외 그대로
+            Throwable cause = e.getCause();
+            if(cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }
+            if(cause instanceof Error){
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static class Flight {
+        private final Thread leader = Thread.currentThread();
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+    }
+
+    @Getter
+    public static class Stats {
+        private final boolean enabled;
+        private final long executionCount;   //실제로 실행한 수 ( leader )
+        private final long sharedCount;      //다른 호출의 결과를 받은 수 ( follower )
+        private final long bypassCount;      //쓰기 트랜잭션 안이라 바로 실행한 수
+        private final long timeoutCount;     //기다리다 timeout 이 넘어서 직접 실행한 수 ( sharedCount 에도 포함 )
+        private final int inFlight;
+
+        public Stats(boolean enabled, long executionCount, long sharedCount, long bypassCount, long timeoutCount, int inFlight){
+            this.enabled = enabled;
+            this.executionCount = executionCount;
+            this.sharedCount = sharedCount;
+            this.bypassCount = bypassCount;
+            this.timeoutCount = timeoutCount;
+            this.inFlight = inFlight;
+        }
+
+        //같은 조회가 겹쳐서 아낀 비율
+        public double getSharedRatio(){
+            long total = executionCount + sharedCount;
+            return total == 0 ? 0 : (double) sharedCount / total;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.study.querydsl.repository.support;
+
+/**
+ * 현재 스레드에서 실행한 SQL 수 ( TableWriteInspector 가 SQL 마다 증가 )
+ * start() ~ stop() 사이만 센다 ( 요청 단위는 StatementCountInterceptor )
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<long[]> counter = new ThreadLocal<>();
+
+    private StatementCounter() {
+    }
+
+    public static void start() {
+        counter.set(new long[1]);
+    }
+
+    static void increment() {
+        long[] current = counter.get();
+        if (current != null) {
+            current[0]++;
+        }
+    }
+
+    /**
+     * start() 를 안했으면 -1
+     */
+    public static long stop() {
+        long[] current = counter.get();
+        counter.remove();
+        return current != null ? current[0] : -1;
+    }
+}
@@ -0,0 +1,33 @@
+package com.study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 테이블에 쓰기(insert / update / delete)가 발생했다는 이벤트
+ * 엔티티 저장(persist, 변경 감지)과 JPAQueryFactory 벌크 연산 모두 SQL 단계에서 잡아서 발행한다
+ *
+ * committed = false : 트랜잭션 안에서 SQL 이 실행된 시점
+ * committed = true  : 트랜잭션이 끝난 시점 ( 커밋/롤백 모두 )
+ */
+@Getter
+@ToString
+public class TableWriteEvent {
+
+    private final String table;
+    private final boolean committed;
+
+    public TableWriteEvent(String table, boolean committed){
+        this.table = table;
+        this.committed = committed;
+    }
+
+    public boolean isFor(String... tables){
+        for (String t : tables) {
+            if(t.equalsIgnoreCase(table)){
+                return true;
+            }
+        }
+        return false;
+    }
+}
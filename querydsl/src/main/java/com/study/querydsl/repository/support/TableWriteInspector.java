@@ -0,0 +1,94 @@
+package com.study.querydsl.repository.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hibernate 가 실행하는 모든 SQL 을 보고 쓰기 대상 테이블을 TableWriteEvent 로 발행한다
+ *
+ * 벌크 연산( queryFactory.update(member).execute() )은 영속성 컨텍스트를 거치지 않아서
+ * 엔티티 리스너로는 잡을 수 없다 -> SQL 레벨에서 잡는다
+ * 캐시는 이 이벤트를 받아서 무효화 한다 ( SQL 실행 시점 + 트랜잭션 종료 시점 두번 )
+ * 모든 SQL 을 거치므로 요청당 SQL 수도 여기서 센다 ( StatementCounter )
+ */
+public class TableWriteInspector implements StatementInspector {
+
+    private static final Pattern WRITE_SQL = Pattern.compile(
+            "^\\s*(?:insert\\s+into|update|delete\\s+from|delete|merge\\s+into)\\s+([\\w.\"]+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private final ApplicationEventPublisher publisher;
+
+    public TableWriteInspector(ApplicationEventPublisher publisher){
+        this.publisher = publisher;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        StatementCounter.increment();
+
+        //대부분은 select 이므로 정규식 전에 빠르게 거른다
+        char first = Character.toLowerCase(firstChar(sql));
+        if(first != 'i' && first != 'u' && first != 'd' && first != 'm'){
+            return sql;
+        }
+        Matcher matcher = WRITE_SQL.matcher(sql);
+        if(matcher.find()){
+            written(tableName(matcher.group(1)));
+        }
+        return sql;
+    }
+
+    private void written(String table) {
+        publisher.publishEvent(new TableWriteEvent(table, false));
+
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            publisher.publishEvent(new TableWriteEvent(table, true));
+            return;
+        }
+
+        //트랜잭션 종료시 한번 더 ( 롤백 되거나, 커밋 전 다른 스레드가 옛날 값을 다시 캐시했을 수 있다 )
+        @SuppressWarnings("unchecked")
+        Set<String> tables = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if(tables == null){
+            Set<String> newTables = new LinkedHashSet<>();
+            tables = newTables;
+            TransactionSynchronizationManager.bindResource(this, newTables);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TableWriteInspector.this);
+                    for (String t : newTables) {
+                        publisher.publishEvent(new TableWriteEvent(t, true));
+                    }
+                }
+            });
+        }
+        tables.add(table);
+    }
+
+    private static char firstChar(String sql) {
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if(!Character.isWhitespace(c)){
+                return c;
+            }
+        }
+        return ' ';
+    }
+
+    //schema.table , "table" -> table
+    private static String tableName(String raw) {
+        String name = raw.replace("\"", "");
+        int dot = name.lastIndexOf('.');
+        return (dot >= 0 ? name.substring(dot + 1) : name).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,237 @@
+package com.study.querydsl.repository.support;
+
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.MutationQuery;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * TeamStats 증분 갱신
+ *
+ * Member insert / delete / update( 팀 변경 , 나이 변경 ) 이벤트에서 팀별 변화량만 모아 두고
+ * 커밋 직전 ( BeforeTransactionCompletionProcess ) 에 팀마다 update 한번으로 반영한다
+ * -> 회원 변경과 통계 변경이 같은 트랜잭션 , 롤백되면 통계도 반영 안됨
+ *
+ *  - Team insert 시 0 으로 채운 통계 row 를 만들고 , Team delete 시 지운다
+ *  - 최소 / 최대 나이 이하 / 이상인 회원이 빠지면 dirty ( TeamStatsService 가 다시 계산 )
+ *  - 통계 row 가 없는 팀( 이 기능 전에 만든 팀 등 )이면 전체 재계산 요청
+ *  - 벌크 연산은 이벤트가 없다 -> MemberBulkEvent 로 TeamStatsService 가 처리
+ *  - team_stats row 는 team_id 오름차순으로 갱신 ( = 락 순서 , TeamStatsService.recompute 와 같다 -> 교착 없음 )
+ */
+@Component
+public class TeamStatsListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final Map<SharedSessionContractImplementor, Deltas> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean reconcileRequested = new AtomicBoolean();
+
+    public TeamStatsListener(EntityManagerFactory emf){
+        this.emf = emf;
+    }
+
+    @PostConstruct
+    public void register(){
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    /**
+     * 전체 재계산이 필요한지 ( 확인하면 초기화 )
+     */
+    public boolean consumeReconcileRequest(){
+        return reconcileRequested.getAndSet(false);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if(event.getEntity() instanceof Member){
+            Long teamId = teamId(event.getPersister(), event.getState());
+            if(teamId != null){
+                deltas(event.getSession()).team(teamId).add(age(event.getPersister(), event.getState()));
+            }
+        } else if(event.getEntity() instanceof Team){
+            deltas(event.getSession()).newTeams.add((Long) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if(!(event.getEntity() instanceof Member)){
+            return;
+        }
+        Object[] oldState = event.getOldState();
+        if(oldState == null){
+            //이전 값을 모르면 증분 불가
+            reconcileRequested.set(true);
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        Long oldTeamId = teamId(persister, oldState);
+        Long newTeamId = teamId(persister, event.getState());
+        int oldAge = age(persister, oldState);
+        int newAge = age(persister, event.getState());
+        if(Objects.equals(oldTeamId, newTeamId) && oldAge == newAge){
+            return;
+        }
+        Deltas deltas = deltas(event.getSession());
+        if(oldTeamId != null){
+            deltas.team(oldTeamId).remove(oldAge);
+        }
+        if(newTeamId != null){
+            deltas.team(newTeamId).add(newAge);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if(event.getEntity() instanceof Member){
+            Long teamId = teamId(event.getPersister(), event.getDeletedState());
+            if(teamId != null){
+                deltas(event.getSession()).team(teamId).remove(age(event.getPersister(), event.getDeletedState()));
+            }
+        } else if(event.getEntity() instanceof Team){
+            deltas(event.getSession()).deletedTeams.add((Long) event.getId());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    //세션( 트랜잭션 ) 별로 하나 , 처음 만들 때 커밋 직전 / 종료 후 처리 등록
+    private Deltas deltas(EventSource session) {
+        return pending.computeIfAbsent(session, key -> {
+            Deltas deltas = new Deltas();
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) deltas);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) deltas);
+            return deltas;
+        });
+    }
+
+    private static Long teamId(EntityPersister persister, Object[] state) {
+        Object team = state[persister.getEntityMetamodel().getPropertyIndex("team")];
+        //프록시여도 id 는 초기화 없이 가져온다
+        return team != null ? ((Team) team).getId() : null;
+    }
+
+    private static int age(EntityPersister persister, Object[] state) {
+        return (Integer) state[persister.getEntityMetamodel().getPropertyIndex("age")];
+    }
+
+    private static class TeamDelta {
+        private long count;
+        private long sum;
+        private Integer addedMin, addedMax, removedMin, removedMax;
+
+        private void add(int age) {
+            count++;
+            sum += age;
+            addedMin = addedMin == null ? age : Math.min(addedMin, age);
+            addedMax = addedMax == null ? age : Math.max(addedMax, age);
+        }
+
+        private void remove(int age) {
+            count--;
+            sum -= age;
+            removedMin = removedMin == null ? age : Math.min(removedMin, age);
+            removedMax = removedMax == null ? age : Math.max(removedMax, age);
+        }
+    }
+
+    private class Deltas implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+        private final Set<Long> newTeams = new LinkedHashSet<>();
+        private final Set<Long> deletedTeams = new TreeSet<>();
+        private final Map<Long, TeamDelta> teams = new TreeMap<>();
+
+        private TeamDelta team(Long teamId) {
+            return teams.computeIfAbsent(teamId, key -> new TeamDelta());
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            pending.remove(session);
+            for (Long teamId : newTeams) {
+                session.createNativeMutationQuery(
+                                "insert into team_stats (team_id, member_count, age_sum, dirty) values (:teamId, 0, 0, false)")
+                        .setParameter("teamId", teamId)
+                        .executeUpdate();
+            }
+            //갱신 / 삭제할 통계 row 를 team_id 오름차순으로
+            Set<Long> teamIds = new TreeSet<>(teams.keySet());
+            teamIds.addAll(deletedTeams);
+            for (Long teamId : teamIds) {
+                if(deletedTeams.contains(teamId)){
+                    session.createMutationQuery("delete from TeamStats s where s.teamId = :teamId")
+                            .setParameter("teamId", teamId)
+                            .executeUpdate();
+                } else if(apply(session, teamId, teams.get(teamId)) == 0){
+                    reconcileRequested.set(true);
+                }
+            }
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            //롤백이면 doBeforeTransactionCompletion 이 호출되지 않는다
+            pending.remove(session);
+        }
+
+        //set 절의 오른쪽은 모두 갱신 전 값 기준 ( dirty 판단도 이전 최소 / 최대로 )
+        private int apply(SessionImplementor session, Long teamId, TeamDelta delta) {
+            StringBuilder hql = new StringBuilder("update TeamStats s set ")
+                    .append("s.memberCount = s.memberCount + :count, s.ageSum = s.ageSum + :sum");
+            if(delta.addedMin != null){
+                hql.append(", s.minAge = case when s.minAge is null or :addedMin < s.minAge then :addedMin else s.minAge end")
+                        .append(", s.maxAge = case when s.maxAge is null or :addedMax > s.maxAge then :addedMax else s.maxAge end");
+            }
+            if(delta.removedMin != null){
+                hql.append(", s.dirty = case when s.minAge is null or :removedMin <= s.minAge or :removedMax >= s.maxAge")
+                        .append(" then true else s.dirty end");
+            }
+            hql.append(" where s.teamId = :teamId");
+
+            MutationQuery query = session.createMutationQuery(hql.toString())
+                    .setParameter("count", delta.count)
+                    .setParameter("sum", delta.sum)
+                    .setParameter("teamId", teamId);
+            if(delta.addedMin != null){
+                query.setParameter("addedMin", delta.addedMin).setParameter("addedMax", delta.addedMax);
+            }
+            if(delta.removedMin != null){
+                query.setParameter("removedMin", delta.removedMin).setParameter("removedMax", delta.removedMax);
+            }
+            return query.executeUpdate();
+        }
+    }
+}
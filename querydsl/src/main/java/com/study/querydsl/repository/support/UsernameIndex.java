@@ -0,0 +1,342 @@
+package com.study.querydsl.repository.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.study.querydsl.entity.QMember.member;
+
+/**
+ * Member.username 메모리 인덱스 ( contains / startsWith 후보 id )
+ *
+ * like '%x%' 는 인덱스를 못 타서 member 전체를 읽는다
+ * -> 메모리에 trigram( 3글자 ) -> 회원 id 목록 , username 정렬 맵을 두고 후보 id 만 구해서 member.id in (...) 로 좁힌다
+ *
+ *  - 기동시 ( ApplicationReady ) 전체 로딩 , 이후 커밋된 변경은 MemberChangeFeed 로 받아서 반영 ( 벌크 연산 포함 )
+ *  - 그 밖의 경로 ( 직접 실행한 SQL 등 ) 는 rebuild-interval 마다 전체 재로딩으로 보정
+ *  - 아직 커밋 안된 내 트랜잭션의 변경은 인덱스에 없다 -> 같은 세션에서 바뀐 회원은 항상 후보에 넣는다
+ *  - 후보는 "포함될 수 있는 id" 일 뿐 , 최종 판단은 같이 거는 like 조건 ( pk 로 찾은 row 만 검사 )
+ *
+ * 로딩 전이거나 후보가 max-candidates 보다 많으면 null -> like 조건만으로 조회 ( in 목록이 너무 길어지는 것보다 낫다 )
+ *
+ * 대소문자를 구분해서 비교한다 ( H2 기본 like 와 같다 )
+ * 대소문자를 무시하는 콜레이션 ( MySQL utf8mb4_general_ci 등 ) 에서는 like 로 찾을 회원이 후보에서 빠지므로 쓰면 안된다 ( enabled: false )
+ */
+@Slf4j
+@Component
+public class UsernameIndex {
+
+    private static final int GRAM = 3;
+
+    private final EntityManagerFactory emf;
+    private final MemberChangeFeed feed;
+    private final boolean enabled;
+    private final int maxCandidates;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Postings data;
+    //전체 로딩 중 커밋된 변경 ( 로딩 끝나면 새 인덱스에 다시 적용 )
+    private List<Map<Long, String>> recording;
+
+    public UsernameIndex(EntityManagerFactory emf, MemberChangeFeed feed,
+                         @Value("${member.username-index.enabled:true}") boolean enabled,
+                         @Value("${member.username-index.max-candidates:1000}") int maxCandidates){
+        this.emf = emf;
+        this.feed = feed;
+        this.enabled = enabled;
+        this.maxCandidates = maxCandidates;
+    }
+
+    @PostConstruct
+    public void register(){
+        if(!enabled){
+            return;
+        }
+        feed.subscribe(this::onCommitted);
+    }
+
+    /**
+     * username 에 text 가 들어있을 수 있는 회원 id , 사용할 수 없으면 null
+     */
+    public Collection<Long> contains(String text){
+        return candidates(text, false);
+    }
+
+    /**
+     * username 이 prefix 로 시작할 수 있는 회원 id , 사용할 수 없으면 null
+     */
+    public Collection<Long> startsWith(String prefix){
+        return candidates(prefix, true);
+    }
+
+    private Collection<Long> candidates(String text, boolean prefix) {
+        if(!enabled){
+            return null;
+        }
+        Set<Long> result;
+        lock.readLock().lock();
+        try {
+            if(data == null){
+                return null;
+            }
+            result = prefix ? data.startsWith(text, maxCandidates) : data.contains(text, maxCandidates);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if(result == null){
+            return null;
+        }
+        //내 트랜잭션에서 바뀐 회원 ( 커밋 전이라 인덱스에 없다 )
+        result.addAll(feed.uncommittedMemberIds());
+        return result.size() > maxCandidates ? null : result;
+    }
+
+    /**
+     * DB 에서 전체를 다시 읽어 인덱스를 새로 만든다
+     * 읽는 동안 커밋된 변경은 기록해 뒀다가 새 인덱스에 다시 적용
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${member.username-index.rebuild-interval:PT10M}",
+            initialDelayString = "${member.username-index.rebuild-interval:PT10M}")
+    public void rebuild(){
+        if(!enabled){
+            return;
+        }
+        List<Map<Long, String>> recorded = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            recording = recorded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.nanoTime();
+        Postings newData;
+        try {
+            newData = load();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                recording = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Map<Long, String> changes : recorded) {
+                newData.apply(changes);
+            }
+            data = newData;
+            recording = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("username 인덱스 로딩 {}명 , gram {}개 ( {}ms )", newData.usernames.size(), newData.grams.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    //전체 회원 username ( 읽는 동안 커밋된 변경은 rebuild 가 기록해서 다시 적용 )
+    Postings load() {
+        Postings newData = new Postings();
+        EntityManager readEm = emf.createEntityManager();
+        try {
+            for (Tuple row : new JPAQueryFactory(readEm).select(member.id, member.username).from(member).fetch()) {
+                newData.put(row.get(member.id), row.get(member.username));
+            }
+        } finally {
+            readEm.close();
+        }
+        return newData;
+    }
+
+    public Stats stats(){
+        lock.readLock().lock();
+        try {
+            return data == null
+                    ? new Stats(false, 0, 0)
+                    : new Stats(true, data.usernames.size(), data.grams.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void onCommitted(MemberChangeFeed.Changes changes) {
+        if(changes.getMembers().isEmpty()){
+            return;
+        }
+        Map<Long, String> usernames = new LinkedHashMap<>();
+        for (Map.Entry<Long, MemberChangeFeed.MemberRow> change : changes.getMembers().entrySet()) {
+            usernames.put(change.getKey(), change.getValue() != null ? change.getValue().getUsername() : null);
+        }
+        commit(usernames);
+    }
+
+    //커밋된 변경 반영 ( 전체 로딩 중이면 기록도 )
+    void commit(Map<Long, String> changes) {
+        lock.writeLock().lock();
+        try {
+            if(data != null){
+                data.apply(changes);
+            }
+            if(recording != null){
+                recording.add(changes);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 인덱스 본체 ( lock 안에서만 사용 )
+     */
+    static class Postings {
+
+        private final Map<Long, String> usernames = new HashMap<>();
+        private final Map<String, Set<Long>> grams = new HashMap<>();
+        private final TreeMap<String, Set<Long>> sorted = new TreeMap<>();
+
+        void apply(Map<Long, String> changes) {
+            for (Map.Entry<Long, String> change : changes.entrySet()) {
+                if(change.getValue() == null){
+                    remove(change.getKey());
+                } else {
+                    put(change.getKey(), change.getValue());
+                }
+            }
+        }
+
+        void put(Long id, String username) {
+            if(username == null){
+                remove(id);
+                return;
+            }
+            String old = usernames.put(id, username);
+            if(username.equals(old)){
+                return;
+            }
+            if(old != null){
+                unindex(id, old);
+            }
+            sorted.computeIfAbsent(username, key -> new HashSet<>(2)).add(id);
+            for (int i = 0; i + GRAM <= username.length(); i++) {
+                grams.computeIfAbsent(username.substring(i, i + GRAM), key -> new HashSet<>(4)).add(id);
+            }
+        }
+
+        void remove(Long id) {
+            String old = usernames.remove(id);
+            if(old != null){
+                unindex(id, old);
+            }
+        }
+
+        private void unindex(Long id, String username) {
+            removeFrom(sorted, username, id);
+            for (int i = 0; i + GRAM <= username.length(); i++) {
+                removeFrom(grams, username.substring(i, i + GRAM), id);
+            }
+        }
+
+        //찾은 id 가 limit 를 넘으면 null
+        Set<Long> startsWith(String prefix, int limit) {
+            Set<Long> result = new HashSet<>();
+            for (Set<Long> ids : sorted.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                result.addAll(ids);
+                if(result.size() > limit){
+                    return null;
+                }
+            }
+            return result;
+        }
+
+        Set<Long> contains(String text, int limit) {
+            if(text.length() < GRAM){
+                //trigram 을 만들 수 없는 짧은 검색어는 메모리에서 전체 확인 ( DB 전체 스캔보다는 싸다 )
+                Set<Long> result = new HashSet<>();
+                for (Map.Entry<Long, String> entry : usernames.entrySet()) {
+                    if(entry.getValue().contains(text)){
+                        result.add(entry.getKey());
+                        if(result.size() > limit){
+                            return null;
+                        }
+                    }
+                }
+                return result;
+            }
+
+            //가장 작은 목록부터 교집합
+            List<Set<Long>> postings = new ArrayList<>();
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                Set<Long> ids = grams.get(text.substring(i, i + GRAM));
+                if(ids == null){
+                    return new HashSet<>();
+                }
+                postings.add(ids);
+            }
+            postings.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+            Set<Long> result = new HashSet<>();
+            for (Long id : postings.get(0)) {
+                if(containsAll(postings, id) && usernames.get(id).contains(text)){
+                    result.add(id);
+                    if(result.size() > limit){
+                        return null;
+                    }
+                }
+            }
+            return result;
+        }
+
+        private static boolean containsAll(List<Set<Long>> postings, Long id) {
+            for (int i = 1; i < postings.size(); i++) {
+                if(!postings.get(i).contains(id)){
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static void removeFrom(Map<String, Set<Long>> index, String key, Long id) {
+            Set<Long> ids = index.get(key);
+            if(ids != null && ids.remove(id) && ids.isEmpty()){
+                index.remove(key);
+            }
+        }
+    }
+
+    @Getter
+    public static class Stats {
+        private final boolean loaded;
+        private final int memberCount;
+        private final int gramCount;
+
+        public Stats(boolean loaded, int memberCount, int gramCount){
+            this.loaded = loaded;
+            this.memberCount = memberCount;
+            this.gramCount = gramCount;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.study.querydsl.service;
+
+/**
+ * 벌크 작업의 지금 상태에서 할 수 없는 요청 ( 실행 중인 작업 resume , 실행 중이 아닌 작업 stop ) -> 409
+ */
+public class BulkJobStateException extends IllegalStateException {
+
+    public BulkJobStateException(String message){
+        super(message);
+    }
+}
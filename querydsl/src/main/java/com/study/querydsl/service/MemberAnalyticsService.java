@@ -0,0 +1,97 @@
+package com.study.querydsl.service;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.dto.AgeStatsDto;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.TeamStatsDto;
+import com.study.querydsl.repository.support.MemberColumns;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.study.querydsl.entity.QMember.member;
+import static com.study.querydsl.entity.QTeam.team;
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 검색 조건별 나이 집계 ( 전체 / 팀별 )
+ *
+ * MemberColumns 가 켜져 있고 로딩되었으면 메모리 복제본에서 , 아니면 DB 집계 쿼리 ( QuerydslBasicTest.aggregation / group )
+ */
+@Service
+@Transactional(readOnly = true)
+public class MemberAnalyticsService {
+
+    //sum(int) 은 Long 으로 나온다
+    private static final NumberExpression<Long> ageSum =
+            Expressions.numberTemplate(Long.class, "coalesce(sum({0}), 0)", member.age);
+
+    private final JPAQueryFactory queryFactory;
+    private final MemberColumns memberColumns;
+
+    public MemberAnalyticsService(EntityManager em, MemberColumns memberColumns){
+        this.queryFactory = new JPAQueryFactory(em);
+        this.memberColumns = memberColumns;
+    }
+
+    public AgeStatsDto ageStats(MemberSearchCondition condition){
+        if(memberColumns.isAvailable()){
+            MemberColumns.AgeAggregate aggregate = memberColumns.aggregate(condition);
+            return new AgeStatsDto(aggregate.getCount(), aggregate.getSum(), aggregate.getMin(), aggregate.getMax());
+        }
+        Tuple row = queryFactory
+                .select(member.count(), ageSum, member.age.min(), member.age.max())
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(where(condition))
+                .fetchOne();
+        return new AgeStatsDto(row.get(member.count()), row.get(ageSum), row.get(member.age.min()), row.get(member.age.max()));
+    }
+
+    /**
+     * 팀 이름순 , 조건에 맞는 회원이 있는 팀만
+     */
+    public List<TeamStatsDto> ageStatsByTeam(MemberSearchCondition condition){
+        if(memberColumns.isAvailable()){
+            List<TeamStatsDto> result = new ArrayList<>();
+            for (MemberColumns.AgeAggregate aggregate : memberColumns.aggregateByTeam(condition)) {
+                result.add(new TeamStatsDto(aggregate.getTeamId(), aggregate.getTeamName(), aggregate.getCount(),
+                        aggregate.getSum(), aggregate.getMin(), aggregate.getMax()));
+            }
+            result.sort(Comparator.comparing(TeamStatsDto::getTeamName, Comparator.nullsLast(Comparator.naturalOrder())));
+            return result;
+        }
+        List<TeamStatsDto> result = new ArrayList<>();
+        for (Tuple row : queryFactory
+                .select(team.id, team.name, member.count(), ageSum, member.age.min(), member.age.max())
+                .from(member)
+                .join(member.team, team)
+                .where(where(condition))
+                .groupBy(team.id, team.name)
+                .orderBy(team.name.asc())
+                .fetch()) {
+            result.add(new TeamStatsDto(row.get(team.id), row.get(team.name), row.get(member.count()), row.get(ageSum),
+                    row.get(member.age.min()), row.get(member.age.max())));
+        }
+        return result;
+    }
+
+    private static BooleanExpression[] where(MemberSearchCondition condition) {
+        return new BooleanExpression[]{
+                hasText(condition.getUsername()) ? member.username.eq(condition.getUsername()) : null,
+                hasText(condition.getTeamName()) ? team.name.eq(condition.getTeamName()) : null,
+                condition.getAgeGoe() != null ? member.age.goe(condition.getAgeGoe()) : null,
+                condition.getAgeLoe() != null ? member.age.loe(condition.getAgeLoe()) : null,
+                hasText(condition.getUsernameContains()) ? member.username.contains(condition.getUsernameContains()) : null,
+                hasText(condition.getUsernameStartsWith()) ? member.username.startsWith(condition.getUsernameStartsWith()) : null
+        };
+    }
+}
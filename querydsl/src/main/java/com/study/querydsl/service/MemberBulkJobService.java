@@ -0,0 +1,274 @@
+package com.study.querydsl.service;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import com.study.querydsl.dto.BulkJobDto;
+import com.study.querydsl.dto.BulkJobRequest;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.entity.BulkJob;
+import com.study.querydsl.repository.MemberBulkRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static com.study.querydsl.entity.QBulkJob.bulkJob;
+import static com.study.querydsl.entity.QMember.member;
+import static com.study.querydsl.entity.QTeam.team;
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 청크 단위 벌크 update / delete
+ *
+ * update(member).set(member.age, member.age.add(1)).execute() 를 한번에 실행하면
+ * 전체 row 에 락을 잡고 undo 로그가 커진다 -> member_id 범위로 나눠서 청크마다 커밋
+ *
+ *  - 청크 실행 + 체크포인트( BulkJob.lastId ) 저장이 같은 트랜잭션 ( REQUIRES_NEW ) -> 재시작해도 중복 실행 없음
+ *  - 청크 사이에 throttle 만큼 쉰다 ( 업무 시간에 돌려도 다른 트랜잭션이 락을 기다리지 않게 )
+ *  - 청크는 MemberBulkRepository 로 실행 ( MemberBulkEvent 발행 )
+ *  - 서버가 내려가서 RUNNING 으로 남은 작업은 다음 기동시 INTERRUPTED -> resume 으로 이어서 실행
+ *    ( 서버 여러대에서 같은 작업을 동시에 돌리는 경우는 고려하지 않았다 )
+ */
+@Slf4j
+@Service
+public class MemberBulkJobService {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final MemberBulkRepository memberBulkRepository;
+    private final TransactionTemplate newTransaction;
+    private final int defaultChunkSize;
+    private final long throttleMillis;
+    private final ExecutorService executor;
+
+    //이 서버에서 실행 중인 작업 , 중지 요청된 작업
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Boolean> stopRequested = new ConcurrentHashMap<>();
+
+    public MemberBulkJobService(EntityManager em, MemberBulkRepository memberBulkRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${member.bulk-job.chunk-size:1000}") int defaultChunkSize,
+                                @Value("${member.bulk-job.throttle:50ms}") Duration throttle,
+                                @Value("${member.bulk-job.max-concurrent-jobs:1}") int maxConcurrentJobs){
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.memberBulkRepository = memberBulkRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.defaultChunkSize = defaultChunkSize;
+        this.throttleMillis = throttle.toMillis();
+        this.executor = Executors.newFixedThreadPool(maxConcurrentJobs, runnable -> {
+            Thread thread = new Thread(runnable, "member-bulk-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public BulkJobDto start(BulkJobRequest request){
+        if(request.getAction() == null){
+            throw new IllegalArgumentException("action 이 필요합니다");
+        }
+        if(request.getAction() != BulkJob.Action.DELETE && !hasText(request.getValue())){
+            throw new IllegalArgumentException(request.getAction() + " 는 value 가 필요합니다");
+        }
+        if(request.getCondition().hasUsernamePattern()){
+            //BulkJob 에는 username / teamName / ageGoe / ageLoe 만 저장된다 ( 조건이 빠진 채로 실행되면 안된다 )
+            throw new IllegalArgumentException("벌크 작업은 usernameContains / usernameStartsWith 조건을 지원하지 않습니다");
+        }
+        if(request.getAction() == BulkJob.Action.INCREASE_AGE){
+            Integer.parseInt(request.getValue());
+        }
+        int chunkSize = request.getChunkSize() != null ? request.getChunkSize() : defaultChunkSize;
+        if(chunkSize <= 0){
+            throw new IllegalArgumentException("chunkSize 는 0 보다 커야 합니다");
+        }
+
+        BulkJob job = newTransaction.execute(status -> {
+            Tuple range = queryFactory
+                    .select(member.id.min(), member.id.max())
+                    .from(member)
+                    .fetchOne();
+            Long minId = range.get(member.id.min());
+            Long maxId = range.get(member.id.max());
+            BulkJob newJob = new BulkJob(request.getAction(), request.getValue(), request.getCondition().normalized(),
+                    chunkSize, minId != null ? minId - 1 : 0, maxId != null ? maxId : 0);
+            em.persist(newJob);
+            return newJob;
+        });
+        submit(job.getId());
+        return new BulkJobDto(job);
+    }
+
+    public BulkJobDto find(Long jobId){
+        return newTransaction.execute(status -> new BulkJobDto(getJob(jobId)));
+    }
+
+    /**
+     * STOPPED / INTERRUPTED / FAILED 작업을 체크포인트 다음 청크부터 다시 실행
+     */
+    public BulkJobDto resume(Long jobId){
+        if(running.contains(jobId)){
+            throw new BulkJobStateException("이미 실행 중인 작업입니다: " + jobId);
+        }
+        BulkJobDto job = newTransaction.execute(status -> {
+            BulkJob found = getJob(jobId);
+            if(!found.isResumable()){
+                throw new BulkJobStateException("이어서 실행할 수 없는 상태입니다: " + found.getStatus());
+            }
+            found.resume();
+            return new BulkJobDto(found);
+        });
+        submit(jobId);
+        return job;
+    }
+
+    /**
+     * 진행 중인 청크가 끝나면 멈춘다 ( STOPPED , resume 가능 )
+     * 이 서버에서 실행 중인 작업이 아니면 BulkJobStateException ( 409 )
+     */
+    public BulkJobDto stop(Long jobId){
+        if(!running.contains(jobId)){
+            BulkJobDto job = find(jobId);
+            throw new BulkJobStateException("실행 중인 작업이 아닙니다: " + jobId + " ( " + job.getStatus() + " )");
+        }
+        stopRequested.put(jobId, Boolean.TRUE);
+        return find(jobId);
+    }
+
+    //이전 실행에서 RUNNING 으로 남은 작업 ( 서버 종료 등 )
+    @EventListener(ApplicationReadyEvent.class)
+    public void markInterrupted(){
+        Long count = newTransaction.execute(status -> queryFactory
+                .update(bulkJob)
+                .set(bulkJob.status, BulkJob.Status.INTERRUPTED)
+                .where(bulkJob.status.eq(BulkJob.Status.RUNNING))
+                .execute());
+        if(count != null && count > 0){
+            log.warn("중단된 벌크 작업 {}건 - resume 으로 이어서 실행할 수 있습니다", count);
+        }
+    }
+
+    private void submit(Long jobId) {
+        running.add(jobId);
+        executor.execute(() -> run(jobId));
+    }
+
+    private void run(Long jobId) {
+        try {
+            while (true) {
+                if(stopRequested.remove(jobId) != null){
+                    finish(jobId, BulkJob.Status.STOPPED, null);
+                    return;
+                }
+                Boolean hasNext = newTransaction.execute(status -> runChunk(jobId));
+                if(!Boolean.TRUE.equals(hasNext)){
+                    return;
+                }
+                if(throttleMillis > 0){
+                    Thread.sleep(throttleMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(jobId, BulkJob.Status.INTERRUPTED, null);
+        } catch (RuntimeException e) {
+            log.error("벌크 작업 실패 jobId={}", jobId, e);
+            finish(jobId, BulkJob.Status.FAILED, e.getMessage());
+        } finally {
+            running.remove(jobId);
+            stopRequested.remove(jobId);
+        }
+    }
+
+    //청크 하나 실행 + 체크포인트 저장 , 다음 청크가 있으면 true
+    private boolean runChunk(Long jobId) {
+        BulkJob job = getJob(jobId);
+        if(job.isFinished()){
+            job.finish(BulkJob.Status.COMPLETED, null);
+            return false;
+        }
+        long from = job.getLastId();
+        long to = Math.min(from + job.getChunkSize(), job.getMaxId());
+
+        BooleanBuilder where = new BooleanBuilder(member.id.gt(from).and(member.id.loe(to)));
+        where.and(conditionOf(job.toCondition()));
+
+        long affected = job.getAction() == BulkJob.Action.DELETE
+                ? memberBulkRepository.delete(where)
+                : memberBulkRepository.update(where, setterOf(job));
+        job.chunkDone(to, affected);
+        return !job.isFinished();
+    }
+
+    //벌크 update / delete 는 조인이 안되므로 팀 이름은 서브쿼리로
+    private static BooleanBuilder conditionOf(MemberSearchCondition condition) {
+        BooleanBuilder builder = new BooleanBuilder();
+        if(hasText(condition.getUsername())){
+            builder.and(member.username.eq(condition.getUsername()));
+        }
+        if(hasText(condition.getTeamName())){
+            builder.and(member.team.id.in(
+                    JPAExpressions
+                            .select(team.id)
+                            .from(team)
+                            .where(team.name.eq(condition.getTeamName()))));
+        }
+        if(condition.getAgeGoe() != null){
+            builder.and(member.age.goe(condition.getAgeGoe()));
+        }
+        if(condition.getAgeLoe() != null){
+            builder.and(member.age.loe(condition.getAgeLoe()));
+        }
+        return builder;
+    }
+
+    private static Consumer<JPAUpdateClause> setterOf(BulkJob job) {
+        switch (job.getAction()) {
+            case INCREASE_AGE:
+                int amount = Integer.parseInt(job.getActionValue());
+                return update -> update.set(member.age, member.age.add(amount));
+            case RENAME:
+                return update -> update.set(member.username, job.getActionValue());
+            default:
+                throw new IllegalArgumentException("update 작업이 아닙니다: " + job.getAction());
+        }
+    }
+
+    private void finish(Long jobId, BulkJob.Status status, String error) {
+        try {
+            newTransaction.executeWithoutResult(s -> getJob(jobId).finish(status, error));
+        } catch (RuntimeException e) {
+            log.error("벌크 작업 상태 저장 실패 jobId={} status={}", jobId, status, e);
+        }
+    }
+
+    private BulkJob getJob(Long jobId) {
+        BulkJob job = em.find(BulkJob.class, jobId);
+        if(job == null){
+            throw new IllegalArgumentException("없는 작업입니다: " + jobId);
+        }
+        return job;
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,174 @@
+package com.study.querydsl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDto;
+import com.study.querydsl.repository.MemberJpaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 회원 검색 결과를 NDJSON / CSV 로 바로 내려보낸다
+ * DB 커서에서 읽은 row 를 즉시 써서 결과가 몇천만건이어도 힙 사용량이 늘지 않는다
+ *
+ * stream 은 화면용 ( /v1/members/stream ) - chunk-size 건마다 SSE 이벤트 / JSON 배열 조각으로 보내고 바로 flush
+ * 응답 쓰기는 클라이언트가 받는 만큼만 진행된다 ( 소켓 버퍼가 차면 write 에서 멈춘다 )
+ * -> 느린 클라이언트면 DB 커서도 다음 fetch 를 하지 않고 기다린다 ( 힙에 쌓아두지 않는다 )
+ * 그동안 트랜잭션 ( 커넥션 ) 을 쥐고 있다 -> DatabaseConcurrencyLimiter 가 동시 스트림 수를 제한 ( max-streams )
+ * spring.mvc.async.request-timeout 이 지나면 응답이 끊기고 다음 write 에서 커서를 닫는다
+ */
+@Service
+public class MemberExportService {
+
+    public enum Format {
+        NDJSON, CSV;
+
+        //요청 파라미터 ( 대소문자 무시 ) , 모르는 값이면 IllegalArgumentException -> 400
+        public static Format of(String format){
+            for (Format value : values()) {
+                if(value.name().equalsIgnoreCase(format)){
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("지원하지 않는 format 입니다: " + format + " ( ndjson , csv )");
+        }
+    }
+
+    public enum StreamFormat { SSE, JSON_ARRAY }
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+    private final int streamFetchSize;
+    private final int streamChunkSize;
+
+    public MemberExportService(MemberJpaRepository memberJpaRepository, ObjectMapper objectMapper,
+                               @Value("${member.export.fetch-size:1000}") int fetchSize,
+                               @Value("${member.stream.fetch-size:100}") int streamFetchSize,
+                               @Value("${member.stream.chunk-size:100}") int streamChunkSize){
+        this.memberJpaRepository = memberJpaRepository;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        this.streamFetchSize = streamFetchSize;
+        this.streamChunkSize = streamChunkSize;
+    }
+
+    @Transactional(readOnly = true)
+    public void export(MemberSearchCondition condition, Format format, OutputStream out) throws IOException {
+        //out 은 응답 스트림이므로 닫지 않고 flush 만 한다
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if(format == Format.CSV){
+            writer.write("memberId,username,age,teamId,teamName\n");
+        }
+
+        try (Stream<MemberTeamDto> rows = memberJpaRepository.streamSearch(condition, fetchSize)) {
+            rows.forEach(row -> {
+                try {
+                    if(format == Format.CSV){
+                        writeCsv(writer, row);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(row));
+                        writer.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    /**
+     * SSE : event: members / data: [chunk] 를 chunk 마다 , 마지막에 event: end / data: {"count":전체건수}
+     * JSON_ARRAY : [ row , row , ... ] 를 chunk 마다 flush ( 받는 쪽은 일반 JSON 배열 )
+     * 클라이언트가 연결을 끊으면 write 가 IOException -> 커서를 닫고 끝낸다
+     */
+    @Transactional(readOnly = true)
+    public void stream(MemberSearchCondition condition, StreamFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        if(format == StreamFormat.JSON_ARRAY){
+            writer.write('[');
+        }
+
+        long count = 0;
+        List<MemberTeamDto> chunk = new ArrayList<>(streamChunkSize);
+        try (Stream<MemberTeamDto> rows = memberJpaRepository.streamSearch(condition, streamFetchSize)) {
+            Iterator<MemberTeamDto> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                MemberTeamDto row = iterator.next();
+                if(format == StreamFormat.JSON_ARRAY){
+                    if(count > 0){
+                        writer.write(',');
+                    }
+                    writer.write(objectMapper.writeValueAsString(row));
+                } else {
+                    chunk.add(row);
+                }
+                count++;
+                if(count % streamChunkSize == 0){
+                    writeChunk(writer, format, chunk);
+                }
+            }
+        }
+        if(!chunk.isEmpty()){
+            writeChunk(writer, format, chunk);
+        }
+
+        if(format == StreamFormat.JSON_ARRAY){
+            writer.write(']');
+        } else {
+            writer.write("event: end\ndata: {\"count\":" + count + "}\n\n");
+        }
+        writer.flush();
+    }
+
+    //SSE 면 모아둔 chunk 를 이벤트 하나로 , 그리고 지금까지 쓴 것을 클라이언트로 보낸다
+    private void writeChunk(Writer writer, StreamFormat format, List<MemberTeamDto> chunk) throws IOException {
+        if(format == StreamFormat.SSE){
+            writer.write("event: members\ndata: ");
+            writer.write(objectMapper.writeValueAsString(chunk));
+            writer.write("\n\n");
+            chunk.clear();
+        }
+        writer.flush();
+    }
+
+    private void writeCsv(Writer writer, MemberTeamDto row) throws IOException {
+        writer.write(String.valueOf(row.getMemberId()));
+        writer.write(',');
+        writer.write(csv(row.getUsername()));
+        writer.write(',');
+        writer.write(Integer.toString(row.getAge()));
+        writer.write(',');
+        writer.write(row.getTeamId() != null ? row.getTeamId().toString() : "");
+        writer.write(',');
+        writer.write(csv(row.getTeamName()));
+        writer.write('\n');
+    }
+
+    //쉼표, 따옴표, 줄바꿈이 있으면 "" 로 감싼다
+    private static String csv(String value) {
+        if(value == null){
+            return "";
+        }
+        if(value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0){
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,150 @@
+package com.study.querydsl.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.study.querydsl.dto.MemberImportResult;
+import com.study.querydsl.dto.MemberImportRow;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.repository.MemberJpaRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 회원 대량 등록
+ *
+ * 요청 본문을 한 줄씩 읽어서 batchSize 단위로 저장한다 ( 본문 전체를 메모리에 올리지 않음 )
+ * hibernate.jdbc.batch_size + order_inserts 로 batchSize 건이 insert 한번에 나가고,
+ * 저장 후 clear 해서 영속성 컨텍스트가 커지지 않는다
+ * 전체가 하나의 트랜잭션이라 중간에 잘못된 줄이 있으면 모두 롤백
+ */
+@Service
+public class MemberImportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private final EntityManager em;
+    private final MemberJpaRepository memberJpaRepository;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public MemberImportService(EntityManager em, MemberJpaRepository memberJpaRepository, ObjectMapper objectMapper,
+                               @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}") int batchSize){
+        this.em = em;
+        this.memberJpaRepository = memberJpaRepository;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional
+    public MemberImportResult importMembers(InputStream in, Format format) throws IOException {
+        long start = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        //clear 해도 유지되도록 팀은 id 만 기억하고 batch 마다 getReference 로 다시 가져온다
+        Map<String, Long> teamIds = new HashMap<>();
+        List<Member> chunk = new ArrayList<>(batchSize);
+        long count = 0;
+        int lineNumber = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if(line.isBlank() || (format == Format.CSV && lineNumber == 1 && line.startsWith("username"))){
+                continue;
+            }
+            MemberImportRow row = parse(line, format, lineNumber);
+
+            //changeTeam() 은 team.members 컬렉션에 추가하므로 쓰지 않는다 ( 컬렉션이 계속 커지고, 준영속 팀이면 지연 로딩 예외 )
+            //Team.members 컬렉션 2차 캐시는 auto_evict_collection_cache 가 팀별로 비운다
+            Member member = new Member(row.getUsername(), row.getAge());
+            if(hasText(row.getTeamName())){
+                member.setTeam(em.getReference(Team.class, teamIds.computeIfAbsent(row.getTeamName(), this::findOrCreateTeam)));
+            }
+            chunk.add(member);
+
+            if(chunk.size() == batchSize){
+                memberJpaRepository.saveAll(chunk, batchSize);
+                count += chunk.size();
+                chunk.clear();
+            }
+        }
+        if(!chunk.isEmpty()){
+            memberJpaRepository.saveAll(chunk, batchSize);
+            count += chunk.size();
+        }
+        return new MemberImportResult(count, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Long findOrCreateTeam(String teamName) {
+        List<Long> ids = em.createQuery("select t.id from Team t where t.name = :name order by t.id", Long.class)
+                .setParameter("name", teamName)
+                .setMaxResults(1)
+                .getResultList();
+        if(!ids.isEmpty()){
+            return ids.get(0);
+        }
+        Team team = new Team(teamName);
+        em.persist(team);
+        return team.getId();
+    }
+
+    private MemberImportRow parse(String line, Format format, int lineNumber) {
+        try {
+            if(format == Format.NDJSON){
+                return objectMapper.readValue(line, MemberImportRow.class);
+            }
+            List<String> fields = splitCsv(line);
+            MemberImportRow row = new MemberImportRow();
+            row.setUsername(fields.get(0));
+            row.setAge(Integer.parseInt(fields.get(1).trim()));
+            row.setTeamName(fields.size() > 2 ? fields.get(2) : null);
+            return row;
+        } catch (JsonProcessingException | RuntimeException e) {
+            throw new IllegalArgumentException(lineNumber + "번째 줄을 읽을 수 없습니다: " + line, e);
+        }
+    }
+
+    //"" 로 감싼 값 안의 쉼표 , "" (따옴표 escape) 처리
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if(quoted){
+                if(c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"'){
+                    field.append('"');
+                    i++;
+                } else if(c == '"'){
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if(c == '"'){
+                quoted = true;
+            } else if(c == ','){
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,189 @@
+package com.study.querydsl.service;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.dto.TeamStatsDto;
+import com.study.querydsl.entity.TeamStats;
+import com.study.querydsl.repository.support.MemberBulkEvent;
+import com.study.querydsl.repository.support.TeamStatsListener;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.study.querydsl.entity.QMember.member;
+import static com.study.querydsl.entity.QTeam.team;
+import static com.study.querydsl.entity.QTeamStats.teamStats;
+
+/**
+ * 팀별 통계 조회 / 재계산
+ *
+ * 조회는 team_stats 를 읽기만 한다 ( 팀 수 만큼 , 회원 전체 집계 없음 )
+ * 증분 갱신은 TeamStatsListener , 여기서는
+ *  - dirty 팀 ( 최소 / 최대를 다시 구해야 하는 팀 ) 재계산 ( dirty-fix-interval )
+ *  - 전체 재계산 ( 기동시 , reconcile-interval ) - 리스너를 거치지 않은 변경 ( 직접 실행한 벌크 연산 등 ) 보정
+ *  - MemberBulkRepository 벌크 연산 대상 팀 재계산 ( 커밋 직전 , 같은 트랜잭션 )
+ *
+ * 재계산은 통계 row 를 먼저 비관적 락으로 잡고 집계한다
+ * -> 동시에 커밋하는 증분 갱신이 락을 기다리므로 재계산 결과에 빠지거나 두번 반영되지 않는다
+ * 락은 team_id 오름차순으로 잡는다 ( TeamStatsListener 증분 갱신과 같은 순서 -> 서로 반대 순서로 기다리는 교착 없음 )
+ */
+@Service
+public class TeamStatsService {
+
+    private static final int IN_CHUNK = 1000;
+
+    //sum(int) 은 Long 으로 나온다
+    private static final NumberExpression<Long> ageSum =
+            Expressions.numberTemplate(Long.class, "coalesce(sum({0}), 0)", member.age);
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TeamStatsListener teamStatsListener;
+
+    public TeamStatsService(EntityManager em, TeamStatsListener teamStatsListener){
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.teamStatsListener = teamStatsListener;
+    }
+
+    @Transactional(readOnly = true)
+    public List<TeamStatsDto> findAll(){
+        List<Tuple> rows = queryFactory
+                .select(teamStats, team.name)
+                .from(teamStats)
+                .join(team).on(team.id.eq(teamStats.teamId))
+                .orderBy(team.name.asc())
+                .fetch();
+
+        //dirty 팀은 최소 / 최대만 그 팀 회원으로 바로 계산 ( 저장은 스케줄러가 )
+        List<Long> dirtyTeamIds = new ArrayList<>();
+        for (Tuple row : rows) {
+            if(row.get(teamStats).isDirty()){
+                dirtyTeamIds.add(row.get(teamStats).getTeamId());
+            }
+        }
+        Map<Long, Tuple> actual = dirtyTeamIds.isEmpty() ? Map.of() : aggregate(dirtyTeamIds);
+
+        List<TeamStatsDto> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            TeamStats stats = row.get(teamStats);
+            Tuple live = actual.get(stats.getTeamId());
+            result.add(new TeamStatsDto(stats.getTeamId(), row.get(team.name), stats.getMemberCount(), stats.getAgeSum(),
+                    live != null ? live.get(member.age.min()) : stats.getMinAge(),
+                    live != null ? live.get(member.age.max()) : stats.getMaxAge()));
+        }
+        return result;
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${member.team-stats.dirty-fix-interval:PT5S}")
+    public void fixDirty(){
+        if(teamStatsListener.consumeReconcileRequest()){
+            reconcileAll();
+            return;
+        }
+        List<Long> dirtyTeamIds = queryFactory
+                .select(teamStats.teamId)
+                .from(teamStats)
+                .where(teamStats.dirty.isTrue())
+                .fetch();
+        recompute(dirtyTeamIds);
+    }
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${member.team-stats.reconcile-interval:PT10M}",
+            initialDelayString = "${member.team-stats.reconcile-interval:PT10M}")
+    public void reconcileAll(){
+        Set<Long> teamIds = new HashSet<>(queryFactory.select(team.id).from(team).fetch());
+        teamIds.addAll(queryFactory.select(teamStats.teamId).from(teamStats).fetch());
+        recompute(teamIds);
+    }
+
+    //벌크 연산 전 팀 + 벌크 연산 후 팀 ( update 로 옮겨간 팀 ) , 벌크 연산과 같은 트랜잭션
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBulk(MemberBulkEvent event){
+        Set<Long> teamIds = new HashSet<>(event.getTeamIds());
+        if(event.getType() == MemberBulkEvent.Type.UPDATE){
+            List<Long> memberIds = event.getMemberIds();
+            for (int from = 0; from < memberIds.size(); from += IN_CHUNK) {
+                teamIds.addAll(queryFactory
+                        .select(member.team.id).distinct()
+                        .from(member)
+                        .where(member.id.in(memberIds.subList(from, Math.min(from + IN_CHUNK, memberIds.size()))),
+                                member.team.isNotNull())
+                        .fetch());
+            }
+        }
+        recompute(teamIds);
+    }
+
+    /**
+     * 팀별로 실제 값을 집계해서 덮어쓴다 ( 통계 row 가 없으면 만들고 , 팀이 없어졌으면 지운다 )
+     */
+    @Transactional
+    public void recompute(Collection<Long> teamIds){
+        List<Long> ids = new ArrayList<>(new TreeSet<>(teamIds));
+        for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CHUNK, ids.size()));
+
+            Map<Long, TeamStats> current = new HashMap<>();
+            for (TeamStats stats : queryFactory
+                    .selectFrom(teamStats)
+                    .where(teamStats.teamId.in(chunk))
+                    .orderBy(teamStats.teamId.asc())
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .fetch()) {
+                current.put(stats.getTeamId(), stats);
+            }
+
+            for (Map.Entry<Long, Tuple> entry : aggregate(chunk).entrySet()) {
+                TeamStats stats = current.remove(entry.getKey());
+                if(stats == null){
+                    stats = new TeamStats(entry.getKey());
+                    em.persist(stats);
+                }
+                Tuple row = entry.getValue();
+                stats.reset(row.get(member.id.count()), row.get(ageSum),
+                        row.get(member.age.min()), row.get(member.age.max()));
+            }
+            //팀이 없어진 통계
+            for (TeamStats removed : current.values()) {
+                em.remove(removed);
+            }
+        }
+    }
+
+    //팀 id -> ( 회원 수 , 나이 합 , 최소 , 최대 ) , 회원이 없는 팀도 포함
+    private Map<Long, Tuple> aggregate(List<Long> teamIds) {
+        List<Tuple> rows = queryFactory
+                .select(team.id, member.id.count(), ageSum, member.age.min(), member.age.max())
+                .from(team)
+                .leftJoin(team.members, member)
+                .where(team.id.in(teamIds))
+                .groupBy(team.id)
+                .fetch();
+        Map<Long, Tuple> result = new HashMap<>();
+        for (Tuple row : rows) {
+            result.put(row.get(team.id), row);
+        }
+        return result;
+    }
+}
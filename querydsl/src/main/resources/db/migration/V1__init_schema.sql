@@ -0,0 +1,62 @@
+-- ddl-auto: create 로 만들던 스키마 ( Hibernate 6 기본 매핑 , H2 )
+-- 기존 개발 DB 에도 그대로 적용되도록 if not exists ( baseline-version: 0 )
+
+-- @GeneratedValue 기본 = 엔티티별 시퀀스 , pooled optimizer ( increment 50 )
+create sequence if not exists hello_seq start with 1 increment by 50;
+create sequence if not exists team_seq start with 1 increment by 50;
+create sequence if not exists member_seq start with 1 increment by 50;
+create sequence if not exists bulk_job_seq start with 1 increment by 50;
+
+create table if not exists hello (
+    id bigint not null,
+    primary key (id)
+);
+
+create table if not exists team (
+    id bigint not null,
+    name varchar(255),
+    primary key (id)
+);
+
+create table if not exists member (
+    member_id bigint not null,
+    username varchar(255),
+    age integer not null,
+    team_id bigint,
+    primary key (member_id)
+);
+
+alter table member add constraint if not exists fk_member_team foreign key (team_id) references team (id);
+
+-- TeamStatsListener 가 팀 삭제시 같이 지운다 ( 외래키 없음 )
+create table if not exists team_stats (
+    team_id bigint not null,
+    member_count bigint not null,
+    age_sum bigint not null,
+    min_age integer,
+    max_age integer,
+    dirty boolean not null,
+    primary key (team_id)
+);
+
+create table if not exists bulk_job (
+    bulk_job_id bigint not null,
+    action varchar(255),
+    action_value varchar(255),
+    username varchar(255),
+    team_name varchar(255),
+    age_goe integer,
+    age_loe integer,
+    chunk_size integer not null,
+    first_id bigint not null,
+    last_id bigint not null,
+    max_id bigint not null,
+    affected_count bigint not null,
+    chunk_count integer not null,
+    status varchar(255),
+    error varchar(255),
+    started_at timestamp(6),
+    updated_at timestamp(6),
+    finished_at timestamp(6),
+    primary key (bulk_job_id)
+);
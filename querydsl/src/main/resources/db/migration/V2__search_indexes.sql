@@ -0,0 +1,14 @@
+-- MemberSearchCondition 조건 조합별 인덱스 ( Member / Team 의 @Table(indexes) 와 같은 이름 )
+
+-- usernameEq (+ ageGoe / ageLoe) , usernameStartsWith ( like 'x%' )
+-- search projection 의 member 컬럼 ( member_id , username , age , team_id ) 을 인덱스만으로 읽는다
+create index if not exists idx_member_username_age on member (username, age, team_id);
+
+-- ageGoe / ageLoe 만 있는 조건 + 커서 페이징 정렬 ( order by age , member_id )
+create index if not exists idx_member_age_id on member (age, member_id);
+
+-- teamNameEq -> team 을 찾고 team_id 로 회원 ( + 나이 범위 ) , member.team 조인 / 외래키
+create index if not exists idx_member_team_age on member (team_id, age);
+
+-- teamNameEq
+create index if not exists idx_team_name on team (name);
@@ -14,12 +14,14 @@ import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import com.study.querydsl.dto.MemberDto;
+import com.study.querydsl.dto.MemberTeamDto;
 import com.study.querydsl.dto.QMemberDto;
 import com.study.querydsl.dto.UserDto;
 import com.study.querydsl.entity.Member;
 import com.study.querydsl.entity.QMember;
 import com.study.querydsl.entity.QTeam;
 import com.study.querydsl.entity.Team;
+import com.study.querydsl.repository.support.FastProjections;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.PersistenceUnit;
@@ -676,6 +678,55 @@ public class QuerydslBasicTest {
         }
     }
 
+    /**
+     * 리플렉션 없는 Projections ( LambdaMetafactory / MethodHandle 접근자 캐시 )
+     * 사용법은 Projections.bean / fields / constructor 와 동일
+     */
+    @Test
+    public void findDtoByFastProjections(){
+        List<MemberDto> beans = queryFactory
+                .select(FastProjections.bean(MemberDto.class,
+                        member.username,
+                        member.age))
+                .from(member)
+                .fetch();
+        assertThat(beans).extracting("username").containsExactly("member1", "member2", "member3", "member4");
+        assertThat(beans).extracting("age").containsExactly(10, 20, 30, 40);
+
+        //별칭
+        List<UserDto> users = queryFactory
+                .select(FastProjections.fields(UserDto.class,
+                        member.username.as("name"),
+                        member.age))
+                .from(member)
+                .fetch();
+        assertThat(users).extracting("name").containsExactly("member1", "member2", "member3", "member4");
+
+        List<MemberTeamDto> memberTeams = queryFactory
+                .select(FastProjections.constructor(MemberTeamDto.class,
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .fetch();
+        assertThat(memberTeams).extracting("teamName").containsExactly("teamA", "teamA", "teamB", "teamB");
+    }
+
+    //같은 select 는 equals + hashCode 가 같아야 쿼리 메타데이터를 key 로 쓸 수 있다 ( SingleFlight )
+    @Test
+    public void fastProjectionsEqualsAndHashCode(){
+        assertThat(FastProjections.bean(MemberDto.class, member.username, member.age))
+                .isEqualTo(FastProjections.bean(MemberDto.class, member.username, member.age))
+                .hasSameHashCodeAs(FastProjections.bean(MemberDto.class, member.username, member.age))
+                .isNotEqualTo(FastProjections.fields(MemberDto.class, member.username, member.age));
+        assertThat(FastProjections.constructor(MemberDto.class, member.username, member.age))
+                .isEqualTo(FastProjections.constructor(MemberDto.class, member.username, member.age))
+                .hasSameHashCodeAs(FastProjections.constructor(MemberDto.class, member.username, member.age));
+    }
+
     @Test
     public void findDtoByQueryProjection(){
         // QueryProjection의 경우 Q 파일 생성하기 때문에! ( 컴파일 오류! )
@@ -0,0 +1,29 @@
+package com.study.querydsl;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 다른 테스트는 엔티티로 스키마를 만든다 ( ddl-auto: create ) -> 여기서만 빈 DB 에 V1 , V2 를 실행하고 엔티티와 맞는지 확인
+ * 엔티티에 컬럼을 추가하고 마이그레이션을 빠뜨리면 ddl-auto: validate 에서 컨텍스트가 뜨지 않는다
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migration;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+class SchemaMigrationTest {
+
+    @Autowired
+    Flyway flyway;
+
+    @Test
+    void migrationsMatchEntities() {
+        assertThat(flyway.info().applied()).hasSize(2);
+        assertThat(flyway.info().pending()).isEmpty();
+    }
+}
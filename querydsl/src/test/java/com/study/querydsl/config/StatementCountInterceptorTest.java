@@ -0,0 +1,56 @@
+package com.study.querydsl.config;
+
+import com.study.querydsl.repository.support.StatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementCountInterceptorTest {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    StatementCountInterceptor interceptor = new StatementCountInterceptor(registry);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    public void recordsSynchronousRequest(){
+        MockHttpServletRequest request = request("/v2/members");
+
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        DistributionSummary summary = registry.find("http.server.requests.statements").tag("uri", "/v2/members").summary();
+        assertThat(summary).isNotNull();
+        assertThat(summary.count()).isEqualTo(1);
+    }
+
+    /**
+     * 비동기 요청은 첫 디스패치에서 카운터를 정리하고 , ASYNC 디스패치는 기록하지 않는다
+     */
+    @Test
+    public void asyncRequestIsNotRecorded(){
+        MockHttpServletRequest request = request("/members/export");
+
+        interceptor.preHandle(request, response, null);
+        interceptor.afterConcurrentHandlingStarted(request, response, null);
+        //요청 스레드에 카운터가 남지 않았다
+        assertThat(StatementCounter.stop()).isEqualTo(-1);
+
+        request.setDispatcherType(DispatcherType.ASYNC);
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertThat(registry.find("http.server.requests.statements").summary()).isNull();
+    }
+
+    private static MockHttpServletRequest request(String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+}
@@ -0,0 +1,67 @@
+package com.study.querydsl.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    public void unknownExportFormatIsBadRequest() throws Exception {
+        mockMvc.perform(get("/members/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("지원하지 않는 format 입니다: xml ( ndjson , csv )"));
+    }
+
+    @Test
+    public void invalidCursorIsBadRequest() throws Exception {
+        mockMvc.perform(get("/v4/members").param("after", "!!"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void unsupportedCursorSortIsBadRequest() throws Exception {
+        mockMvc.perform(get("/v4/members").param("sort", "username"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("커서 조회는 age , id 정렬만 지원합니다: username"));
+    }
+
+    @Test
+    public void mixedCursorSortDirectionIsBadRequest() throws Exception {
+        mockMvc.perform(get("/v4/members").param("sort", "age,asc").param("sort", "id,desc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void tooManyBatchConditionsIsBadRequest() throws Exception {
+        String body = "[" + String.join(",", Collections.nCopies(101, "{}")) + "]";
+        mockMvc.perform(post("/members/search:batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("한번에 검색할 수 있는 조건은 100개까지 입니다: 101"));
+    }
+
+    @Test
+    public void nullBatchConditionIsBadRequest() throws Exception {
+        mockMvc.perform(post("/members/search:batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"teamName\":\"teamA\"},null]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("검색 조건이 비어 있습니다: 1번째"));
+    }
+}
@@ -0,0 +1,158 @@
+package com.study.querydsl.entity;
+
+import com.study.querydsl.repository.support.SecondLevelCacheStats;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Team.members 컬렉션 2차 캐시
+ *
+ * 다른 세션에서 보이는지 확인해야 하므로 롤백 테스트가 아니라 실제로 커밋하고 , 끝나면 지운다
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class TeamMembersCacheTest {
+
+    private static final String MEMBERS_REGION = Team.class.getName() + ".members";
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    SecondLevelCacheStats secondLevelCacheStats;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    TransactionTemplate tx;
+
+    Long teamAId;
+    Long teamBId;
+    Long memberId;
+
+    @BeforeEach
+    public void before(){
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("cacheTeamA");
+            Team teamB = new Team("cacheTeamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member = new Member("cacheMember", 10, teamA);
+            em.persist(member);
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+            memberId = member.getId();
+        });
+    }
+
+    @AfterEach
+    public void after(){
+        write(em -> em.createQuery("delete from Member m where m.team.id in (:ids) or m.username like 'cache%'")
+                .setParameter("ids", List.of(teamAId, teamBId))
+                .executeUpdate());
+        write(em -> em.createQuery("delete from Team t where t.id in (:ids)")
+                .setParameter("ids", List.of(teamAId, teamBId))
+                .executeUpdate());
+    }
+
+    /**
+     * 팀을 옮긴 뒤 새 EntityManager 에서 읽은 양쪽 팀 members 가 캐시된 이전 값이 아니다
+     */
+    @Test
+    public void changeTeamEvictsBothCollections(){
+        assertThat(memberNames(teamAId)).containsExactly("cacheMember");
+        assertThat(memberNames(teamBId)).isEmpty();
+        long hits = membersRegion().getHitCount();
+        //두번째 조회는 2차 캐시에서
+        assertThat(memberNames(teamAId)).containsExactly("cacheMember");
+        assertThat(membersRegion().getHitCount()).isGreaterThan(hits);
+
+        write(em -> {
+            em.find(Member.class, memberId).changeTeam(em.find(Team.class, teamBId));
+            return null;
+        });
+
+        assertThat(memberNames(teamAId)).isEmpty();
+        assertThat(memberNames(teamBId)).containsExactly("cacheMember");
+    }
+
+    /**
+     * 컬렉션을 거치지 않은 저장 ( setTeam ) / 삭제도 캐시된 members 를 비운다
+     */
+    @Test
+    public void persistAndRemoveEvictCollection(){
+        assertThat(memberNames(teamAId)).containsExactly("cacheMember");
+
+        write(em -> {
+            Member member = new Member("cacheMember2", 20);
+            member.setTeam(em.getReference(Team.class, teamAId));
+            em.persist(member);
+            return null;
+        });
+        assertThat(memberNames(teamAId)).containsExactlyInAnyOrder("cacheMember", "cacheMember2");
+
+        write(em -> {
+            em.remove(em.find(Member.class, memberId));
+            return null;
+        });
+        assertThat(memberNames(teamAId)).containsExactly("cacheMember2");
+    }
+
+    @Test
+    public void secondLevelCacheStatsEndpoint() throws Exception {
+        memberNames(teamAId);
+
+        mockMvc.perform(get("/stats/second-level-cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].region").value(hasItem(MEMBERS_REGION)))
+                .andExpect(jsonPath("$[*].region").value(hasItem(Member.class.getName())));
+    }
+
+    //매번 새 EntityManager ( 1차 캐시 없이 2차 캐시 / DB 에서 )
+    private List<String> memberNames(Long teamId) {
+        EntityManager reader = emf.createEntityManager();
+        try {
+            return reader.find(Team.class, teamId).getMembers().stream()
+                    .map(Member::getUsername)
+                    .toList();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private <T> T write(Function<EntityManager, T> work) {
+        return tx.execute(status -> work.apply(em));
+    }
+
+    private SecondLevelCacheStats.RegionStats membersRegion() {
+        return secondLevelCacheStats.regions().stream()
+                .filter(region -> MEMBERS_REGION.equals(region.getRegion()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,73 @@
+package com.study.querydsl.repository;
+
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static com.study.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberBulkRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberBulkRepository memberBulkRepository;
+
+    Team teamA;
+    Member member1, member2, member3, member4;
+
+    @BeforeEach
+    public void before(){
+        teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        member1 = new Member("member1", 10, teamA);
+        member2 = new Member("member2", 20, teamA);
+        member3 = new Member("member3", 30, teamB);
+        member4 = new Member("member4", 40, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+    }
+
+    /**
+     * em.clear() 없이도 영속성 컨텍스트의 값이 DB 와 같다
+     */
+    @Test
+    public void bulkUpdateRefreshesOnlyAffected(){
+        long count = memberBulkRepository.update(member.age.lt(28),
+                update -> update.set(member.username, "비회원"));
+
+        assertThat(count).isEqualTo(2);
+        assertThat(member1.getUsername()).isEqualTo("비회원");
+        assertThat(member2.getUsername()).isEqualTo("비회원");
+        assertThat(member3.getUsername()).isEqualTo("member3");
+        //대상이 아닌 엔티티는 그대로 관리 상태
+        assertThat(em.contains(member3)).isTrue();
+        assertThat(em.find(Member.class, member1.getId())).isSameAs(member1);
+    }
+
+    @Test
+    public void bulkDeleteDetachesOnlyAffected(){
+        long count = memberBulkRepository.delete(member.age.loe(20));
+
+        assertThat(count).isEqualTo(2);
+        assertThat(em.contains(member1)).isFalse();
+        assertThat(em.contains(member2)).isFalse();
+        assertThat(em.contains(member3)).isTrue();
+        assertThat(teamA.getMembers()).isEmpty();
+        assertThat(em.find(Member.class, member1.getId())).isNull();
+    }
+}
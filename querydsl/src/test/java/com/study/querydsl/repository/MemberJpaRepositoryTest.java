@@ -13,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
@@ -89,5 +90,35 @@ class MemberJpaRepositoryTest {
         assertThat(result).extracting("username").containsExactly("member4");
     }
 
+    /**
+     * batchSize 마다 flush / clear
+     * clear 는 영속성 컨텍스트 전체를 비운다 -> 호출 전에 영속 상태였던 엔티티도 준영속이 된다
+     */
+    @Test
+    public void saveAllTest(){
+        Team team = new Team("teamA");
+        em.persist(team);
+        Member before = new Member("before", 1, team);
+        em.persist(before);
+
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            members.add(new Member("bulk" + i, i));
+        }
+        memberJpaRepository.saveAll(members, 2);
+
+        assertThat(members).allMatch(member -> member.getId() != null);
+        assertThat(em.createQuery("select count(m) from Member m where m.username like 'bulk%'", Long.class)
+                .getSingleResult()).isEqualTo(5);
+
+        //호출한 쪽이 들고 있던 엔티티도 준영속 ( 이후 변경은 저장되지 않는다 )
+        assertThat(em.contains(before)).isFalse();
+        assertThat(em.contains(team)).isFalse();
+        assertThat(em.contains(members.get(4))).isFalse();
+        before.setAge(99);
+        em.flush();
+        assertThat(em.find(Member.class, before.getId()).getAge()).isEqualTo(1);
+    }
+
 
 }
\ No newline at end of file
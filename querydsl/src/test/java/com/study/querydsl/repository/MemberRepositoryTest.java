@@ -1,11 +1,13 @@
 package com.study.querydsl.repository;
 
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.dto.MemberCursor;
 import com.study.querydsl.dto.MemberSearchCondition;
 import com.study.querydsl.dto.MemberTeamDto;
 import com.study.querydsl.entity.Member;
 import com.study.querydsl.entity.QMember;
 import com.study.querydsl.entity.Team;
+import com.study.querydsl.repository.support.StatementCounter;
 import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +16,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -82,6 +86,71 @@ class MemberRepositoryTest {
         assertThat(result).extracting("username").containsExactly("member4");
     }
 
+    /**
+     * 커밋 전 회원이라 UsernameIndex 에는 없지만 같은 트랜잭션 변경으로 후보에 들어간다
+     */
+    @Test
+    public void searchUsernamePatternTest(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernameContains("ber3");
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("member3");
+
+        condition = new MemberSearchCondition();
+        condition.setUsernameStartsWith("mem");
+        condition.setTeamName("teamA");
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(0, 1));
+        assertThat(result.getContent()).extracting("username").containsExactly("member1");
+        assertThat(result.getTotalElements()).isEqualTo(2);
+
+        condition = new MemberSearchCondition();
+        condition.setUsernameContains("없는이름");
+        assertThat(memberRepository.search(condition)).isEmpty();
+    }
+
+    @Test
+    public void searchBatchTest(){
+        MemberSearchCondition teamA = new MemberSearchCondition();
+        teamA.setTeamName("teamA");
+        MemberSearchCondition teamB = new MemberSearchCondition();
+        teamB.setTeamName("teamB");
+        MemberSearchCondition teamBAgain = new MemberSearchCondition();
+        teamBAgain.setTeamName("teamB");
+        teamBAgain.setUsername("");
+        MemberSearchCondition noTeam = new MemberSearchCondition();
+        noTeam.setTeamName("teamC");
+        MemberSearchCondition ageOnly = new MemberSearchCondition();
+        ageOnly.setAgeGoe(35);
+
+        //teamA / teamB / teamC 는 team.name in 쿼리 하나 , ageOnly 는 search
+        List<List<MemberTeamDto>> result = memberRepository.searchBatch(List.of(teamA, teamB, teamBAgain, noTeam, ageOnly));
+
+        assertThat(result).hasSize(5);
+        assertThat(result.get(0)).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+        assertThat(result.get(1)).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+        assertThat(result.get(2)).isEqualTo(result.get(1));
+        assertThat(result.get(3)).isEmpty();
+        assertThat(result.get(4)).extracting("username").containsExactly("member4");
+    }
+
+    /**
+     * default_batch_fetch_size - 팀 프록시를 처음 초기화할 때 나머지 팀도 in 쿼리 하나로
+     */
+    @Test
+    public void teamBatchFetchTest(){
+        em.flush();
+        em.clear();
+
+        StatementCounter.start();
+        List<Member> members = memberRepository.findAll();
+        for (Member member : members) {
+            member.getTeam().getName();
+        }
+        long statements = StatementCounter.stop();
+
+        assertThat(members).hasSize(4);
+        assertThat(statements).isEqualTo(2);
+    }
+
     @Test
     public void searchPageSimpleTest(){
 
@@ -96,6 +165,22 @@ class MemberRepositoryTest {
     }
 
 
+    @Test
+    public void searchByCursorTest(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age"));
+
+        Slice<MemberTeamDto> first = memberRepository.searchByCursor(condition, null, pageRequest);
+        assertThat(first.getContent()).extracting("username").containsExactly("member4", "member3", "member2");
+        assertThat(first.hasNext()).isTrue();
+
+        //마지막 row 를 커서로 넘기면 그 다음부터 ( 인코딩/디코딩 포함 )
+        MemberCursor cursor = MemberCursor.decode(MemberCursor.of(first.getContent().get(2)).encode());
+        Slice<MemberTeamDto> second = memberRepository.searchByCursor(condition, cursor, pageRequest);
+        assertThat(second.getContent()).extracting("username").containsExactly("member1");
+        assertThat(second.hasNext()).isFalse();
+    }
+
     /**
      * 한계점
      * 조인 X ( 묵시적 조인은 가능하나 left join 불가능 )
@@ -0,0 +1,49 @@
+package com.study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountCacheTest {
+
+    CountCache countCache = new CountCache(Duration.ofMinutes(1), 100);
+
+    AtomicLong rows = new AtomicLong(4);
+
+    @Test
+    public void cachedOutsideTransaction(){
+        Object key = CountCache.key("search", "teamA");
+
+        assertThat(countCache.get(key, rows::get)).isEqualTo(4);
+        rows.set(5);
+        assertThat(countCache.get(key, rows::get)).isEqualTo(4);
+        assertThat(countCache.stats().getHitCount()).isEqualTo(1);
+    }
+
+    /**
+     * 쓰기 트랜잭션 안의 count ( 커밋 전 값 ) 는 저장하지도 , 꺼내 쓰지도 않는다
+     */
+    @Test
+    public void bypassedInWriteTransaction(){
+        Object key = CountCache.key("search", "teamA");
+        countCache.get(key, rows::get);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            rows.set(5);
+            assertThat(countCache.get(key, rows::get)).isEqualTo(5);
+            assertThat(countCache.get(CountCache.key("search", "teamB"), rows::get)).isEqualTo(5);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertThat(countCache.stats().getBypassCount()).isEqualTo(2);
+        assertThat(countCache.stats().getSize()).isEqualTo(1);
+        //트랜잭션 밖에서는 다시 캐시 ( 트랜잭션 안에서 본 5 가 아니라 처음 저장한 4 )
+        assertThat(countCache.get(key, rows::get)).isEqualTo(4);
+    }
+}
@@ -0,0 +1,68 @@
+package com.study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static com.study.querydsl.entity.QMember.member;
+import static com.study.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class CountQueriesTest {
+
+    @Autowired
+    EntityManager em;
+
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before(){
+        queryFactory = new JPAQueryFactory(em);
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+    }
+
+    @Test
+    public void unusedLeftJoinIsPruned(){
+        JPAQuery<Member> query = queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(member.age.goe(20))
+                .orderBy(member.age.desc());
+
+        JPAQuery<Long> countQuery = CountQueries.derive(em, query);
+
+        //조건에 team 이 없으므로 조인 제거 , order by 제거
+        assertThat(countQuery.toString()).doesNotContain("join").doesNotContain("order by");
+        assertThat(countQuery.fetchOne()).isEqualTo(3);
+    }
+
+    @Test
+    public void usedLeftJoinIsKept(){
+        JPAQuery<Member> query = queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(team.name.eq("teamB"));
+
+        JPAQuery<Long> countQuery = CountQueries.derive(em, query);
+
+        assertThat(countQuery.toString()).contains("left join");
+        assertThat(countQuery.fetchOne()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,168 @@
+package com.study.querydsl.repository.support;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.service.MemberExportService;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 허가 1개 , 스트림 1개 , 대기 100ms 로 띄워서 한도 초과를 재현한다 ( 트랜잭션 밖에서 호출해야 제한된다 )
+ */
+@SpringBootTest(properties = {
+        "member.db-limiter.max-concurrent=1",
+        "member.db-limiter.acquire-timeout=100ms",
+        "member.db-limiter.max-streams=1"
+})
+@AutoConfigureMockMvc
+class DatabaseConcurrencyLimiterTest {
+
+    @Autowired
+    DatabaseConcurrencyLimiter limiter;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MemberExportService memberExportService;
+
+    @Test
+    public void timeoutThrowsDatabaseBusy() throws Throwable {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> holder = holdPermit(release);
+        try {
+            long rejected = limiter.stats().getRejectedCount();
+            assertThatThrownBy(() -> limiter.limit(returning("never")))
+                    .isInstanceOf(DatabaseBusyException.class);
+            assertThat(limiter.stats().getRejectedCount()).isEqualTo(rejected + 1);
+        } finally {
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        }
+        assertThat(limiter.limit(returning("ok"))).isEqualTo("ok");
+    }
+
+    @Test
+    public void busyRequestIsServiceUnavailable() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> holder = holdPermit(release);
+        try {
+            mockMvc.perform(get("/v2/members"))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        }
+        mockMvc.perform(get("/v2/members"))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Stream 은 반환될 때가 아니라 close 할 때 허가를 반납한다
+     */
+    @Test
+    public void streamHoldsPermitUntilClosed() throws Throwable {
+        Stream<?> rows = (Stream<?>) limiter.limit(returning(Stream.of(1, 2, 3)));
+        assertThat(limiter.stats().getAvailablePermits()).isEqualTo(0);
+        assertThatThrownBy(() -> limiter.limit(returning("never")))
+                .isInstanceOf(DatabaseBusyException.class);
+
+        rows.close();
+        assertThat(limiter.stats().getAvailablePermits()).isEqualTo(1);
+    }
+
+    /**
+     * 스트리밍 응답은 트랜잭션 ( 커넥션 ) 이 끝날 때까지 허가를 쥔다 - 느린 클라이언트 ( write 에서 멈춤 ) 로 재현
+     * 스트림 한도를 넘으면 기다리지 않고 DatabaseBusyException
+     */
+    @Test
+    public void streamHoldsPermitUntilResponseEnds() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OutputStream slowClient = new OutputStream() {
+            @Override
+            public void write(int b) {
+                block();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                block();
+            }
+
+            private void block() {
+                writing.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        CompletableFuture<Void> stream = CompletableFuture.runAsync(() -> {
+            try {
+                memberExportService.stream(new MemberSearchCondition(), MemberExportService.StreamFormat.JSON_ARRAY, slowClient);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        try {
+            assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(limiter.stats().getActiveStreams()).isEqualTo(1);
+            assertThat(limiter.stats().getAvailablePermits()).isEqualTo(0);
+            assertThatThrownBy(() -> memberExportService.export(new MemberSearchCondition(),
+                    MemberExportService.Format.NDJSON, new ByteArrayOutputStream()))
+                    .isInstanceOf(DatabaseBusyException.class)
+                    .hasMessageContaining("스트리밍");
+        } finally {
+            release.countDown();
+            stream.get(5, TimeUnit.SECONDS);
+        }
+        assertThat(limiter.stats().getActiveStreams()).isZero();
+        assertThat(limiter.stats().getAvailablePermits()).isEqualTo(1);
+    }
+
+    //다른 스레드에서 release 될 때까지 허가를 쥐고 있는다
+    private CompletableFuture<Object> holdPermit(CountDownLatch release) throws Throwable {
+        CountDownLatch acquired = new CountDownLatch(1);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.proceed()).thenAnswer(invocation -> {
+            acquired.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        });
+        CompletableFuture<Object> holder = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.limit(joinPoint);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+        return holder;
+    }
+
+    private static ProceedingJoinPoint returning(Object result) throws Throwable {
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.proceed()).thenReturn(result);
+        return joinPoint;
+    }
+}
@@ -0,0 +1,143 @@
+package com.study.querydsl.repository.support;
+
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 커밋된 변경만 , 커밋당 한번 전달되는지 - 롤백 테스트가 아니라 실제로 커밋하고 , 끝나면 지운다
+ * 구독은 해제할 수 없으므로 이 테스트가 만든 회원 / 팀 변경만 골라서 본다
+ */
+@SpringBootTest
+class MemberChangeFeedTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MemberChangeFeed memberChangeFeed;
+
+    TransactionTemplate tx;
+
+    List<MemberChangeFeed.Changes> published = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void before(){
+        tx = new TransactionTemplate(transactionManager);
+        memberChangeFeed.subscribe(changes -> {
+            if(changes.getTeams().containsValue("feedTeam") || changes.getMembers().values().stream()
+                    .anyMatch(row -> row != null && row.getUsername().startsWith("feed"))){
+                published.add(changes);
+            }
+        });
+    }
+
+    @AfterEach
+    public void after(){
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'feed%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name like 'feed%'").executeUpdate();
+        });
+    }
+
+    @Test
+    public void commitIsPublishedOnce(){
+        Long[] ids = tx.execute(status -> {
+            Team team = new Team("feedTeam");
+            em.persist(team);
+            Member member = new Member("feedMember1", 10, team);
+            em.persist(member);
+            em.flush();
+            member.setAge(11);
+            return new Long[]{team.getId(), member.getId()};
+        });
+
+        assertThat(published).hasSize(1);
+        MemberChangeFeed.Changes changes = published.get(0);
+        assertThat(changes.getTeams()).containsEntry(ids[0], "feedTeam");
+        MemberChangeFeed.MemberRow row = changes.getMembers().get(ids[1]);
+        assertThat(row.getUsername()).isEqualTo("feedMember1");
+        assertThat(row.getAge()).isEqualTo(11);
+        assertThat(row.getTeamId()).isEqualTo(ids[0]);
+    }
+
+    @Test
+    public void rollbackIsNotPublished(){
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("feedMember2", 20));
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(published).isEmpty();
+    }
+
+    /**
+     * 먼저 커밋한 트랜잭션의 after-commit 이 나중에 실행돼도 마지막으로 전달되는 값은 마지막 커밋의 값
+     * A 의 after-commit 을 ( 피드보다 먼저 등록한 process 로 ) 잡아 두고 , 그 사이 B 가 같은 회원을 바꾸고 커밋한다
+     */
+    @Test
+    public void lateAfterCommitDoesNotOverwriteNewerValue() throws Exception {
+        Long memberId = tx.execute(status -> {
+            Member member = new Member("feedMember4", 40);
+            em.persist(member);
+            return member.getId();
+        });
+        CountDownLatch committed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread first = new Thread(() -> tx.executeWithoutResult(status -> {
+            ((EventSource) em.unwrap(SessionImplementor.class)).getActionQueue().registerProcess((success, session) -> {
+                committed.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            em.find(Member.class, memberId).setUsername("feedFirst");
+        }));
+        first.start();
+        try {
+            assertThat(committed.await(10, TimeUnit.SECONDS)).isTrue();
+            tx.executeWithoutResult(status -> em.find(Member.class, memberId).setUsername("feedSecond"));
+        } finally {
+            release.countDown();
+            first.join(10_000);
+        }
+
+        MemberChangeFeed.Changes last = published.get(published.size() - 1);
+        assertThat(last.getMembers().get(memberId).getUsername()).isEqualTo("feedSecond");
+    }
+
+    //flush 전에 persist 한 회원도 커밋 전 변경에 들어간다
+    @Test
+    public void uncommittedMemberIds(){
+        tx.executeWithoutResult(status -> {
+            Member member = new Member("feedMember3", 30);
+            em.persist(member);
+            assertThat(memberChangeFeed.uncommittedMemberIds()).contains(member.getId());
+        });
+
+        assertThat(memberChangeFeed.uncommittedMemberIds()).isEmpty();
+    }
+}
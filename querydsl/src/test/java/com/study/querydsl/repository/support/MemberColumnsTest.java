@@ -0,0 +1,181 @@
+package com.study.querydsl.repository.support;
+
+import com.study.querydsl.dto.AgeStatsDto;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.TeamStatsDto;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.repository.MemberBulkRepository;
+import com.study.querydsl.service.MemberAnalyticsService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.study.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 컬럼 복제본 집계 = Querydsl 집계 ( MemberAnalyticsService 의 DB 경로 )
+ *
+ * 복제본은 커밋된 변경만 반영하므로 롤백 테스트가 아니라 실제로 커밋하고 , 끝나면 지운다
+ * 복제본 결과는 트랜잭션 밖에서 , DB 결과는 쓰기 트랜잭션 안에서 ( 복제본을 쓰지 않는다 ) 구한다
+ */
+@SpringBootTest(properties = "member.columnar.enabled=true")
+class MemberColumnsTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MemberColumns memberColumns;
+
+    @Autowired
+    MemberAnalyticsService memberAnalyticsService;
+
+    @Autowired
+    MemberBulkRepository memberBulkRepository;
+
+    TransactionTemplate tx;
+
+    Long teamAId, teamBId;
+    Long member1Id, member2Id, member3Id;
+
+    @BeforeEach
+    public void before(){
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("colTeamA");
+            Team teamB = new Team("colTeamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member1 = new Member("colMember1", 10, teamA);
+            Member member2 = new Member("colMember2", 20, teamA);
+            Member member3 = new Member("colMember3", 30, teamB);
+            em.persist(member1);
+            em.persist(member2);
+            em.persist(member3);
+            em.persist(new Member("colMember4", 40));
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+            member1Id = member1.getId();
+            member2Id = member2.getId();
+            member3Id = member3.getId();
+        });
+        //DB 에서 전체 로딩
+        memberColumns.rebuild();
+    }
+
+    @AfterEach
+    public void after(){
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'col%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name like 'col%'").executeUpdate();
+        });
+        memberColumns.rebuild();
+    }
+
+    @Test
+    public void loadedMatchesQuerydsl(){
+        assertThat(memberColumns.isAvailable()).isTrue();
+        assertSameAsQuerydsl();
+    }
+
+    /**
+     * 커밋된 insert / update / delete / 팀 변경 ( 새로 만든 팀 포함 ) 이 반영된다
+     */
+    @Test
+    public void committedChangesMatchQuerydsl(){
+        tx.executeWithoutResult(status -> {
+            Team teamC = new Team("colTeamC");
+            em.persist(teamC);
+            em.persist(new Member("colMember5", 50, teamC));
+        });
+        assertSameAsQuerydsl();
+
+        tx.executeWithoutResult(status -> {
+            Member found = em.find(Member.class, member1Id);
+            found.setAge(15);
+            found.setUsername("colRenamed1");
+        });
+        assertSameAsQuerydsl();
+
+        tx.executeWithoutResult(status -> em.find(Member.class, member2Id).changeTeam(em.find(Team.class, teamBId)));
+        assertSameAsQuerydsl();
+
+        tx.executeWithoutResult(status -> em.remove(em.find(Member.class, member3Id)));
+        assertSameAsQuerydsl();
+    }
+
+    //벌크 연산은 MemberBulkEvent 로 대상 회원만 DB 에서 다시 읽는다
+    @Test
+    public void bulkChangesMatchQuerydsl(){
+        tx.executeWithoutResult(status -> memberBulkRepository.update(member.team.id.eq(teamAId),
+                update -> update.set(member.age, member.age.add(5))));
+        assertSameAsQuerydsl();
+
+        tx.executeWithoutResult(status -> memberBulkRepository.delete(member.id.eq(member3Id)));
+        assertSameAsQuerydsl();
+    }
+
+    @Test
+    public void rolledBackChangeIsNotApplied(){
+        tx.executeWithoutResult(status -> {
+            em.find(Member.class, member1Id).setAge(99);
+            em.flush();
+            status.setRollbackOnly();
+        });
+        assertSameAsQuerydsl();
+    }
+
+    private void assertSameAsQuerydsl() {
+        for (MemberSearchCondition condition : conditions()) {
+            AgeStatsDto columnar = memberAnalyticsService.ageStats(condition);
+            List<TeamStatsDto> columnarByTeam = memberAnalyticsService.ageStatsByTeam(condition);
+
+            AgeStatsDto querydsl = tx.execute(status -> memberAnalyticsService.ageStats(condition));
+            List<TeamStatsDto> querydslByTeam = tx.execute(status -> memberAnalyticsService.ageStatsByTeam(condition));
+
+            assertThat(columnar).as("aggregate %s", condition).isEqualTo(querydsl);
+            assertThat(columnarByTeam).as("aggregateByTeam %s", condition).isEqualTo(querydslByTeam);
+        }
+    }
+
+    private static List<MemberSearchCondition> conditions() {
+        List<MemberSearchCondition> conditions = new ArrayList<>();
+        conditions.add(new MemberSearchCondition());
+
+        MemberSearchCondition teamName = new MemberSearchCondition();
+        teamName.setTeamName("colTeamB");
+        conditions.add(teamName);
+
+        MemberSearchCondition username = new MemberSearchCondition();
+        username.setUsername("colRenamed1");
+        conditions.add(username);
+
+        MemberSearchCondition ageRange = new MemberSearchCondition();
+        ageRange.setAgeGoe(15);
+        ageRange.setAgeLoe(35);
+        conditions.add(ageRange);
+
+        MemberSearchCondition contains = new MemberSearchCondition();
+        contains.setUsernameContains("Member");
+        conditions.add(contains);
+
+        MemberSearchCondition startsWith = new MemberSearchCondition();
+        startsWith.setUsernameStartsWith("col");
+        startsWith.setAgeGoe(20);
+        conditions.add(startsWith);
+        return conditions;
+    }
+}
@@ -0,0 +1,71 @@
+package com.study.querydsl.repository.support;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDto;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.repository.MemberJpaRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class MemberSearchTemplatesTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberSearchTemplates searchTemplates;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @BeforeEach
+    public void before(){
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member1", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 25));
+    }
+
+    /**
+     * 조건 유무 조합 16가지 모두 동적 쿼리 ( searchDynamic ) 와 같은 결과
+     */
+    @Test
+    public void sameRowsAsDynamicQueryForEveryShape(){
+        for (int shape = 0; shape < 16; shape++) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUsername((shape & 1) != 0 ? "member1" : null);
+            condition.setTeamName((shape & 2) != 0 ? "teamB" : null);
+            condition.setAgeGoe((shape & 4) != 0 ? 15 : null);
+            condition.setAgeLoe((shape & 8) != 0 ? 35 : null);
+
+            List<MemberTeamDto> expected = memberJpaRepository.searchDynamic(condition);
+            assertThat(searchTemplates.search(condition))
+                    .as("shape %d : %s", shape, condition)
+                    .containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    @Test
+    public void offsetOverflowIsRejected(){
+        assertThatThrownBy(() -> searchTemplates.search(new MemberSearchCondition(), Integer.MAX_VALUE + 1L, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,259 @@
+package com.study.querydsl.repository.support;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDto;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.repository.MemberJpaRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 스냅샷은 커밋된 변경만 반영하므로 롤백 테스트가 아니라 실제로 커밋하고 , 끝나면 지운다
+ *
+ * 테스트마다 새 스냅샷을 쓰고 다시 map 한다 ( 재시작 직후처럼 따라잡기 전 상태 -> 스냅샷으로 응답 )
+ * DB 결과는 쓰기 트랜잭션 안에서 ( 스냅샷을 쓰지 않는다 ) 구한다
+ * 피드를 구독하지 않은 인스턴스 ( open 대신 load 만 ) 는 재시작한 프로세스 대신이다
+ */
+@SpringBootTest(properties = {
+        "member.snapshot.enabled=true",
+        "member.snapshot.path=${java.io.tmpdir}/querydsl-member-snapshot-test.snapshot"
+})
+class MemberSnapshotTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MemberSnapshot memberSnapshot;
+
+    @Autowired
+    MemberChangeFeed memberChangeFeed;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Value("${member.snapshot.path}")
+    String path;
+
+    @TempDir
+    Path tempDir;
+
+    TransactionTemplate tx;
+
+    Long member1Id, member2Id;
+
+    @BeforeEach
+    public void before() throws InterruptedException {
+        //기동 후 따라잡기 ( 별도 스레드 ) 가 끝난 뒤에 시작
+        awaitCaughtUp(memberSnapshot);
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("snapTeamA");
+            Team teamB = new Team("snapTeamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member1 = new Member("snapMember1", 10, teamA);
+            Member member2 = new Member("snapMember2", 20, teamA);
+            em.persist(member1);
+            em.persist(member2);
+            em.persist(new Member("snapMember3", 30, teamB));
+            em.persist(new Member("snapMember4", 40));
+            member1Id = member1.getId();
+            member2Id = member2.getId();
+        });
+        memberSnapshot.write();
+        memberSnapshot.load();
+    }
+
+    @AfterEach
+    public void after() throws InterruptedException {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'snap%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name like 'snap%'").executeUpdate();
+        });
+        memberSnapshot.catchUpAsync();
+        awaitCaughtUp(memberSnapshot);
+    }
+
+    @Test
+    public void writeMapSearch(){
+        assertThat(memberSnapshot.isServing()).isTrue();
+        //쓰기 트랜잭션 안에서는 DB 로
+        assertThat(tx.execute(status -> memberSnapshot.isServing())).isFalse();
+
+        assertSameAsDb(memberSnapshot);
+        MemberSearchCondition all = startsWith();
+        assertThat(memberJpaRepository.search(all)).isEqualTo(memberSnapshot.search(all));
+    }
+
+    /**
+     * 스냅샷 이후 커밋된 insert / update / delete 는 따라잡기 ( id 순 비교 ) 로 반영된다
+     */
+    @Test
+    public void catchUpAppliesDiff(){
+        MemberSnapshot restarted = restarted(path);
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("snapMember5", 50));
+            Member found = em.find(Member.class, member1Id);
+            found.setAge(11);
+            found.setUsername("snapRenamed1");
+            em.remove(em.find(Member.class, member2Id));
+        });
+
+        //따라잡기 전에는 스냅샷 시점 그대로
+        assertThat(restarted.search(startsWith())).extracting(MemberTeamDto::getUsername)
+                .containsExactly("snapMember1", "snapMember2", "snapMember3", "snapMember4");
+
+        restarted.catchUp();
+        assertSameAsDb(restarted);
+        assertThat(restarted.stats().getOverlayCount()).isEqualTo(3);
+    }
+
+    /**
+     * 커밋된 변경 ( 이벤트 ) 이 들어온 회원은 따라잡기 비교 결과로 덮어쓰지 않는다
+     * 이벤트 없이 바꾼 값 ( JPQL update ) 으로 비교 결과와 이벤트가 다른 상황을 만든다
+     */
+    @Test
+    public void liveEventWinsOverDiff(){
+        tx.executeWithoutResult(status -> em.find(Member.class, member1Id).setAge(15));
+        tx.executeWithoutResult(status -> em.createQuery("update Member m set m.age = 99 where m.id in (:ids)")
+                .setParameter("ids", List.of(member1Id, member2Id))
+                .executeUpdate());
+
+        assertThat(age(memberSnapshot, member1Id)).isEqualTo(15);
+        assertThat(age(memberSnapshot, member2Id)).isEqualTo(20);
+
+        memberSnapshot.catchUp();
+        assertThat(age(memberSnapshot, member1Id)).isEqualTo(15);
+        assertThat(age(memberSnapshot, member2Id)).isEqualTo(99);
+    }
+
+    @Test
+    public void reloadAfterRestart(){
+        MemberSnapshot restarted = restarted(path);
+
+        assertThat(restarted.stats().isLoaded()).isTrue();
+        assertThat(restarted.stats().getSnapshotCount()).isEqualTo(memberSnapshot.stats().getSnapshotCount());
+        assertThat(restarted.isServing()).isTrue();
+        for (MemberSearchCondition condition : conditions()) {
+            assertThat(restarted.search(condition)).as("search %s", condition).isEqualTo(memberSnapshot.search(condition));
+        }
+        assertSameAsDb(restarted);
+    }
+
+    /**
+     * 잘린 파일은 map 하지 않고 ( 검색마다 IndexOutOfBounds 대신 ) 따라잡기에서 새로 쓴다
+     */
+    @Test
+    public void truncatedFileIsRewritten() throws IOException {
+        Path truncated = tempDir.resolve("truncated.snapshot");
+        Files.copy(Paths.get(path), truncated);
+        try (FileChannel channel = FileChannel.open(truncated, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        MemberSnapshot restarted = restarted(truncated.toString());
+        assertThat(restarted.stats().isLoaded()).isFalse();
+        assertThat(restarted.isServing()).isFalse();
+
+        restarted.catchUpAsync();
+        assertThat(restarted.stats().isLoaded()).isTrue();
+        assertThat(restarted.stats().isCaughtUp()).isTrue();
+
+        MemberSnapshot reloaded = restarted(truncated.toString());
+        assertThat(reloaded.stats().isLoaded()).isTrue();
+        assertSameAsDb(reloaded);
+    }
+
+    //피드 구독 없이 파일만 map ( 따라잡기는 같은 스레드에서 )
+    private MemberSnapshot restarted(String file) {
+        MemberSnapshot snapshot = new MemberSnapshot(emf, memberChangeFeed, true, file, new SyncTaskExecutor());
+        snapshot.load();
+        return snapshot;
+    }
+
+    private void assertSameAsDb(MemberSnapshot snapshot) {
+        for (MemberSearchCondition condition : conditions()) {
+            List<MemberTeamDto> db = new ArrayList<>(tx.execute(status -> memberJpaRepository.search(condition)));
+            db.sort(Comparator.comparing(MemberTeamDto::getMemberId));
+            assertThat(snapshot.search(condition)).as("search %s", condition).isEqualTo(db);
+        }
+    }
+
+    private Integer age(MemberSnapshot snapshot, Long memberId) {
+        return snapshot.search(startsWith()).stream()
+                .filter(row -> row.getMemberId().equals(memberId))
+                .findFirst()
+                .orElseThrow()
+                .getAge();
+    }
+
+    //다른 테스트 데이터는 빼고 비교
+    private static MemberSearchCondition startsWith() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernameStartsWith("snap");
+        return condition;
+    }
+
+    private static List<MemberSearchCondition> conditions() {
+        List<MemberSearchCondition> conditions = new ArrayList<>();
+        conditions.add(startsWith());
+
+        MemberSearchCondition teamName = startsWith();
+        teamName.setTeamName("snapTeamA");
+        conditions.add(teamName);
+
+        MemberSearchCondition username = startsWith();
+        username.setUsername("snapMember3");
+        conditions.add(username);
+
+        MemberSearchCondition ageRange = startsWith();
+        ageRange.setAgeGoe(15);
+        ageRange.setAgeLoe(45);
+        conditions.add(ageRange);
+
+        MemberSearchCondition contains = startsWith();
+        contains.setUsernameContains("Member");
+        conditions.add(contains);
+        return conditions;
+    }
+
+    private static void awaitCaughtUp(MemberSnapshot snapshot) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!snapshot.stats().isCaughtUp()) {
+            if(System.currentTimeMillis() > deadline){
+                throw new AssertionError("회원 스냅샷 따라잡기 대기 시간 초과");
+            }
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class MeteredPagesTest {
+
+    @Autowired
+    MeterRegistry registry;
+
+    /**
+     * 주입받은 MeterRegistry 의 repository.page.count 로 보인다
+     */
+    @Test
+    public void countsExecutedAndSkipped(){
+        double executed = count("executed");
+        double skipped = count("skipped");
+
+        //첫 페이지인데 pageSize 보다 적다 -> count 생략
+        Page<Integer> first = MeteredPages.getPage(List.of(1, 2), PageRequest.of(0, 10), () -> 100);
+        assertThat(first.getTotalElements()).isEqualTo(2);
+        //가득 찬 페이지 -> count 필요
+        Page<Integer> full = MeteredPages.getPage(List.of(1, 2), PageRequest.of(0, 2), () -> 100);
+        assertThat(full.getTotalElements()).isEqualTo(100);
+
+        assertThat(count("skipped")).isEqualTo(skipped + 1);
+        assertThat(count("executed")).isEqualTo(executed + 1);
+    }
+
+    private double count(String result) {
+        return registry.get("repository.page.count").tag("result", result).functionCounter().count();
+    }
+}
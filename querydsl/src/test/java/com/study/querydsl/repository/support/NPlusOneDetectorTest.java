@@ -0,0 +1,64 @@
+package com.study.querydsl.repository.support;
+
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.repository.MemberTestRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "member.n-plus-one.sample-rate=1",
+        "member.n-plus-one.threshold=2",
+        //batch fetch 를 끄고 row 마다 지연 로딩이 일어나는 상황을 만든다
+        "spring.jpa.properties.hibernate.default_batch_fetch_size=1"
+})
+@Transactional
+class NPlusOneDetectorTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberTestRepository memberTestRepository;
+
+    @Autowired
+    NPlusOneDetector detector;
+
+    @BeforeEach
+    public void before(){
+        for (int i = 0; i < 4; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            em.persist(new Member("member" + i, 10 + i, team));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void lazyTeamPerRowIsReported(){
+        int before = detector.reports().size();
+
+        List<Member> members = memberTestRepository.basicSelectFrom();
+        for (Member member : members) {
+            //row 마다 team 프록시 초기화
+            member.getTeam().getName();
+        }
+
+        List<NPlusOneDetector.Report> reports = detector.reports();
+        assertThat(reports).hasSize(before + 1);
+        NPlusOneDetector.Report report = reports.get(reports.size() - 1);
+        assertThat(report.getTarget()).isEqualTo("Team");
+        assertThat(report.getRepositoryMethod()).isEqualTo("MemberTestRepository.basicSelectFrom");
+        assertThat(report.getCallSite()).contains("NPlusOneDetectorTest.lazyTeamPerRowIsReported");
+        assertThat(report.getSuggestion()).contains(".leftJoin(member.team, team).fetchJoin()");
+    }
+}
@@ -0,0 +1,172 @@
+package com.study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ParallelPageExecutorTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    DatabaseConcurrencyLimiter limiter;
+
+    ParallelPageExecutor executor;
+
+    @BeforeEach
+    public void before(){
+        limiter = new DatabaseConcurrencyLimiter(true, 2, Duration.ofSeconds(1), 1);
+        executor = new ParallelPageExecutor(emf, limiter, true, 2, 10);
+    }
+
+    @AfterEach
+    public void after(){
+        executor.shutdown();
+    }
+
+    @Test
+    public void fullPageUsesParallelCount(){
+        Page<Integer> page = executor.getPage(PageRequest.of(0, 10), em -> rows(10), em -> 42L);
+
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(page.getTotalElements()).isEqualTo(42);
+    }
+
+    /**
+     * count 용 허가가 없으면 커넥션을 더 쓰지 않고 호출 스레드에서 content -> count 순서로
+     */
+    @Test
+    public void noPermitRunsCountOnCallingThread(){
+        DatabaseConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        DatabaseConcurrencyLimiter.Permit second = limiter.tryAcquire();
+        try {
+            assertThat(limiter.tryAcquire()).isNull();
+            AtomicReference<Thread> countThread = new AtomicReference<>();
+            Page<Integer> page = executor.getPage(PageRequest.of(0, 10), em -> rows(10), em -> {
+                countThread.set(Thread.currentThread());
+                return 42L;
+            });
+
+            assertThat(page.getTotalElements()).isEqualTo(42);
+            assertThat(countThread.get()).isSameAs(Thread.currentThread());
+        } finally {
+            first.release();
+            second.release();
+        }
+    }
+
+    /**
+     * count 가 끝나거나 취소되면 허가를 반납한다
+     */
+    @Test
+    public void countReleasesPermit() throws Exception {
+        executor.getPage(PageRequest.of(0, 10), em -> rows(10), em -> 42L);
+        executor.getPage(PageRequest.of(0, 10), em -> rows(3), em -> 42L);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (limiter.stats().getAvailablePermits() != 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(limiter.stats().getAvailablePermits()).isEqualTo(2);
+    }
+
+    /**
+     * 첫 페이지인데 content 가 pageSize 보다 적으면 count 를 기다리지 않는다
+     */
+    @Test
+    public void shortPageDoesNotWaitForCount() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Page<Integer> page = executor.getPage(PageRequest.of(0, 10), em -> rows(3), em -> {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 999L;
+            });
+
+            assertThat(page.getTotalElements()).isEqualTo(3);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * 마지막 페이지라 count 가 필요 없으면 실행 중인 count 쿼리는 DB 에서 취소된다
+     * content 는 count 문장이 DB 에서 실행 중인 것 ( INFORMATION_SCHEMA.SESSIONS ) 을 확인한 뒤에 끝난다
+     * count 는 취소되지 않으면 끝나지 않을 만큼 큰 재귀 쿼리
+     */
+    @Test
+    public void runningCountIsCancelledOnLastPage() throws Exception {
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        Page<Integer> page = executor.getPage(PageRequest.of(2, 10), em -> {
+            awaitExecuting(em, "parallel_count_test");
+            return rows(5);
+        }, em -> {
+            try {
+                return ((Number) em.createNativeQuery(
+                        "with recursive parallel_count_test(n) as (select 1 union all"
+                                + " select n + 1 from parallel_count_test where n < 1000000000)"
+                                + " select count(*) from parallel_count_test").getSingleResult()).longValue();
+            } catch (RuntimeException e) {
+                failure.set(e);
+                throw e;
+            } finally {
+                finished.countDown();
+            }
+        });
+
+        assertThat(page.getTotalElements()).isEqualTo(25);
+        assertThat(finished.await(10, TimeUnit.SECONDS)).isTrue();
+        //H2 STATEMENT_WAS_CANCELED
+        assertThat(sqlState(failure.get())).isEqualTo("57014");
+    }
+
+    //다른 세션에서 이 이름이 들어간 문장이 실행 중일 때까지 대기
+    private static void awaitExecuting(EntityManager em, String marker) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (((Number) em.createNativeQuery("select count(*) from information_schema.sessions"
+                        + " where executing_statement like ? and session_id <> session_id()")
+                .setParameter(1, "%" + marker + "%")
+                .getSingleResult()).longValue() == 0) {
+            if(System.currentTimeMillis() > deadline){
+                throw new AssertionError("count 쿼리 시작 대기 시간 초과");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static String sqlState(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if(cause instanceof SQLException){
+                return ((SQLException) cause).getSQLState();
+            }
+        }
+        return null;
+    }
+
+    private static List<Integer> rows(int size) {
+        return IntStream.range(0, size).boxed().collect(Collectors.toList());
+    }
+}
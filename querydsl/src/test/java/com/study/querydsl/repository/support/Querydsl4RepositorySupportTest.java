@@ -0,0 +1,36 @@
+package com.study.querydsl.repository.support;
+
+import com.querydsl.core.types.Projections;
+import com.study.querydsl.dto.MemberDto;
+import org.junit.jupiter.api.Test;
+
+import static com.study.querydsl.entity.QMember.member;
+import static com.study.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 엔티티를 조회하는 select 는 SingleFlight 로 결과를 나눠 쓰지 않는다
+ */
+class Querydsl4RepositorySupportTest {
+
+    @Test
+    public void entityProjection(){
+        assertThat(Querydsl4RepositorySupport.selectsEntity(member)).isTrue();
+        assertThat(Querydsl4RepositorySupport.selectsEntity(member.team)).isTrue();
+    }
+
+    @Test
+    public void entityInsideTuple(){
+        assertThat(Querydsl4RepositorySupport.selectsEntity(Projections.tuple(member, team))).isTrue();
+        assertThat(Querydsl4RepositorySupport.selectsEntity(
+                Projections.tuple(member.username, Projections.tuple(team)))).isTrue();
+    }
+
+    @Test
+    public void valueProjection(){
+        assertThat(Querydsl4RepositorySupport.selectsEntity(member.username)).isFalse();
+        assertThat(Querydsl4RepositorySupport.selectsEntity(
+                Projections.fields(MemberDto.class, member.username, member.age))).isFalse();
+        assertThat(Querydsl4RepositorySupport.selectsEntity(Projections.tuple(member.id, team.name))).isFalse();
+    }
+}
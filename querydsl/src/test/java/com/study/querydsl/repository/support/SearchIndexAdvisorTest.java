@@ -0,0 +1,41 @@
+package com.study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchIndexAdvisorTest {
+
+    List<String> primaryKey = List.of("member_id");
+    List<String> usernameAge = List.of("username", "age", "team_id");
+    List<String> ageId = List.of("age", "member_id");
+    List<String> teamAge = List.of("team_id", "age");
+
+    @Test
+    public void equalityThenRange(){
+        assertThat(SearchIndexAdvisor.supports(usernameAge, Set.of("username"), "age")).isTrue();
+        assertThat(SearchIndexAdvisor.supports(teamAge, Set.of("team_id"), "age")).isTrue();
+        assertThat(SearchIndexAdvisor.supports(teamAge, Set.of("team_id"), null)).isTrue();
+        assertThat(SearchIndexAdvisor.supports(usernameAge, Set.of("team_id"), "age")).isFalse();
+    }
+
+    //범위 조건만 있는 shape ( ageGoe+ageLoe , usernameStartsWith ) 은 첫 컬럼이 범위 조건 컬럼이어야 한다
+    @Test
+    public void rangeOnlyNeedsLeadingRangeColumn(){
+        assertThat(SearchIndexAdvisor.supports(ageId, Set.of(), "age")).isTrue();
+        assertThat(SearchIndexAdvisor.supports(usernameAge, Set.of(), "username")).isTrue();
+        assertThat(SearchIndexAdvisor.supports(primaryKey, Set.of(), "age")).isFalse();
+        assertThat(SearchIndexAdvisor.supports(primaryKey, Set.of(), "username")).isFalse();
+        assertThat(SearchIndexAdvisor.supports(teamAge, Set.of(), "age")).isFalse();
+    }
+
+    //같음 조건 다음 컬럼이 범위 조건이 아니면 범위는 인덱스로 못 거른다
+    @Test
+    public void rangeMustFollowEquality(){
+        assertThat(SearchIndexAdvisor.supports(List.of("username", "team_id", "age"), Set.of("username"), "age")).isFalse();
+        assertThat(SearchIndexAdvisor.supports(List.of("username"), Set.of("username"), "age")).isFalse();
+    }
+}
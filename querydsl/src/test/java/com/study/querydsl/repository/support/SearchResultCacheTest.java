@@ -0,0 +1,98 @@
+package com.study.querydsl.repository.support;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultCacheTest {
+
+    AtomicInteger loads = new AtomicInteger();
+
+    Supplier<List<MemberTeamDto>> loader = () -> {
+        loads.incrementAndGet();
+        return List.of(new MemberTeamDto(1L, "member1", 10, 1L, "teamA"));
+    };
+
+    @Test
+    public void sameConditionIsServedFromCache(){
+        SearchResultCache cache = new SearchResultCache(true, Duration.ofMinutes(1), 100, DataSize.ofMegabytes(1));
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        MemberSearchCondition blank = new MemberSearchCondition();
+        blank.setTeamName("teamA");
+        blank.setUsername(" ");
+
+        List<MemberTeamDto> first = cache.get("search", condition, loader);
+        first.get(0).setUsername("changed");
+        List<MemberTeamDto> second = cache.get("search", blank, loader);
+
+        //"" / " " 는 조건 없음과 같은 key , 꺼낸 결과를 바꿔도 캐시는 그대로
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(second.get(0).getUsername()).isEqualTo("member1");
+        assertThat(cache.stats().getHitRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    public void tableWriteInvalidates(){
+        SearchResultCache cache = new SearchResultCache(true, Duration.ofMinutes(1), 100, DataSize.ofMegabytes(1));
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        cache.get("search", condition, loader);
+        cache.onTableWrite(new TableWriteEvent("hello", true));
+        cache.get("search", condition, loader);
+        assertThat(loads.get()).isEqualTo(1);
+
+        //벌크 update 도 SQL 단계에서 같은 이벤트
+        cache.onTableWrite(new TableWriteEvent("MEMBER", false));
+        cache.get("search", condition, loader);
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.stats().getInvalidationCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed(){
+        SearchResultCache cache = new SearchResultCache(true, Duration.ofMinutes(1), 2, DataSize.ofMegabytes(1));
+        MemberSearchCondition a = new MemberSearchCondition();
+        a.setAgeGoe(10);
+        MemberSearchCondition b = new MemberSearchCondition();
+        b.setAgeGoe(20);
+        MemberSearchCondition c = new MemberSearchCondition();
+        c.setAgeGoe(30);
+
+        cache.get("search", a, loader);
+        cache.get("search", b, loader);
+        cache.get("search", a, loader);   //b 가 가장 오래 안 씀
+        cache.get("search", c, loader);
+        cache.get("search", a, loader);
+        assertThat(loads.get()).isEqualTo(3);
+
+        cache.get("search", b, loader);
+        assertThat(loads.get()).isEqualTo(4);
+        assertThat(cache.stats().getSize()).isEqualTo(2);
+        assertThat(cache.stats().getEvictionCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void weightAndTtlLimits(){
+        //결과 하나가 max-weight 보다 크면 저장하지 않는다
+        SearchResultCache small = new SearchResultCache(true, Duration.ofMinutes(1), 100, DataSize.ofBytes(100));
+        small.get("search", new MemberSearchCondition(), loader);
+        small.get("search", new MemberSearchCondition(), loader);
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(small.stats().getWeightBytes()).isZero();
+
+        SearchResultCache expired = new SearchResultCache(true, Duration.ZERO, 100, DataSize.ofMegabytes(1));
+        expired.get("search", new MemberSearchCondition(), loader);
+        expired.get("search", new MemberSearchCondition(), loader);
+        assertThat(loads.get()).isEqualTo(4);
+        assertThat(expired.stats().getExpirationCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,159 @@
+package com.study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    SingleFlight singleFlight = new SingleFlight(true, Duration.ofSeconds(5));
+
+    @Test
+    public void concurrentCallsShareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            Future<List<String>> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                await(release);
+                return List.of("member1");
+            }));
+            started.await(5, TimeUnit.SECONDS);
+
+            List<Future<List<String>>> followers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                followers.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                    executions.incrementAndGet();
+                    return List.of("other");
+                })));
+            }
+            //follower 가 모두 기다리기 시작할 때까지
+            while (singleFlight.stats().getSharedCount() < followers.size()) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).containsExactly("member1");
+            for (Future<List<String>> follower : followers) {
+                assertThat(follower.get(5, TimeUnit.SECONDS)).containsExactly("member1");
+            }
+            assertThat(executions.get()).isEqualTo(1);
+            assertThat(singleFlight.stats().getInFlight()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void finishedFlightIsNotReused(){
+        AtomicInteger executions = new AtomicInteger();
+        singleFlight.execute("key", executions::incrementAndGet);
+        singleFlight.execute("key", executions::incrementAndGet);
+
+        //캐시가 아니다 -> 끝난 뒤에 온 호출은 다시 실행
+        assertThat(executions.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void leaderExceptionIsRethrown(){
+        assertThatThrownBy(() -> singleFlight.execute("key", () -> {
+            throw new IllegalStateException("db down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.execute("key", () -> "ok")).isEqualTo("ok");
+    }
+
+    /**
+     * leader 가 timeout 보다 오래 걸리면 follower 는 기다리지 않고 직접 실행한다
+     */
+    @Test
+    public void slowLeaderFollowerRunsItself() throws Exception {
+        SingleFlight shortWait = new SingleFlight(true, Duration.ofMillis(100));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = executor.submit(() -> shortWait.execute("key", () -> {
+                started.countDown();
+                await(release);
+                return "leader";
+            }));
+            started.await(5, TimeUnit.SECONDS);
+
+            assertThat(shortWait.execute("key", () -> "follower")).isEqualTo("follower");
+            assertThat(shortWait.stats().getTimeoutCount()).isEqualTo(1);
+
+            release.countDown();
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("leader");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    //기다리는 중 인터럽트 -> 인터럽트 상태를 남기고 예외 ( 직접 실행하지 않는다 )
+    @Test
+    public void interruptedFollowerStopsWaiting() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger followerExecutions = new AtomicInteger();
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> singleFlight.execute("key", () -> {
+                started.countDown();
+                await(release);
+                return "leader";
+            }));
+            started.await(5, TimeUnit.SECONDS);
+
+            Thread follower = new Thread(() -> {
+                try {
+                    singleFlight.execute("key", followerExecutions::incrementAndGet);
+                } catch (RuntimeException e) {
+                    thrown.set(e);
+                    interrupted.set(Thread.currentThread().isInterrupted());
+                }
+            });
+            follower.start();
+            while (singleFlight.stats().getSharedCount() < 1) {
+                Thread.sleep(10);
+            }
+            follower.interrupt();
+            follower.join(5_000);
+
+            assertThat(thrown.get()).isInstanceOf(IllegalStateException.class)
+                    .hasCauseInstanceOf(InterruptedException.class);
+            assertThat(interrupted.get()).isTrue();
+            assertThat(followerExecutions.get()).isZero();
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.study.querydsl.repository.support;
+
+import com.study.querydsl.dto.TeamStatsDto;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import com.study.querydsl.repository.MemberBulkRepository;
+import com.study.querydsl.service.TeamStatsService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static com.study.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 증분 갱신은 커밋 직전에 반영되므로 롤백 테스트가 아니라 실제로 커밋하고 , 끝나면 지운다
+ */
+@SpringBootTest
+class TeamStatsListenerTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    TeamStatsService teamStatsService;
+
+    @Autowired
+    MemberBulkRepository memberBulkRepository;
+
+    TransactionTemplate tx;
+
+    Long teamAId, teamBId;
+    Long member1Id, member2Id;
+
+    @BeforeEach
+    public void before(){
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("statsTeamA");
+            Team teamB = new Team("statsTeamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member1 = new Member("statsMember1", 10, teamA);
+            Member member2 = new Member("statsMember2", 20, teamA);
+            em.persist(member1);
+            em.persist(member2);
+            em.persist(new Member("statsMember3", 30, teamB));
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+            member1Id = member1.getId();
+            member2Id = member2.getId();
+        });
+    }
+
+    @AfterEach
+    public void after(){
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'statsMember%'").executeUpdate();
+            em.createQuery("delete from TeamStats s where s.teamId in (:ids)")
+                    .setParameter("ids", List.of(teamAId, teamBId)).executeUpdate();
+            em.createQuery("delete from Team t where t.id in (:ids)")
+                    .setParameter("ids", List.of(teamAId, teamBId)).executeUpdate();
+        });
+    }
+
+    /**
+     * 팀 insert -> 통계 row , 회원 insert -> 증분
+     */
+    @Test
+    public void insertIsApplied(){
+        assertStats(teamAId, 2, 30, 10, 20);
+        assertStats(teamBId, 1, 30, 30, 30);
+    }
+
+    @Test
+    public void changeTeamAndDeleteAreApplied(){
+        tx.executeWithoutResult(status ->
+                em.find(Member.class, member2Id).changeTeam(em.find(Team.class, teamBId)));
+
+        //최대 나이 회원이 빠진 팀 A 는 dirty -> 최소 / 최대는 조회 시점에 다시 계산
+        assertStats(teamAId, 1, 10, 10, 10);
+        assertStats(teamBId, 2, 50, 20, 30);
+
+        tx.executeWithoutResult(status -> em.remove(em.find(Member.class, member1Id)));
+
+        assertStats(teamAId, 0, 0, null, null);
+    }
+
+    /**
+     * 벌크 연산은 MemberBulkEvent -> 같은 트랜잭션에서 대상 팀 재계산
+     */
+    @Test
+    public void bulkUpdateIsApplied(){
+        tx.executeWithoutResult(status -> memberBulkRepository.update(member.team.id.eq(teamBId),
+                update -> update.set(member.age, member.age.add(1))));
+
+        assertStats(teamBId, 1, 31, 31, 31);
+        assertStats(teamAId, 2, 30, 10, 20);
+    }
+
+    @Test
+    public void recomputeMatchesIncremental(){
+        tx.executeWithoutResult(status ->
+                em.find(Member.class, member2Id).changeTeam(em.find(Team.class, teamBId)));
+        tx.executeWithoutResult(status -> teamStatsService.recompute(List.of(teamBId, teamAId)));
+
+        assertStats(teamAId, 1, 10, 10, 10);
+        assertStats(teamBId, 2, 50, 20, 30);
+    }
+
+    private void assertStats(Long teamId, long count, long sum, Integer min, Integer max) {
+        TeamStatsDto stats = teamStatsService.findAll().stream()
+                .filter(row -> row.getTeamId().equals(teamId))
+                .findFirst()
+                .orElseThrow();
+        assertThat(stats.getMemberCount()).as("memberCount").isEqualTo(count);
+        assertThat(stats.getAgeSum()).as("ageSum").isEqualTo(sum);
+        assertThat(stats.getMinAge()).as("minAge").isEqualTo(min);
+        assertThat(stats.getMaxAge()).as("maxAge").isEqualTo(max);
+    }
+}
@@ -0,0 +1,73 @@
+package com.study.querydsl.repository.support;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UsernameIndexPostingsTest {
+
+    UsernameIndex.Postings postings = new UsernameIndex.Postings();
+
+    @BeforeEach
+    public void before(){
+        postings.put(1L, "member1");
+        postings.put(2L, "member12");
+        postings.put(3L, "other");
+    }
+
+    @Test
+    public void containsByTrigram(){
+        assertThat(postings.contains("mber1", 10)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(postings.contains("ber12", 10)).containsExactly(2L);
+        assertThat(postings.contains("xyz", 10)).isEmpty();
+    }
+
+    //3글자보다 짧으면 trigram 없이 전체 확인
+    @Test
+    public void containsShortText(){
+        assertThat(postings.contains("r1", 10)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(postings.contains("o", 10)).containsExactly(3L);
+    }
+
+    @Test
+    public void startsWith(){
+        assertThat(postings.startsWith("member1", 10)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(postings.startsWith("member12", 10)).containsExactly(2L);
+        assertThat(postings.startsWith("oth", 10)).containsExactly(3L);
+        assertThat(postings.startsWith("z", 10)).isEmpty();
+    }
+
+    @Test
+    public void updateAndRemove(){
+        postings.put(1L, "renamed");
+        assertThat(postings.contains("mber1", 10)).containsExactly(2L);
+        assertThat(postings.contains("name", 10)).containsExactly(1L);
+        assertThat(postings.startsWith("member", 10)).containsExactly(2L);
+
+        Map<Long, String> changes = new HashMap<>();
+        changes.put(2L, null);
+        changes.put(4L, "member4");
+        postings.apply(changes);
+        assertThat(postings.startsWith("member", 10)).containsExactly(4L);
+        assertThat(postings.contains("ber12", 10)).isEmpty();
+    }
+
+    //후보가 limit 보다 많으면 null ( like 만으로 조회 )
+    @Test
+    public void overLimitIsNull(){
+        assertThat(postings.startsWith("member", 1)).isNull();
+        assertThat(postings.contains("mber", 1)).isNull();
+        assertThat(postings.contains("er", 2)).isNull();
+    }
+
+    //H2 like 처럼 대소문자를 구분한다
+    @Test
+    public void caseSensitive(){
+        assertThat(postings.contains("MEMBER", 10)).isEmpty();
+        assertThat(postings.startsWith("Member", 10)).isEmpty();
+    }
+}
@@ -0,0 +1,140 @@
+package com.study.querydsl.repository.support;
+
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.repository.MemberBulkRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static com.study.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 커밋된 변경이 인덱스에 반영되는지 - 롤백 테스트가 아니라 실제로 커밋하고 , 끝나면 지운다
+ */
+@SpringBootTest
+class UsernameIndexTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    UsernameIndex usernameIndex;
+
+    @Autowired
+    MemberChangeFeed memberChangeFeed;
+
+    @Autowired
+    MemberBulkRepository memberBulkRepository;
+
+    TransactionTemplate tx;
+
+    Long memberId;
+
+    @BeforeEach
+    public void before(){
+        tx = new TransactionTemplate(transactionManager);
+        usernameIndex.rebuild();
+        memberId = tx.execute(status -> {
+            Member member = new Member("idxAlpha01", 10);
+            em.persist(member);
+            return member.getId();
+        });
+    }
+
+    @AfterEach
+    public void after(){
+        tx.executeWithoutResult(status ->
+                em.createQuery("delete from Member m where m.username like 'idx%'").executeUpdate());
+        usernameIndex.rebuild();
+    }
+
+    @Test
+    public void committedInsertUpdateDelete(){
+        assertThat(usernameIndex.contains("Alpha0")).contains(memberId);
+        assertThat(usernameIndex.startsWith("idxAlpha")).contains(memberId);
+
+        tx.executeWithoutResult(status -> em.find(Member.class, memberId).setUsername("idxBeta01"));
+        assertThat(usernameIndex.contains("Alpha0")).doesNotContain(memberId);
+        assertThat(usernameIndex.contains("Beta0")).contains(memberId);
+
+        tx.executeWithoutResult(status -> em.remove(em.find(Member.class, memberId)));
+        assertThat(usernameIndex.contains("Beta0")).doesNotContain(memberId);
+    }
+
+    @Test
+    public void rolledBackChangeIsNotApplied(){
+        tx.executeWithoutResult(status -> {
+            em.find(Member.class, memberId).setUsername("idxGamma01");
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(usernameIndex.contains("Gamma0")).doesNotContain(memberId);
+        assertThat(usernameIndex.contains("Alpha0")).contains(memberId);
+    }
+
+    /**
+     * 벌크 update 는 엔티티 이벤트가 없다 -> MemberBulkEvent 의 회원을 커밋 후 DB 에서 다시 읽는다
+     */
+    @Test
+    public void bulkUpdateIsReloaded(){
+        tx.executeWithoutResult(status -> memberBulkRepository.update(member.id.eq(memberId),
+                update -> update.set(member.username, "idxBulk01")));
+
+        assertThat(usernameIndex.contains("Bulk0")).contains(memberId);
+        assertThat(usernameIndex.contains("Alpha0")).doesNotContain(memberId);
+
+        tx.executeWithoutResult(status -> memberBulkRepository.delete(member.id.eq(memberId)));
+        assertThat(usernameIndex.contains("Bulk0")).doesNotContain(memberId);
+    }
+
+    /**
+     * 전체 로딩 중에 커밋된 변경은 기록했다가 새 인덱스에 다시 적용한다
+     */
+    @Test
+    public void changeCommittedDuringRebuildIsKept(){
+        UsernameIndex index = new UsernameIndex(emf, memberChangeFeed, true, 1000) {
+            @Override
+            Postings load() {
+                Postings loaded = super.load();
+                //로딩이 끝나기 전에 커밋된 변경 ( DB 에서 읽은 결과에는 없다 )
+                commit(Map.of(memberId, "idxDuringRebuild"));
+                return loaded;
+            }
+        };
+        index.rebuild();
+
+        assertThat(index.contains("DuringRebuild")).containsExactly(memberId);
+        assertThat(index.contains("Alpha0")).doesNotContain(memberId);
+    }
+
+    //후보가 max-candidates 보다 많으면 null ( like 조건만으로 조회 )
+    @Test
+    public void overMaxCandidatesFallsBack(){
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("idxAlpha02", 20));
+            em.persist(new Member("idxAlpha03", 30));
+        });
+        UsernameIndex index = new UsernameIndex(emf, memberChangeFeed, true, 2);
+        index.rebuild();
+
+        assertThat(index.startsWith("idxAlpha")).isNull();
+        assertThat(index.contains("Alpha0")).isNull();
+        assertThat(index.startsWith("idxAlpha01")).containsExactly(memberId);
+    }
+}
@@ -0,0 +1,70 @@
+package com.study.querydsl.service;
+
+import com.study.querydsl.dto.AgeStatsDto;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.TeamStatsDto;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberAnalyticsServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberAnalyticsService memberAnalyticsService;
+
+    @BeforeEach
+    public void before(){
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+    }
+
+    /**
+     * QuerydslBasicTest.aggregation 과 같은 결과
+     * ( 쓰기 트랜잭션 안이라 컬럼 복제본 대신 DB 집계 )
+     */
+    @Test
+    public void ageStats(){
+        AgeStatsDto stats = memberAnalyticsService.ageStats(new MemberSearchCondition());
+
+        assertThat(stats.getMemberCount()).isEqualTo(4);
+        assertThat(stats.getAgeSum()).isEqualTo(100);
+        assertThat(stats.getAgeAvg()).isEqualTo(25);
+        assertThat(stats.getMinAge()).isEqualTo(10);
+        assertThat(stats.getMaxAge()).isEqualTo(40);
+    }
+
+    /**
+     * QuerydslBasicTest.group + 검색 조건
+     */
+    @Test
+    public void ageStatsByTeam(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        List<TeamStatsDto> result = memberAnalyticsService.ageStatsByTeam(condition);
+
+        assertThat(result).extracting("teamName").containsExactly("teamA", "teamB");
+        assertThat(result).extracting("ageAvg").containsExactly(20.0, 35.0);
+    }
+}
@@ -0,0 +1,135 @@
+package com.study.querydsl.service;
+
+import com.study.querydsl.dto.BulkJobDto;
+import com.study.querydsl.dto.BulkJobRequest;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.entity.BulkJob;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 작업이 별도 스레드 + 청크마다 커밋이라 롤백 테스트가 아니라 실제로 커밋하고 , 끝나면 지운다
+ * throttle 을 늘려서 청크 사이에 멈출 시간을 만든다
+ */
+@SpringBootTest(properties = "member.bulk-job.throttle=300ms")
+class MemberBulkJobServiceTest {
+
+    private static final String TEAM_NAME = "bulkJobTeam";
+    private static final int MEMBER_COUNT = 50;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MemberBulkJobService memberBulkJobService;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before(){
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team team = new Team(TEAM_NAME);
+            em.persist(team);
+            for (int i = 0; i < MEMBER_COUNT; i++) {
+                em.persist(new Member("bulkJob" + i, 10, team));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after(){
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'bulkJob%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name = :name").setParameter("name", TEAM_NAME).executeUpdate();
+            em.createQuery("delete from BulkJob j").executeUpdate();
+        });
+    }
+
+    /**
+     * 중간에 멈추고 resume 해도 체크포인트 다음 청크부터 - 모든 회원의 나이가 정확히 1 늘어난다
+     */
+    @Test
+    public void stopAndResumeWithoutReprocessing() throws Exception {
+        BulkJobRequest request = new BulkJobRequest();
+        request.setAction(BulkJob.Action.INCREASE_AGE);
+        request.setValue("1");
+        request.setChunkSize(10);
+        request.getCondition().setTeamName(TEAM_NAME);
+
+        Long jobId = memberBulkJobService.start(request).getJobId();
+        await(jobId, job -> job.getChunkCount() >= 1);
+        memberBulkJobService.stop(jobId);
+
+        BulkJobDto stopped = await(jobId, job -> job.getStatus() != BulkJob.Status.RUNNING);
+        assertThat(stopped.getStatus()).isEqualTo(BulkJob.Status.STOPPED);
+        assertThat(stopped.getLastId()).isLessThan(stopped.getMaxId());
+        //멈춘 작업은 다시 stop 할 수 없다 ( 409 )
+        assertThatThrownBy(() -> memberBulkJobService.stop(jobId))
+                .isInstanceOf(BulkJobStateException.class);
+
+        memberBulkJobService.resume(jobId);
+        BulkJobDto completed = await(jobId, job -> job.getStatus() != BulkJob.Status.RUNNING);
+
+        assertThat(completed.getStatus()).isEqualTo(BulkJob.Status.COMPLETED);
+        assertThat(completed.getChunkCount()).isGreaterThan(stopped.getChunkCount());
+        assertThat(completed.getAffectedCount()).isEqualTo(MEMBER_COUNT);
+        List<Integer> ages = em.createQuery("select m.age from Member m where m.username like 'bulkJob%'", Integer.class)
+                .getResultList();
+        assertThat(ages).hasSize(MEMBER_COUNT).containsOnly(11);
+    }
+
+    @Test
+    public void completedJobCannotBeResumed() throws Exception {
+        BulkJobRequest request = new BulkJobRequest();
+        request.setAction(BulkJob.Action.RENAME);
+        request.setValue("bulkJobRenamed");
+        request.getCondition().setTeamName(TEAM_NAME);
+
+        Long jobId = memberBulkJobService.start(request).getJobId();
+        await(jobId, job -> job.getStatus() != BulkJob.Status.RUNNING);
+
+        assertThatThrownBy(() -> memberBulkJobService.resume(jobId))
+                .isInstanceOf(BulkJobStateException.class);
+    }
+
+    /**
+     * error 컬럼 ( varchar 255 ) 보다 긴 예외 메시지는 잘라서 저장한다
+     */
+    @Test
+    public void longErrorIsTruncated(){
+        BulkJob job = new BulkJob(BulkJob.Action.DELETE, null, new MemberSearchCondition(), 10, 0, 10);
+        job.finish(BulkJob.Status.FAILED, "x".repeat(1000));
+
+        assertThat(job.getError()).hasSize(BulkJob.ERROR_LENGTH);
+    }
+
+    private BulkJobDto await(Long jobId, Predicate<BulkJobDto> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            BulkJobDto job = memberBulkJobService.find(jobId);
+            if(condition.test(job)){
+                return job;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("작업 상태 대기 시간 초과: " + memberBulkJobService.find(jobId));
+    }
+}
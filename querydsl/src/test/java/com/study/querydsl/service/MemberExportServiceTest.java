@@ -0,0 +1,111 @@
+package com.study.querydsl.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class MemberExportServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberExportService memberExportService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+
+    @BeforeEach
+    public void before(){
+        Team team = new Team("streamTeam");
+        em.persist(team);
+        for (int i = 0; i < 250; i++) {
+            em.persist(new Member("member" + i, i % 50, team));
+        }
+        em.flush();
+        condition.setTeamName("streamTeam");
+    }
+
+    /**
+     * chunk-size ( 100 ) 건마다 이벤트 하나 + 마지막 end 이벤트
+     */
+    @Test
+    public void streamServerSentEvents() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        memberExportService.stream(condition, MemberExportService.StreamFormat.SSE, out);
+
+        String[] events = out.toString(StandardCharsets.UTF_8).split("\n\n");
+        assertThat(events).hasSize(4);
+        assertThat(events[0]).startsWith("event: members\ndata: [");
+        assertThat(objectMapper.readTree(data(events[0]))).hasSize(100);
+        assertThat(objectMapper.readTree(data(events[2]))).hasSize(50);
+        assertThat(events[3]).isEqualTo("event: end\ndata: {\"count\":250}");
+    }
+
+    @Test
+    public void streamJsonArray() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        memberExportService.stream(condition, MemberExportService.StreamFormat.JSON_ARRAY, out);
+
+        JsonNode rows = objectMapper.readTree(out.toByteArray());
+        assertThat(rows.isArray()).isTrue();
+        assertThat(rows).hasSize(250);
+        assertThat(rows.get(0).get("teamName").asText()).isEqualTo("streamTeam");
+    }
+
+    @Test
+    public void exportNdjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        memberExportService.export(condition, MemberExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(250);
+        assertThat(objectMapper.readTree(lines[0]).get("teamName").asText()).isEqualTo("streamTeam");
+    }
+
+    @Test
+    public void exportCsvQuotesValues() throws Exception {
+        Team team = new Team("a,\"b\"");
+        em.persist(team);
+        Member member = new Member("csvMember", 30, team);
+        em.persist(member);
+        em.flush();
+        MemberSearchCondition csvCondition = new MemberSearchCondition();
+        csvCondition.setUsername("csvMember");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        memberExportService.export(csvCondition, MemberExportService.Format.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "memberId,username,age,teamId,teamName\n"
+                        + member.getId() + ",csvMember,30," + team.getId() + ",\"a,\"\"b\"\"\"\n");
+    }
+
+    @Test
+    public void formatIsCaseInsensitive(){
+        assertThat(MemberExportService.Format.of("csv")).isEqualTo(MemberExportService.Format.CSV);
+        assertThatThrownBy(() -> MemberExportService.Format.of("xml")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String data(String event) {
+        return event.substring(event.indexOf("data: ") + "data: ".length());
+    }
+}
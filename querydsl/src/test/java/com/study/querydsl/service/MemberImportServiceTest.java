@@ -0,0 +1,83 @@
+package com.study.querydsl.service;
+
+import com.study.querydsl.dto.MemberImportResult;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class MemberImportServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberImportService memberImportService;
+
+    @Test
+    public void importNdjson() throws Exception {
+        Team existing = new Team("importTeamA");
+        em.persist(existing);
+
+        MemberImportResult result = memberImportService.importMembers(body(
+                "{\"username\":\"import1\",\"age\":10,\"teamName\":\"importTeamA\"}\n"
+                        + "\n"
+                        + "{\"username\":\"import2\",\"age\":20,\"teamName\":\"importTeamB\"}\n"
+                        + "{\"username\":\"import3\",\"age\":30,\"teamName\":\"importTeamB\"}\n"
+                        + "{\"username\":\"import4\",\"age\":40}\n"), MemberImportService.Format.NDJSON);
+
+        assertThat(result.getCount()).isEqualTo(4);
+        List<Member> members = findImported();
+        assertThat(members).extracting("username").containsExactly("import1", "import2", "import3", "import4");
+        //있는 팀은 그대로 , 없는 팀은 한번만 만든다
+        assertThat(members.get(0).getTeam().getId()).isEqualTo(existing.getId());
+        assertThat(members.get(1).getTeam().getName()).isEqualTo("importTeamB");
+        assertThat(members.get(2).getTeam().getId()).isEqualTo(members.get(1).getTeam().getId());
+        assertThat(members.get(3).getTeam()).isNull();
+    }
+
+    @Test
+    public void importCsv() throws Exception {
+        MemberImportResult result = memberImportService.importMembers(body(
+                "username,age,teamName\n"
+                        + "import1,10,\"team, \"\"A\"\"\"\n"
+                        + "import2, 20\n"), MemberImportService.Format.CSV);
+
+        assertThat(result.getCount()).isEqualTo(2);
+        List<Member> members = findImported();
+        assertThat(members.get(0).getTeam().getName()).isEqualTo("team, \"A\"");
+        assertThat(members.get(1).getAge()).isEqualTo(20);
+        assertThat(members.get(1).getTeam()).isNull();
+    }
+
+    @Test
+    public void invalidLineIsRejected(){
+        assertThatThrownBy(() -> memberImportService.importMembers(body(
+                "import1,10\n"
+                        + "import2,abc\n"), MemberImportService.Format.CSV))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("2번째 줄");
+    }
+
+    private List<Member> findImported() {
+        return em.createQuery("select m from Member m where m.username like 'import%' order by m.username", Member.class)
+                .getResultList();
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,67 @@
+package com.study.querydsl.service;
+
+import com.study.querydsl.dto.TeamStatsDto;
+import com.study.querydsl.entity.Member;
+import com.study.querydsl.entity.Team;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamStatsServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TeamStatsService teamStatsService;
+
+    Team teamA, teamB;
+
+    @BeforeEach
+    public void before(){
+        teamA = new Team("teamA");
+        teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.flush();
+    }
+
+    /**
+     * QuerydslBasicTest.group 과 같은 결과를 team_stats 에서 읽는다
+     */
+    @Test
+    public void recomputeAndRead(){
+        teamStatsService.recompute(List.of(teamA.getId(), teamB.getId()));
+
+        TeamStatsDto statsA = find(teamA);
+        assertThat(statsA.getMemberCount()).isEqualTo(2);
+        assertThat(statsA.getAgeSum()).isEqualTo(30);
+        assertThat(statsA.getAgeAvg()).isEqualTo(15);
+        assertThat(statsA.getMinAge()).isEqualTo(10);
+        assertThat(statsA.getMaxAge()).isEqualTo(20);
+
+        TeamStatsDto statsB = find(teamB);
+        assertThat(statsB.getAgeAvg()).isEqualTo(35);
+    }
+
+    private TeamStatsDto find(Team team) {
+        return teamStatsService.findAll().stream()
+                .filter(stats -> stats.getTeamId().equals(team.getId()))
+                .findFirst()
+                .orElseThrow();
+    }
+}